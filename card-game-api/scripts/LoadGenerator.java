@@ -0,0 +1,149 @@
+/*
+ * Single-file load generator for scripts/thread-benchmark.sh.
+ *
+ *   java scripts/LoadGenerator.java <baseUrl> <concurrency> <seconds>
+ *
+ * Each client runs game sessions back to back: create a game, add two
+ * players and a deck, shuffle, then rounds of deal / read hand / read
+ * scores, read the deck and delete the game. Every one of these calls
+ * goes through GameService to H2, and every mutation carries an
+ * Idempotency-Key. Prints throughput and latency
+ * percentiles over all requests.
+ */
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LoadGenerator {
+
+  private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-f-]{36})\"");
+  private static final int DEAL_ROUNDS = 5;
+
+  private final HttpClient client;
+  private final String baseUrl;
+  private final long deadline;
+  private final LongAdder errors = new LongAdder();
+
+  LoadGenerator(HttpClient client, String baseUrl, long deadline) {
+    this.client = client;
+    this.baseUrl = baseUrl;
+    this.deadline = deadline;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+    int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+    HttpClient client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofSeconds(5))
+                            .executor(clients)
+                            .build();
+    long start = System.nanoTime();
+    LoadGenerator generator = new LoadGenerator(client, baseUrl, start + Duration.ofSeconds(seconds).toNanos());
+
+    List<java.util.concurrent.Future<long[]>> results = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      results.add(clients.submit(generator::runSessions));
+    }
+    List<long[]> perClient = new ArrayList<>();
+    for (var result : results) {
+      perClient.add(result.get());
+    }
+    double elapsed = (System.nanoTime() - start) / 1e9;
+    clients.shutdown();
+
+    long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    System.out.printf("requests %d  errors %d  throughput %.0f req/s  p50 %.1f ms  p99 %.1f ms  max %.1f ms%n",
+        latencies.length, generator.errors.sum(), latencies.length / elapsed,
+        percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+  }
+
+  private long[] runSessions() {
+    long[] latencies = new long[1024];
+    int count = 0;
+    while (System.nanoTime() < deadline) {
+      List<Long> session = new ArrayList<>();
+      try {
+        runSession(session);
+      } catch (Exception e) {
+        errors.increment();
+      }
+      for (long latency : session) {
+        if (count == latencies.length) {
+          latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latency;
+      }
+    }
+    return Arrays.copyOf(latencies, count);
+  }
+
+  private void runSession(List<Long> latencies) throws Exception {
+    String game = id(send("POST", "/games", null, latencies));
+    String alice = id(send("POST", "/games/" + game + "/players", "{\"name\":\"alice\"}", latencies));
+    String bob = id(send("POST", "/games/" + game + "/players", "{\"name\":\"bob\"}", latencies));
+    send("POST", "/games/" + game + "/add-deck", null, latencies);
+    send("POST", "/games/" + game + "/shuffle", null, latencies);
+    for (int round = 0; round < DEAL_ROUNDS; round++) {
+      for (String player : List.of(alice, bob)) {
+        send("POST", "/games/" + game + "/deal-cards", "{\"playerId\":\"" + player + "\",\"amount\":2}", latencies);
+        send("GET", "/games/" + game + "/players/" + player + "/cards", null, latencies);
+      }
+      send("GET", "/games/" + game + "/players", null, latencies);
+    }
+    send("GET", "/games/" + game + "/deck", null, latencies);
+    send("DELETE", "/games/" + game, null, latencies);
+  }
+
+  private String send(String method, String path, String json, List<Long> latencies) throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                      .timeout(Duration.ofSeconds(30));
+    if (!method.equals("GET")) {
+      request.header("Idempotency-Key", UUID.randomUUID().toString());
+    }
+    if (json != null) {
+      request.header("Content-Type", "application/json")
+          .method(method, HttpRequest.BodyPublishers.ofString(json));
+    } else {
+      request.method(method, HttpRequest.BodyPublishers.noBody());
+    }
+    long start = System.nanoTime();
+    HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    latencies.add(System.nanoTime() - start);
+    if (response.statusCode() >= 400) {
+      throw new IllegalStateException(method + " " + path + " returned " + response.statusCode());
+    }
+    return response.body();
+  }
+
+  private static String id(String body) {
+    Matcher matcher = ID.matcher(body);
+    if (!matcher.find()) {
+      throw new IllegalStateException("No id in response: " + body);
+    }
+    return matcher.group(1);
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(index, 0)] / 1e6;
+  }
+}
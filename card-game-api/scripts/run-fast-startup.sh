@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+# Starts the application from the output of `./mvnw -Pfast-startup package`:
+# the extracted jar, the AOT-generated bean definitions and the AppCDS archive.
+set -euo pipefail
+
+cd "$(dirname "$0")/../target/fast-startup"
+
+exec java \
+  -XX:SharedArchiveFile=application.jsa \
+  -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=fast-startup \
+  -jar card-game-api-0.0.1-SNAPSHOT.jar "$@"
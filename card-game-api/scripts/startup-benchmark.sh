@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Compares the default build with the fast-startup build.
+#
+# For each variant the application is started RUNS times and two numbers
+# are recorded:
+#   startup        - JVM launch until "Started CardGameApiApplication" is logged
+#   first request  - latency of the first GET /games after that, which is where
+#                    lazy initialization pays for the beans it skipped at startup
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (default 5)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BENCH="$ROOT/target/startup-benchmark"
+JAR=card-game-api-0.0.1-SNAPSHOT.jar
+
+cd "$ROOT"
+mkdir -p "$BENCH"
+
+echo "Building default jar..."
+./mvnw -q -B -DskipTests package
+cp "target/$JAR" "$BENCH/default.jar"
+
+echo "Building fast-startup jar (AOT + CDS training run)..."
+./mvnw -q -B -DskipTests -Pfast-startup package
+
+now_ms() { date +%s%3N; }
+
+# Prints "<startup ms> <first request ms>" for one run of the given command.
+measure() {
+  local log="$BENCH/run.log"
+  local start pid
+  start=$(now_ms)
+  "$@" --server.port="$PORT" > "$log" 2>&1 &
+  pid=$!
+  until grep -q "Started CardGameApiApplication" "$log"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Application exited during startup, see $log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  local started first
+  started=$(( $(now_ms) - start ))
+  first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/games")
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$started $(awk -v t="$first" 'BEGIN { printf "%d", t * 1000 }')"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+report() {
+  local name=$1; shift
+  local results=()
+  for _ in $(seq "$RUNS"); do
+    results+=("$(measure "$@")")
+  done
+  printf '%-14s startup %6s ms   first request %5s ms\n' "$name" \
+    "$(printf '%s\n' "${results[@]}" | cut -d' ' -f1 | median)" \
+    "$(printf '%s\n' "${results[@]}" | cut -d' ' -f2 | median)"
+}
+
+echo "Median of $RUNS runs:"
+report default java -jar "$BENCH/default.jar"
+report fast-startup "$ROOT/scripts/run-fast-startup.sh"
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request handling under a
+# blocking-heavy mix of /games calls (see LoadGenerator.java).
+#
+# Usage: scripts/thread-benchmark.sh [concurrency] [seconds]   (default 400 20)
+#
+# Admission control is opened up for the run so that both modes are
+# limited by their threading model and connection pool, not by 429s.
+# Pinned virtual threads, if any, are reported to target/thread-benchmark/virtual.log.
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+SECONDS_PER_RUN=${2:-20}
+PORT=${PORT:-18081}
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+OUT="$ROOT/target/thread-benchmark"
+JAR="$ROOT/target/card-game-api-0.0.1-SNAPSHOT.jar"
+
+cd "$ROOT"
+mkdir -p "$OUT"
+
+echo "Building..."
+./mvnw -q -B -DskipTests package
+
+run() {
+  local name=$1; shift
+  local log="$OUT/$name.log"
+  java -Djdk.tracePinnedThreads=short "$@" -jar "$JAR" \
+    --server.port="$PORT" \
+    --game.admission.max-in-flight=100000 \
+    --game.admission.max-in-flight-per-game=100 > "$log" 2>&1 &
+  local pid=$!
+  until grep -q "Started CardGameApiApplication" "$log"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Application exited during startup, see $log" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+
+  # Short warm-up so both runs measure JIT-compiled code
+  java "$ROOT/scripts/LoadGenerator.java" "http://localhost:$PORT" 50 5 > /dev/null
+  printf '%-10s ' "$name"
+  java "$ROOT/scripts/LoadGenerator.java" "http://localhost:$PORT" "$CONCURRENCY" "$SECONDS_PER_RUN"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+echo "$CONCURRENCY clients for ${SECONDS_PER_RUN}s each:"
+run platform
+run virtual -Dspring.profiles.active=virtual-threads
+
+pinned=$(grep -c "<== monitors" "$OUT/virtual.log" || true)
+echo "Pinned virtual thread events: $pinned"
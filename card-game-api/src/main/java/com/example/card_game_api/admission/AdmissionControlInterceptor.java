@@ -0,0 +1,171 @@
+/*
+ * Admission control in front of the game endpoints.
+ *
+ * Every request under /games takes a permit from a global in-flight limit,
+ * and requests for a specific game also take one from that game's limit.
+ * Permits are taken with tryAcquire, so a request that does not fit is
+ * rejected immediately with 429 and a Retry-After header instead of
+ * waiting for a request thread or a database connection. A single busy
+ * game can therefore only hold maxInFlightPerGame threads, leaving the
+ * rest of the capacity for the other tables.
+ *
+ * Coalesced reads (handlers returning a CoalescedRead) only take a global
+ * permit: concurrent spectators of one game share a single computation in
+ * the ReadCoalescer, so the per-game limit would only turn them away
+ * before they could be merged. Neither do deals and hand reads at an open
+ * fast table (handlers marked @ServedByFastTable): they are answered from
+ * memory without touching the game's row, and a fast table exists for
+ * many players dealing at once.
+ *
+ * Per-game counters only exist while the game has requests in flight,
+ * so the map stays bounded by the global limit.
+ */
+
+package com.example.card_game_api.admission;
+
+import com.example.card_game_api.coalescing.CoalescedRead;
+import com.example.card_game_api.table.FastTables;
+import com.example.card_game_api.table.ServedByFastTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+  private static final String ADMITTED_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admitted";
+  private static final String ADMITTED_GAME_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".game";
+
+  private final int maxInFlight;
+  private final int maxInFlightPerGame;
+  private final long retryAfterSeconds;
+  private final Semaphore globalPermits;
+  private final FastTables fastTables;
+  private final Map<UUID, Integer> inFlightByGame = new ConcurrentHashMap<>();
+  private final Counter globalRejections;
+  private final Counter gameRejections;
+
+  public AdmissionControlInterceptor(@Value("${game.admission.max-in-flight:256}") int maxInFlight,
+                                     @Value("${game.admission.max-in-flight-per-game:8}") int maxInFlightPerGame,
+                                     @Value("${game.admission.retry-after:1s}") Duration retryAfter,
+                                     FastTables fastTables,
+                                     MeterRegistry meterRegistry) {
+    this.maxInFlight = maxInFlight;
+    this.maxInFlightPerGame = maxInFlightPerGame;
+    this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    this.globalPermits = new Semaphore(maxInFlight);
+    this.fastTables = fastTables;
+
+    Gauge.builder("game.admission.in_flight", this, AdmissionControlInterceptor::getInFlight)
+        .description("Requests currently admitted to the game endpoints")
+        .register(meterRegistry);
+    Gauge.builder("game.admission.active_games", inFlightByGame, Map::size)
+        .description("Games with at least one request in flight")
+        .register(meterRegistry);
+    Gauge.builder("game.admission.max_game_in_flight", this, AdmissionControlInterceptor::getMaxGameInFlight)
+        .description("In-flight requests of the busiest game")
+        .register(meterRegistry);
+    this.globalRejections = Counter.builder("game.admission.rejected")
+                                .tag("scope", "global")
+                                .description("Requests rejected by admission control")
+                                .register(meterRegistry);
+    this.gameRejections = Counter.builder("game.admission.rejected")
+                              .tag("scope", "game")
+                              .description("Requests rejected by admission control")
+                              .register(meterRegistry);
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!(handler instanceof HandlerMethod handlerMethod)) {
+      return true;
+    }
+    if (!globalPermits.tryAcquire()) {
+      globalRejections.increment();
+      throw new AdmissionRejectedException("Server is at capacity, retry later", retryAfterSeconds);
+    }
+
+    UUID gameId = coalesced(handlerMethod) ? null : gameIdOf(request);
+    if (gameId != null && handlerMethod.hasMethodAnnotation(ServedByFastTable.class) && fastTables.isOpen(gameId)) {
+      gameId = null;
+    }
+    if (gameId != null && !tryAcquireGame(gameId)) {
+      globalPermits.release();
+      gameRejections.increment();
+      throw new AdmissionRejectedException("Too many concurrent requests for this game, retry later", retryAfterSeconds);
+    }
+
+    request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+    if (gameId != null) {
+      request.setAttribute(ADMITTED_GAME_ATTRIBUTE, gameId);
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (request.getAttribute(ADMITTED_ATTRIBUTE) == null) {
+      return;
+    }
+    request.removeAttribute(ADMITTED_ATTRIBUTE);
+    if (request.getAttribute(ADMITTED_GAME_ATTRIBUTE) instanceof UUID gameId) {
+      request.removeAttribute(ADMITTED_GAME_ATTRIBUTE);
+      inFlightByGame.computeIfPresent(gameId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+    globalPermits.release();
+  }
+
+  public int getInFlight() {
+    return maxInFlight - globalPermits.availablePermits();
+  }
+
+  public int getInFlight(UUID gameId) {
+    return inFlightByGame.getOrDefault(gameId, 0);
+  }
+
+  private int getMaxGameInFlight() {
+    return inFlightByGame.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+  }
+
+  private boolean tryAcquireGame(UUID gameId) {
+    boolean[] admitted = {false};
+    inFlightByGame.compute(gameId, (id, count) -> {
+      int current = count == null ? 0 : count;
+      if (current >= maxInFlightPerGame) {
+        return count;
+      }
+      admitted[0] = true;
+      return current + 1;
+    });
+    return admitted[0];
+  }
+
+  private static boolean coalesced(HandlerMethod handler) {
+    return CoalescedRead.class.isAssignableFrom(handler.getMethod().getReturnType());
+  }
+
+  private static UUID gameIdOf(HttpServletRequest request) {
+    Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    if (!(variables instanceof Map<?, ?> map) || !(map.get("gameId") instanceof String gameId)) {
+      return null;
+    }
+    try {
+      return UUID.fromString(gameId);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.card_game_api.admission;
+
+import lombok.Getter;
+
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public AdmissionRejectedException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.card_game_api.admission;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Collections;
+import java.util.Map;
+
+/*
+ * Answers a rejected request with 429 and Retry-After whichever
+ * controller it was headed for: the interceptor runs for every handler
+ * under /games/**, not only GameController's.
+ */
+@RestControllerAdvice
+public class AdmissionRejectedExceptionHandler {
+
+  @ExceptionHandler(AdmissionRejectedException.class)
+  public ResponseEntity<Map<String, String>> handleAdmissionRejectedException(AdmissionRejectedException e) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+               .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+               .body(Collections.singletonMap("error", e.getMessage()));
+  }
+}
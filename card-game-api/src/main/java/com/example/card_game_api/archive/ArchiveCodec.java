@@ -0,0 +1,129 @@
+/*
+ * Binary encoding of an archived game.
+ *
+ * A record is written with DataOutputStream and deflated as a whole:
+ *   byte    format (FORMAT)
+ *   long*2  game id
+ *   long    version
+ *   long    lastActivityAt, epoch millis (NO_TIME when unknown)
+ *   long    archivedAt, epoch millis
+ *   double  cutCardPenetration
+ *   int     cardsDealtSinceShuffle
+ *   cards   undealt cards, then discard pile
+ *   int     player count, then per player:
+ *             long*2 id, boolean has name, UTF name, cards hand
+ * where cards is an int count followed by one code byte per card (see
+ * CardCodes). Each record is compressed on its own, so a game can be read
+ * back without touching its neighbours.
+ */
+
+package com.example.card_game_api.archive;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+final class ArchiveCodec {
+
+  private static final byte FORMAT = 1;
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private ArchiveCodec() {
+  }
+
+  static byte[] encode(ArchivedGame game) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+      out.writeByte(FORMAT);
+      writeId(out, game.id());
+      out.writeLong(game.version());
+      out.writeLong(game.lastActivityAt() == null ? NO_TIME : game.lastActivityAt().toEpochMilli());
+      out.writeLong(game.archivedAt().toEpochMilli());
+      out.writeDouble(game.cutCardPenetration());
+      out.writeInt(game.cardsDealtSinceShuffle());
+      writeCards(out, game.gameDeck());
+      writeCards(out, game.discardPile());
+      out.writeInt(game.players().size());
+      for (ArchivedGame.ArchivedPlayer player : game.players()) {
+        writeId(out, player.id());
+        out.writeBoolean(player.name() != null);
+        if (player.name() != null) {
+          out.writeUTF(player.name());
+        }
+        writeCards(out, player.hand());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  static ArchivedGame decode(byte[] record) {
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(record)))) {
+      byte format = in.readByte();
+      if (format != FORMAT) {
+        throw new IllegalStateException("Unknown archive record format " + format);
+      }
+      UUID id = readId(in);
+      long version = in.readLong();
+      long lastActivityAt = in.readLong();
+      Instant archivedAt = Instant.ofEpochMilli(in.readLong());
+      double cutCardPenetration = in.readDouble();
+      int cardsDealtSinceShuffle = in.readInt();
+      List<Card> gameDeck = readCards(in);
+      List<Card> discardPile = readCards(in);
+      int playerCount = in.readInt();
+      List<ArchivedGame.ArchivedPlayer> players = new ArrayList<>(playerCount);
+      for (int i = 0; i < playerCount; i++) {
+        UUID playerId = readId(in);
+        String name = in.readBoolean() ? in.readUTF() : null;
+        players.add(new ArchivedGame.ArchivedPlayer(playerId, name, readCards(in)));
+      }
+      return new ArchivedGame(id, version, lastActivityAt == NO_TIME ? null : Instant.ofEpochMilli(lastActivityAt),
+          archivedAt, cutCardPenetration, cardsDealtSinceShuffle, gameDeck, discardPile, players);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Corrupt archive record", e);
+    }
+  }
+
+  private static void writeId(DataOutputStream out, UUID id) throws IOException {
+    out.writeLong(id.getMostSignificantBits());
+    out.writeLong(id.getLeastSignificantBits());
+  }
+
+  private static UUID readId(DataInputStream in) throws IOException {
+    return new UUID(in.readLong(), in.readLong());
+  }
+
+  private static void writeCards(DataOutputStream out, List<Card> cards) throws IOException {
+    out.writeInt(cards.size());
+    for (Card card : cards) {
+      out.writeByte(CardCodes.code(card));
+    }
+  }
+
+  private static List<Card> readCards(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<Card> cards = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      cards.add(CardCodes.fromCode(in.readUnsignedByte()));
+    }
+    return cards;
+  }
+}
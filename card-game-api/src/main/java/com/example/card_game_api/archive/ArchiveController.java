@@ -0,0 +1,51 @@
+package com.example.card_game_api.archive;
+
+import com.example.card_game_api.archive.dto.response.ArchivedGameResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/archive")
+public class ArchiveController {
+
+  private final GameArchiveService archiveService;
+
+  public ArchiveController(GameArchiveService archiveService) {
+    this.archiveService = archiveService;
+  }
+
+  @PostMapping("/games/{gameId}")
+  @Operation(summary = "Move a game out of the live tables into the archive")
+  public ResponseEntity<ArchivedGameResponse> archiveGame(@PathVariable UUID gameId) {
+    ArchivedGameResponse archived = archiveService.archiveGame(gameId);
+    URI location = ServletUriComponentsBuilder.fromCurrentRequest().build().toUri();
+    return ResponseEntity.created(location).body(archived);
+  }
+
+  @GetMapping("/games/{gameId}")
+  @Operation(summary = "Get an archived game by ID")
+  public ArchivedGameResponse getArchivedGame(@PathVariable UUID gameId) {
+    return archiveService.findArchivedGame(gameId);
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  public Map<String, String> handleNoSuchElementException(NoSuchElementException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+}
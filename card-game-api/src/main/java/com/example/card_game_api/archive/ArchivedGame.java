@@ -0,0 +1,34 @@
+package com.example.card_game_api.archive;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.Game;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Everything kept of a game once it is archived: its cards, players and
+ * hands as they were when it was moved out of the live tables.
+ */
+record ArchivedGame(UUID id,
+                    long version,
+                    Instant lastActivityAt,
+                    Instant archivedAt,
+                    double cutCardPenetration,
+                    int cardsDealtSinceShuffle,
+                    List<Card> gameDeck,
+                    List<Card> discardPile,
+                    List<ArchivedPlayer> players) {
+
+  record ArchivedPlayer(UUID id, String name, List<Card> hand) {}
+
+  static ArchivedGame of(Game game, Instant archivedAt) {
+    List<ArchivedPlayer> players = game.getPlayers().stream()
+        .map(player -> new ArchivedPlayer(player.getId(), player.getName(), List.copyOf(player.getHand())))
+        .toList();
+    return new ArchivedGame(game.getId(), game.getVersion(), game.getLastActivityAt(), archivedAt,
+        game.getCutCardPenetration(), game.getCardsDealtSinceShuffle(), List.copyOf(game.shoeFromTop()),
+        List.copyOf(game.getDiscardPile()), players);
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Append-only, compressed storage of archived games in local segment
+ * files under game.archive.directory.
+ *
+ * Each archived game is one record (see ArchiveCodec) appended to the
+ * active segment, segment-NNNNNN.arc, behind a fixed header:
+ *   long*2  game id
+ *   int     length of the compressed record
+ *   int     CRC32 of the compressed record
+ * Once a segment reaches game.archive.segment-size the next record starts
+ * a new one. Appends are forced to disk before they return, so a game's
+ * live rows are only deleted once its record is durable. Segments are
+ * never rewritten; archiving a game again appends a newer record, which
+ * the index then points to.
+ *
+ * Inside a transaction the index only points to a new record once the
+ * transaction commits. If it rolls back the record stays unindexed and a
+ * tombstone (a header with a zero length) is appended after it, so the
+ * startup scan skips it too and keeps the game's previous record, if any.
+ *
+ * The index (game id to segment, offset and length) lives in memory and
+ * is rebuilt at startup from the record headers alone, without
+ * decompressing anything. A record cut short by a crash is dropped by
+ * truncating the last segment back to the end of its last whole record.
+ *
+ * Reads are lazy: a game is read from its segment and decoded the first
+ * time it is asked for, then served from an LRU cache of the
+ * game.archive.cache-size most recently read games.
+ */
+
+package com.example.card_game_api.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+@Component
+public class GameArchive {
+
+  private static final String PREFIX = "segment-";
+  private static final String SUFFIX = ".arc";
+  private static final int HEADER_SIZE = 16 + 4 + 4;
+
+  private final Path directory;
+  private final long segmentSize;
+  private final int cacheSize;
+  private final Map<UUID, Location> index = new ConcurrentHashMap<>();
+  private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ReentrantLock cacheLock = new ReentrantLock();
+  private final Map<UUID, ArchivedGame> cache;
+  private final Counter cacheHits;
+  private final Counter cacheMisses;
+  private int activeSegment;
+
+  public GameArchive(MeterRegistry meterRegistry,
+                     @Value("${game.archive.directory:${java.io.tmpdir}/card-game-archive}") Path directory,
+                     @Value("${game.archive.segment-size:64MB}") DataSize segmentSize,
+                     @Value("${game.archive.cache-size:256}") int cacheSize) {
+    this.directory = directory;
+    this.segmentSize = segmentSize.toBytes();
+    this.cacheSize = cacheSize;
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UUID, ArchivedGame> eldest) {
+        return size() > GameArchive.this.cacheSize;
+      }
+    };
+    loadSegments();
+
+    Gauge.builder("game.archive.games", index, Map::size)
+        .description("Games held in the archive")
+        .register(meterRegistry);
+    Gauge.builder("game.archive.bytes", this, GameArchive::bytes)
+        .description("Size of the archive segment files")
+        .register(meterRegistry);
+    this.cacheHits = Counter.builder("game.archive.cache.hits")
+                         .description("Archived game reads served from the cache")
+                         .register(meterRegistry);
+    this.cacheMisses = Counter.builder("game.archive.cache.misses")
+                           .description("Archived game reads decoded from a segment file")
+                           .register(meterRegistry);
+  }
+
+  public boolean contains(UUID gameId) {
+    return index.containsKey(gameId);
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  void append(ArchivedGame game) {
+    byte[] record = ArchiveCodec.encode(game);
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    Location location = write(game.id(), record, (int) crc.getValue());
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(game.id(), location);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(game.id(), location);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          write(game.id(), new byte[0], 0);
+        }
+      }
+    });
+  }
+
+  Optional<ArchivedGame> find(UUID gameId) {
+    ArchivedGame cached = cached(gameId);
+    if (cached != null) {
+      cacheHits.increment();
+      return Optional.of(cached);
+    }
+    Location location = index.get(gameId);
+    if (location == null) {
+      return Optional.empty();
+    }
+    cacheMisses.increment();
+    ArchivedGame game = ArchiveCodec.decode(read(location));
+    cacheLock.lock();
+    try {
+      // Only cache what the index still points to, not a record superseded meanwhile
+      if (location.equals(index.get(gameId))) {
+        cache.put(gameId, game);
+      }
+    } finally {
+      cacheLock.unlock();
+    }
+    return Optional.of(game);
+  }
+
+  long bytes() {
+    long bytes = 0;
+    for (FileChannel channel : segments.values()) {
+      try {
+        bytes += channel.size();
+      } catch (IOException e) {
+        // A closed channel no longer counts
+      }
+    }
+    return bytes;
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    for (FileChannel channel : segments.values()) {
+      channel.close();
+    }
+    segments.clear();
+  }
+
+  private Location write(UUID gameId, byte[] record, int crc) {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + record.length)
+                            .putLong(gameId.getMostSignificantBits())
+                            .putLong(gameId.getLeastSignificantBits())
+                            .putInt(record.length)
+                            .putInt(crc)
+                            .put(record)
+                            .flip();
+
+    appendLock.lock();
+    try {
+      FileChannel channel = segments.get(activeSegment);
+      if (channel == null || (channel.size() > 0 && channel.size() + buffer.remaining() > segmentSize)) {
+        activeSegment++;
+        channel = open(activeSegment);
+      }
+      long offset = channel.size();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, offset + buffer.position());
+      }
+      channel.force(false);
+      return new Location(activeSegment, offset + HEADER_SIZE, record.length);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not append to the game archive", e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  private void publish(UUID gameId, Location location) {
+    index.put(gameId, location);
+    evict(gameId);
+  }
+
+  private ArchivedGame cached(UUID gameId) {
+    cacheLock.lock();
+    try {
+      return cache.get(gameId);
+    } finally {
+      cacheLock.unlock();
+    }
+  }
+
+  private void evict(UUID gameId) {
+    cacheLock.lock();
+    try {
+      cache.remove(gameId);
+    } finally {
+      cacheLock.unlock();
+    }
+  }
+
+  private byte[] read(Location location) {
+    ByteBuffer buffer = ByteBuffer.allocate(location.length());
+    try {
+      FileChannel channel = segments.get(location.segment());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+          throw new IOException("Archive record ends past the end of segment " + location.segment());
+        }
+      }
+      ByteBuffer header = ByteBuffer.allocate(4);
+      channel.read(header, location.offset() - 4);
+      CRC32 crc = new CRC32();
+      crc.update(buffer.array());
+      if (header.getInt(0) != (int) crc.getValue()) {
+        throw new IOException("Archive record in segment " + location.segment() + " is corrupt");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.array();
+  }
+
+  private void loadSegments() {
+    List<Integer> numbers = new ArrayList<>();
+    try {
+      Files.createDirectories(directory);
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+        for (Path file : files) {
+          String name = file.getFileName().toString();
+          try {
+            numbers.add(Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+          } catch (NumberFormatException e) {
+            // Not one of ours
+          }
+        }
+      }
+      numbers.sort(null);
+      Map<UUID, Location> superseded = new HashMap<>();
+      for (int segment : numbers) {
+        scan(segment, open(segment), superseded);
+        activeSegment = segment;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the game archive in " + directory, e);
+    }
+  }
+
+  private void scan(int segment, FileChannel channel, Map<UUID, Location> superseded) throws IOException {
+    long size = channel.size();
+    long offset = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (offset + HEADER_SIZE <= size) {
+      header.clear();
+      while (header.hasRemaining() && channel.read(header, offset + header.position()) >= 0) {
+        // Keep reading until the header is complete
+      }
+      UUID gameId = new UUID(header.getLong(0), header.getLong(8));
+      int length = header.getInt(16);
+      if (length < 0 || offset + HEADER_SIZE + length > size) {
+        break;
+      }
+      if (length > 0) {
+        Location previous = index.put(gameId, new Location(segment, offset + HEADER_SIZE, length));
+        if (previous != null) {
+          superseded.put(gameId, previous);
+        }
+      } else {
+        // A tombstone voids the game's latest record, whose transaction rolled back
+        Location previous = superseded.remove(gameId);
+        if (previous != null) {
+          index.put(gameId, previous);
+        } else {
+          index.remove(gameId);
+        }
+      }
+      offset += HEADER_SIZE + length;
+    }
+    if (offset < size) {
+      channel.truncate(offset);
+    }
+  }
+
+  private FileChannel open(int segment) throws IOException {
+    Path file = directory.resolve(String.format("%s%06d%s", PREFIX, segment, SUFFIX));
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    segments.put(segment, channel);
+    return channel;
+  }
+
+  private record Location(int segment, long offset, int length) {}
+}
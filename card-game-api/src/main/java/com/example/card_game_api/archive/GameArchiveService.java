@@ -0,0 +1,118 @@
+/*
+ * Moves games out of the live tables into the GameArchive.
+ *
+ * archiveGame(UUID gameId): Archives one game on request.
+ * archiveIdleGames(Collection<UUID> gameIds, Instant cutoff): Archives,
+ *   in one transaction, those of the given games whose last activity is
+ *   older than the cutoff. Used by the idle reaper when game.reaper.archive
+ *   is set, in place of deleting them.
+ * findArchivedGame(UUID gameId): Reads an archived game back.
+ *
+ * The game's row is locked (PESSIMISTIC_WRITE) before it is read, so
+ * the record holds the game's latest committed version: a mutation
+ * running meanwhile either commits first or, once the game is gone,
+ * fails to claim its version. A game's record is appended, and forced to
+ * disk, before its live rows are deleted in the same transaction, so a
+ * game is never lost between the two. The archive only indexes the
+ * record once the transaction commits; if the delete rolls back the game
+ * simply stays live and is not found in the archive. Archiving publishes a
+ * GamesDeletedEvent, so the leaderboard, statistics, history and reaper
+ * forget the game as for a deletion.
+ *
+ * Large-shoe games keep their cards in a memory-mapped file, not in the
+ * live tables, and are not archived: the reaper deletes them as before.
+ * A game open as a fast table is only archived once idle, by the reaper,
+ * when the table has long saved its deals.
+ */
+
+package com.example.card_game_api.archive;
+
+import com.example.card_game_api.archive.dto.response.ArchivedGameResponse;
+import com.example.card_game_api.archive.dto.response.ArchivedPlayerResponse;
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.Game;
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class GameArchiveService {
+
+  private final GameRepository gameRepository;
+  private final GameArchive archive;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public GameArchiveService(GameRepository gameRepository, GameArchive archive,
+                            ApplicationEventPublisher eventPublisher) {
+    this.gameRepository = gameRepository;
+    this.archive = archive;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Transactional
+  public ArchivedGameResponse archiveGame(UUID gameId) {
+    Game game = gameRepository.findByIdForUpdate(gameId)
+                    .orElseThrow(() -> new NoSuchElementException("Game not found"));
+    if (game.isLargeShoe()) {
+      throw new IllegalArgumentException("A large-shoe game cannot be archived");
+    }
+    if (game.isFastTable()) {
+      throw new IllegalArgumentException("Close the game's fast table before archiving it");
+    }
+    ArchivedGame archived = ArchivedGame.of(game, Instant.now());
+    archive.append(archived);
+    gameRepository.delete(game);
+    eventPublisher.publishEvent(new GamesDeletedEvent(Collections.singletonList(gameId)));
+    return response(archived);
+  }
+
+  @Transactional
+  public List<UUID> archiveIdleGames(Collection<UUID> gameIds, Instant cutoff) {
+    List<UUID> idleGameIds = new ArrayList<>();
+    Set<UUID> goneGameIds = new HashSet<>(gameIds);
+    Instant now = Instant.now();
+    for (Game game : gameRepository.findAllByIdForUpdate(gameIds)) {
+      if (game.getLastActivityAt() != null && !game.getLastActivityAt().isBefore(cutoff)) {
+        goneGameIds.remove(game.getId());
+        continue;
+      }
+      if (!game.isLargeShoe()) {
+        archive.append(ArchivedGame.of(game, now));
+      }
+      gameRepository.delete(game);
+      idleGameIds.add(game.getId());
+    }
+    eventPublisher.publishEvent(new GamesDeletedEvent(goneGameIds));
+    return idleGameIds;
+  }
+
+  public ArchivedGameResponse findArchivedGame(UUID gameId) {
+    return archive.find(gameId)
+               .map(GameArchiveService::response)
+               .orElseThrow(() -> new NoSuchElementException("Archived game not found"));
+  }
+
+  private static ArchivedGameResponse response(ArchivedGame game) {
+    List<ArchivedPlayerResponse> players = game.players().stream()
+        .map(player -> new ArchivedPlayerResponse(player.id(), player.name(), player.hand(), handValue(player.hand())))
+        .toList();
+    return new ArchivedGameResponse(game.id(), game.version(), game.lastActivityAt(), game.archivedAt(),
+        game.cutCardPenetration(), game.cardsDealtSinceShuffle(), game.gameDeck(), game.discardPile(), players);
+  }
+
+  private static int handValue(List<Card> hand) {
+    return hand.stream().mapToInt(card -> card.getRank().getValue()).sum();
+  }
+}
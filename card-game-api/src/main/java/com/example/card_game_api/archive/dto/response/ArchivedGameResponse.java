@@ -0,0 +1,23 @@
+package com.example.card_game_api.archive.dto.response;
+
+import com.example.card_game_api.card.Card;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ArchivedGameResponse {
+  private UUID id;
+  private long version;
+  private Instant lastActivityAt;
+  private Instant archivedAt;
+  private double cutCardPenetration;
+  private int cardsDealtSinceShuffle;
+  private List<Card> gameDeck;
+  private List<Card> discardPile;
+  private List<ArchivedPlayerResponse> players;
+}
@@ -0,0 +1,17 @@
+package com.example.card_game_api.archive.dto.response;
+
+import com.example.card_game_api.card.Card;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ArchivedPlayerResponse {
+  private UUID id;
+  private String name;
+  private List<Card> hand;
+  private int totalValue;
+}
@@ -0,0 +1,62 @@
+/*
+ * Compact encodings of a card.
+ *
+ * The numeric code is suit.ordinal() * 13 + rank.ordinal(), so every card
+ * fits in one byte (0..51). The short name is the usual two-character
+ * form: rank A, 2-9, T, J, Q, K followed by suit H, S, C, D, e.g. "AH"
+ * or "TS". Both are table lookups, with no string building per card.
+ */
+
+package com.example.card_game_api.card;
+
+public final class CardCodes {
+
+  public static final int CARD_COUNT = 52;
+
+  private static final String RANK_CHARS = "A23456789TJQK";
+  private static final String SUIT_CHARS = "HSCD";
+  private static final int RANKS = Rank.values().length;
+  private static final Suit[] SUITS = Suit.values();
+  private static final Rank[] RANK_VALUES = Rank.values();
+  private static final String[] SHORT_NAMES = new String[CARD_COUNT];
+
+  static {
+    for (Suit suit : SUITS) {
+      for (Rank rank : RANK_VALUES) {
+        SHORT_NAMES[suit.ordinal() * RANKS + rank.ordinal()] =
+            "" + RANK_CHARS.charAt(rank.ordinal()) + SUIT_CHARS.charAt(suit.ordinal());
+      }
+    }
+  }
+
+  private CardCodes() {
+  }
+
+  public static int code(Card card) {
+    return card.getSuit().ordinal() * RANKS + card.getRank().ordinal();
+  }
+
+  public static int code(Suit suit, Rank rank) {
+    return suit.ordinal() * RANKS + rank.ordinal();
+  }
+
+  public static Card fromCode(int code) {
+    return new Card(suitOf(code), rankOf(code));
+  }
+
+  public static Suit suitOf(int code) {
+    return SUITS[code / RANKS];
+  }
+
+  public static Rank rankOf(int code) {
+    return RANK_VALUES[code % RANKS];
+  }
+
+  public static String shortName(Card card) {
+    return SHORT_NAMES[code(card)];
+  }
+
+  public static String shortName(int code) {
+    return SHORT_NAMES[code];
+  }
+}
@@ -0,0 +1,14 @@
+/*
+ * A response body that is computed and serialized by the
+ * CoalescingHttpMessageConverter, once for all concurrent requests with
+ * the same key and negotiated media type. type is the declared type of
+ * the value, used to pick the converter that serializes it.
+ */
+
+package com.example.card_game_api.coalescing;
+
+import java.lang.reflect.Type;
+import java.util.function.Supplier;
+
+public record CoalescedRead<T>(ReadKey key, Type type, Supplier<T> value) {
+}
@@ -0,0 +1,108 @@
+/*
+ * Writes CoalescedRead bodies.
+ *
+ * The media type has already been negotiated by Spring when the body is
+ * written, so the computation and its serialization (by whichever of the
+ * delegate converters handles the value in that media type) run together
+ * in one ReadCoalescer flight, and every coalesced request writes the
+ * same bytes.
+ *
+ * It is only meant for handlers that declare their produces types: the
+ * converter accepts any concrete media type and relies on the mapping to
+ * limit it to what the delegates can write.
+ */
+
+package com.example.card_game_api.coalescing;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+public class CoalescingHttpMessageConverter extends AbstractHttpMessageConverter<CoalescedRead<?>> {
+
+  private final ReadCoalescer readCoalescer;
+  private final List<HttpMessageConverter<?>> delegates;
+
+  public CoalescingHttpMessageConverter(ReadCoalescer readCoalescer, List<HttpMessageConverter<?>> delegates) {
+    super(MediaType.ALL);
+    this.readCoalescer = readCoalescer;
+    this.delegates = List.copyOf(delegates);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return CoalescedRead.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return mediaType != null && mediaType.isConcrete() && super.canWrite(clazz, mediaType);
+  }
+
+  @Override
+  protected void writeInternal(CoalescedRead<?> read, HttpOutputMessage outputMessage) throws IOException {
+    MediaType mediaType = outputMessage.getHeaders().getContentType();
+    byte[] body = readCoalescer.execute(read.key(), mediaType, () -> serialize(read.value().get(), read.type(), mediaType));
+    outputMessage.getBody().write(body);
+  }
+
+  @Override
+  protected CoalescedRead<?> readInternal(Class<? extends CoalescedRead<?>> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Coalesced reads are write-only", inputMessage);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private byte[] serialize(Object value, Type type, MediaType mediaType) {
+    BufferedOutputMessage buffer = new BufferedOutputMessage();
+    try {
+      for (HttpMessageConverter converter : delegates) {
+        if (converter instanceof GenericHttpMessageConverter generic) {
+          if (generic.canWrite(type, value.getClass(), mediaType)) {
+            generic.write(value, type, mediaType, buffer);
+            return buffer.body.toByteArray();
+          }
+        } else if (converter.canWrite(value.getClass(), mediaType)) {
+          converter.write(value, mediaType, buffer);
+          return buffer.body.toByteArray();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    throw new HttpMessageNotWritableException("No converter for " + type + " as " + mediaType);
+  }
+
+  private static class BufferedOutputMessage implements HttpOutputMessage {
+
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Single-flight execution of identical reads.
+ *
+ * The first request for a key runs the read; requests for the same key
+ * that arrive while it is running wait for it and get the same result
+ * (or the same exception) instead of running it again. The entry is
+ * removed as soon as the read completes, so nothing is cached: a request
+ * arriving afterwards runs a read of its own. Keys carry the game
+ * version, so a read never joins one started for an older version.
+ *
+ * Executed and coalesced reads are counted as game.reads.executed and
+ * game.reads.coalesced.
+ */
+
+package com.example.card_game_api.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class ReadCoalescer {
+
+  private final Map<Flight, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+  private final Counter executed;
+  private final Counter coalesced;
+
+  public ReadCoalescer(MeterRegistry meterRegistry) {
+    this.executed = Counter.builder("game.reads.executed")
+                        .description("Reads computed and serialized for their own request")
+                        .register(meterRegistry);
+    this.coalesced = Counter.builder("game.reads.coalesced")
+                         .description("Reads served from an identical read already in flight")
+                         .register(meterRegistry);
+  }
+
+  public byte[] execute(ReadKey key, MediaType mediaType, Supplier<byte[]> read) {
+    Flight flight = new Flight(key, mediaType);
+    CompletableFuture<byte[]> result = new CompletableFuture<>();
+    CompletableFuture<byte[]> running = inFlight.putIfAbsent(flight, result);
+    if (running != null) {
+      coalesced.increment();
+      return join(running);
+    }
+    executed.increment();
+    try {
+      byte[] body = read.get();
+      result.complete(body);
+      return body;
+    } catch (RuntimeException | Error e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(flight, result);
+    }
+  }
+
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private static byte[] join(CompletableFuture<byte[]> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private record Flight(ReadKey key, MediaType mediaType) {
+  }
+}
@@ -0,0 +1,18 @@
+/*
+ * Identifies one read of a game's state: the game, the version it was
+ * read at, the kind of view (e.g. "deck") and the request parameters that
+ * shape it. Two requests with equal keys are served the same response.
+ */
+
+package com.example.card_game_api.coalescing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public record ReadKey(UUID gameId, long version, String kind, List<Object> params) {
+
+  public static ReadKey of(UUID gameId, long version, String kind, Object... params) {
+    return new ReadKey(gameId, version, kind, Arrays.asList(params));
+  }
+}
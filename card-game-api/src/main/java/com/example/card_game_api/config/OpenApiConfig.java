@@ -0,0 +1,16 @@
+package com.example.card_game_api.config;
+
+import com.example.card_game_api.coalescing.CoalescedRead;
+import jakarta.annotation.PostConstruct;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OpenApiConfig {
+
+  // Documents coalesced reads as the value they carry
+  @PostConstruct
+  void ignoreResponseWrappers() {
+    SpringDocUtils.getConfig().addResponseWrapperToIgnore(CoalescedRead.class);
+  }
+}
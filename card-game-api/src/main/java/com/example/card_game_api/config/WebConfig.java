@@ -1,18 +1,75 @@
 package com.example.card_game_api.config;
 
+import com.example.card_game_api.admission.AdmissionControlInterceptor;
+import com.example.card_game_api.coalescing.CoalescingHttpMessageConverter;
+import com.example.card_game_api.coalescing.ReadCoalescer;
+import com.example.card_game_api.wire.BinaryCardHttpMessageConverter;
+import com.example.card_game_api.wire.CompactCardJsonHttpMessageConverter;
+import com.example.card_game_api.wire.VaryByAcceptInterceptor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+  private final AdmissionControlInterceptor admissionControlInterceptor;
+  private final VaryByAcceptInterceptor varyByAcceptInterceptor;
+  private final ReadCoalescer readCoalescer;
+
+  public WebConfig(AdmissionControlInterceptor admissionControlInterceptor,
+                   VaryByAcceptInterceptor varyByAcceptInterceptor, ReadCoalescer readCoalescer) {
+    this.admissionControlInterceptor = admissionControlInterceptor;
+    this.varyByAcceptInterceptor = varyByAcceptInterceptor;
+    this.readCoalescer = readCoalescer;
+  }
+
   @Override
   public void addCorsMappings(CorsRegistry registry) {
     registry.addMapping("/games/**") // Aplica a regra a todos os endpoints sob /games
         .allowedOrigins("http://localhost:3000") // Permite requisições vindas do seu app React
         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Métodos HTTP permitidos
         .allowedHeaders("*") // Permite todos os cabeçalhos
+        .exposedHeaders("Retry-After", "ETag", "Server-Timing")
+        .allowCredentials(true);
+    registry.addMapping("/leaderboard/**")
+        .allowedOrigins("http://localhost:3000")
+        .allowedMethods("GET", "OPTIONS")
+        .allowedHeaders("*")
+        .allowCredentials(true);
+    registry.addMapping("/stats/**")
+        .allowedOrigins("http://localhost:3000")
+        .allowedMethods("GET", "OPTIONS")
+        .allowedHeaders("*")
+        .allowCredentials(true);
+    registry.addMapping("/search/**")
+        .allowedOrigins("http://localhost:3000")
+        .allowedMethods("GET", "OPTIONS")
+        .allowedHeaders("*")
         .allowCredentials(true);
+    registry.addMapping("/archive/**")
+        .allowedOrigins("http://localhost:3000")
+        .allowedMethods("GET", "POST", "OPTIONS")
+        .allowedHeaders("*")
+        .allowCredentials(true);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/games/**");
+    registry.addInterceptor(varyByAcceptInterceptor);
+  }
+
+  // Registered ahead of Jackson, which would otherwise claim application/*+json
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(0, new CompactCardJsonHttpMessageConverter());
+    converters.add(0, new BinaryCardHttpMessageConverter());
+    // Serializes coalesced reads with the converters above
+    converters.add(0, new CoalescingHttpMessageConverter(readCoalescer, converters));
   }
 }
\ No newline at end of file
@@ -1,37 +1,161 @@
 /*
 * The game model.
 *
-* It uses a LinkedDeque as gameDeck type for efficient polling
-* from the shoe, in terms of assigning the next top card.
+* gameDeck holds the undealt cards with the top of the shoe LAST, so a
+* deal removes the last rows of its @OrderColumn and added decks append
+* rows, and no other row moves. The game's JSON and every other view of
+* the shoe (GameState, archive, fast table) list it from the top down;
+* shoeFromTop() is that view.
 *
-* It also contains the players list mapped by their ids.
+* It also contains the players list mapped by their ids: a transient
+* index over players, built on first lookup, serves findPlayer for
+* batches that touch many players. Players should be added and removed
+* through addPlayer/removePlayer so the index stays in sync.
+*
+* Discarded hands go to the discardPile. Once cardsDealtSinceShuffle
+* reaches cutCardPenetration of the shoe, the discards are shuffled back
+* into the undealt cards, so a table that keeps discarding keeps a
+* fixed-size shoe. Each recycled card is appended and swapped with a
+* random position, so it changes two rows.
+*
+* A game created with largeShoe keeps its undealt and discarded cards in
+* a memory-mapped file (see LargeShoe) instead of gameDeck and discardPile,
+* which then stay empty.
+*
+* lastActivityAt is refreshed by every GameService mutation and is what
+* the idle reaper uses to expire abandoned games. Every mutation also
+* bumps version, which is served as the ETag of the game's read endpoints.
+*
+* fastTable is set while the game is open as a fast table (see
+* FastTables), which deals from memory and saves its deals in batches;
+* GameService refuses every other mutation of the game meanwhile.
+*
+* state is a transient, immutable copy of a heap-shoe game (see GameState)
+* that GameService keeps in step with the entity during a mutation, via
+* updateState, for the game's version history. It is null when the game
+* is not tracked, and updateState is then a no-op.
 */
 
 package com.example.card_game_api.game;
 
 import com.example.card_game_api.card.Card;
+import com.example.card_game_api.history.GameState;
 import com.example.card_game_api.player.Player;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.util.StdConverter;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 @Entity
 @Data
 public class Game {
 
+  public static final double DEFAULT_CUT_CARD_PENETRATION = 0.75;
+
   @Id
   private UUID id;
 
   @ElementCollection
   @CollectionTable(name = "game_deck", joinColumns = @JoinColumn(name = "game_id"))
   @OrderColumn
+  @JsonSerialize(converter = FromTop.class)
   private final List<Card> gameDeck = new ArrayList<>();
 
+  @ElementCollection
+  @CollectionTable(name = "game_discard", joinColumns = @JoinColumn(name = "game_id"))
+  @OrderColumn
+  private final List<Card> discardPile = new ArrayList<>();
+
+  private double cutCardPenetration = DEFAULT_CUT_CARD_PENETRATION;
+
+  private int cardsDealtSinceShuffle;
+
+  private boolean largeShoe;
+
+  private boolean fastTable;
+
   @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
   private List<Player> players = new ArrayList<>();
 
+  private Instant lastActivityAt;
+
+  private long version;
+
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private Map<UUID, Player> playersById;
+
+  @Transient
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private GameState state;
+
   public Game() {
     this.id = UUID.randomUUID();
+    this.lastActivityAt = Instant.now();
+  }
+
+  public List<Card> shoeFromTop() {
+    return gameDeck.reversed();
+  }
+
+  public void setPlayers(List<Player> players) {
+    this.players = players;
+    this.playersById = null;
+  }
+
+  public Player findPlayer(UUID playerId) {
+    return playersById().get(playerId);
+  }
+
+  public void addPlayer(Player player) {
+    players.add(player);
+    if (playersById != null) {
+      playersById.put(player.getId(), player);
+    }
+  }
+
+  public void removePlayer(Player player) {
+    players.remove(player);
+    if (playersById != null) {
+      playersById.remove(player.getId());
+    }
+  }
+
+  public void updateState(UnaryOperator<GameState> change) {
+    if (state != null) {
+      state = change.apply(state);
+    }
+  }
+
+  private Map<UUID, Player> playersById() {
+    if (playersById == null) {
+      playersById = new HashMap<>();
+      for (Player player : players) {
+        playersById.put(player.getId(), player);
+      }
+    }
+    return playersById;
+  }
+
+  static class FromTop extends StdConverter<List<Card>, List<Card>> {
+    @Override
+    public List<Card> convert(List<Card> gameDeck) {
+      return gameDeck.reversed();
+    }
   }
-}
\ No newline at end of file
+}
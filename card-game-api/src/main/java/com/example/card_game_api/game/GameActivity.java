@@ -0,0 +1,6 @@
+package com.example.card_game_api.game;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record GameActivity(UUID id, Instant lastActivityAt) {}
@@ -1,14 +1,28 @@
 package com.example.card_game_api.game;
 
 import com.example.card_game_api.card.Card;
+import com.example.card_game_api.coalescing.CoalescedRead;
+import com.example.card_game_api.coalescing.ReadKey;
 import com.example.card_game_api.game.dto.response.*;
 import com.example.card_game_api.game.dto.request.*;
+import com.example.card_game_api.groupcommit.GroupCommitExecutor;
+import com.example.card_game_api.idempotency.IdempotencyKeyReusedException;
+import com.example.card_game_api.idempotency.IdempotencyStore;
+import com.example.card_game_api.idempotency.IdempotentRequestPendingException;
+import com.example.card_game_api.table.FastTables;
+import com.example.card_game_api.table.ServedByFastTable;
+import com.example.card_game_api.wire.CardMediaTypes;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
@@ -20,22 +34,51 @@ import java.util.NoSuchElementException;
 @RequestMapping("/games")
 public class GameController {
 
+  private static final Type PLAYER_SCORES_TYPE =
+      ResolvableType.forClassWithGenerics(List.class, PlayerScoreResponse.class).getType();
+
   private final GameService gameService;
+  private final IdempotencyStore idempotencyStore;
+  private final GroupCommitExecutor groupCommit;
+  private final FastTables fastTables;
 
-  public GameController(GameService gameService) {
+  public GameController(GameService gameService, IdempotencyStore idempotencyStore,
+                        GroupCommitExecutor groupCommit, FastTables fastTables) {
     this.gameService = gameService;
+    this.idempotencyStore = idempotencyStore;
+    this.groupCommit = groupCommit;
+    this.fastTables = fastTables;
   }
 
   @PostMapping
-  @Operation(summary = "Create a new game")
-  public ResponseEntity<Game> createGame() {
-    Game newGame = gameService.createGame();
-    URI location = ServletUriComponentsBuilder
-                       .fromCurrentRequest()
-                       .path("/{id}")
-                       .buildAndExpand(newGame.getId())
-                       .toUri();
-    return ResponseEntity.created(location).body(newGame);
+  @Operation(summary = "Create a new game, optionally with a memory-mapped large shoe")
+  public ResponseEntity<Game> createGame(
+      @RequestParam(defaultValue = "false") boolean largeShoe,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(null, idempotencyKey, null, () -> {
+      Game newGame = gameService.createGame(largeShoe);
+      URI location = ServletUriComponentsBuilder
+                         .fromCurrentRequest()
+                         .path("/{id}")
+                         .buildAndExpand(newGame.getId())
+                         .toUri();
+      return ResponseEntity.created(location).body(newGame);
+    });
+  }
+
+  @PostMapping("/bulk")
+  @Operation(summary = "Create many games, each with the given players and shuffled decks")
+  public ResponseEntity<BulkCreateGamesResponse> createGames(
+      @RequestBody BulkCreateGamesRequest bulkCreateGamesRequest,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(null, idempotencyKey, bulkCreateGamesRequest, () -> {
+      List<UUID> gameIds = gameService.createGames(
+          bulkCreateGamesRequest.getGames(),
+          bulkCreateGamesRequest.getPlayerNames(),
+          bulkCreateGamesRequest.getDecks()
+      );
+      return ResponseEntity.status(HttpStatus.CREATED).body(new BulkCreateGamesResponse(gameIds));
+    });
   }
 
   @GetMapping
@@ -46,77 +89,233 @@ public class GameController {
 
   @GetMapping("/{gameId}")
   @Operation(summary = "Get game details by ID")
-  public Game getGame(@PathVariable UUID gameId) {
+  public Game getGame(@PathVariable UUID gameId, WebRequest webRequest) {
+    if (webRequest.checkNotModified(etag(gameId))) {
+      return null;
+    }
     return gameService.findGameById(gameId);
   }
 
   @DeleteMapping("/{gameId}")
   @Operation(summary = "Delete a game")
-  public ResponseEntity<Void> deleteGame(@PathVariable UUID gameId) {
-    gameService.deleteGame(gameId);
-    return ResponseEntity.noContent().build();
+  public ResponseEntity<Void> deleteGame(
+      @PathVariable UUID gameId,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      gameService.deleteGame(gameId);
+      return ResponseEntity.noContent().build();
+    });
   }
 
   @PostMapping("/{gameId}/add-deck")
-  @Operation(summary = "Add a new 52-card deck to the game shoe")
-  public ResponseEntity<Void> addDeckToGame(@PathVariable UUID gameId) {
-    gameService.addDeckToGame(gameId);
-    return ResponseEntity.ok().build();
+  @Operation(summary = "Add one or more 52-card decks to the game shoe")
+  public ResponseEntity<Void> addDeckToGame(
+      @PathVariable UUID gameId,
+      @RequestParam(defaultValue = "1") int count,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      groupCommit.run(gameId, () -> gameService.checkAddDecks(gameId, count),
+          () -> gameService.addDeckToGame(gameId, count));
+      return ResponseEntity.ok().build();
+    });
+  }
+
+  @PostMapping("/{gameId}/new-shoe")
+  @Operation(summary = "Replace the game shoe with freshly shuffled decks")
+  public ResponseEntity<Void> newShoe(
+      @PathVariable UUID gameId,
+      @RequestParam(defaultValue = "1") int decks,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      groupCommit.run(gameId, () -> gameService.checkNewShoe(gameId, decks), () -> gameService.newShoe(gameId, decks));
+      return ResponseEntity.ok().build();
+    });
   }
 
   @PostMapping("/{gameId}/players")
   @Operation(summary = "Add a new player to the game")
-  public ResponseEntity<AddPlayerResponse> addPlayer(@PathVariable UUID gameId, @RequestBody AddPlayerRequest addPlayerRequest) {
-    AddPlayerResponse response = gameService.addPlayer(gameId, addPlayerRequest.getName());
-    URI location = ServletUriComponentsBuilder
-                       .fromCurrentRequest()
-                       .path("/{id}")
-                       .buildAndExpand(response.getId())
-                       .toUri();
-    return ResponseEntity.created(location).body(response);
+  public ResponseEntity<AddPlayerResponse> addPlayer(
+      @PathVariable UUID gameId,
+      @RequestBody AddPlayerRequest addPlayerRequest,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, addPlayerRequest, () -> {
+      AddPlayerResponse response = groupCommit.execute(gameId, () -> gameService.checkMutation(gameId),
+          () -> gameService.addPlayer(gameId, addPlayerRequest.getName()));
+      URI location = ServletUriComponentsBuilder
+                         .fromCurrentRequest()
+                         .path("/{id}")
+                         .buildAndExpand(response.getId())
+                         .toUri();
+      return ResponseEntity.created(location).body(response);
+    });
   }
 
   @DeleteMapping("/{gameId}/players/{playerId}")
   @Operation(summary = "Remove a player from the game")
-  public ResponseEntity<Void> removePlayer(@PathVariable UUID gameId, @PathVariable UUID playerId) {
-    gameService.removePlayer(gameId, playerId);
-    return ResponseEntity.noContent().build();
+  public ResponseEntity<Void> removePlayer(
+      @PathVariable UUID gameId,
+      @PathVariable UUID playerId,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      groupCommit.run(gameId, () -> gameService.checkPlayerMutation(gameId, playerId),
+          () -> gameService.removePlayer(gameId, playerId));
+      return ResponseEntity.noContent().build();
+    });
   }
 
-  @PostMapping("/{gameId}/deal-cards")
+  @PostMapping(value = "/{gameId}/deal-cards", produces = {
+      MediaType.APPLICATION_JSON_VALUE, CardMediaTypes.COMPACT_JSON_VALUE, CardMediaTypes.BINARY_VALUE})
   @Operation(summary = "Deal a number of cards to a player")
-  public ResponseEntity<List<Card>> dealCards(@PathVariable UUID gameId, @RequestBody DealRequest dealRequest) {
-    List<Card> dealtCards = gameService.dealCards(
-        gameId,
-        dealRequest.getPlayerId(),
-        dealRequest.getAmount()
-    );
-    return ResponseEntity.status(HttpStatus.CREATED).body(dealtCards);
+  @ServedByFastTable
+  public ResponseEntity<List<Card>> dealCards(
+      @PathVariable UUID gameId,
+      @RequestBody DealRequest dealRequest,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, dealRequest, () -> {
+      List<Card> dealtCards = fastTables.deal(gameId, dealRequest.getPlayerId(), dealRequest.getAmount());
+      if (dealtCards == null) {
+        dealtCards = groupCommit.execute(gameId,
+            () -> gameService.checkPlayerMutation(gameId, dealRequest.getPlayerId()),
+            () -> gameService.dealCards(
+                gameId,
+                dealRequest.getPlayerId(),
+                dealRequest.getAmount()
+            ));
+      }
+      return ResponseEntity.status(HttpStatus.CREATED).body(dealtCards);
+    });
   }
 
-  @GetMapping("/{gameId}/players/{playerId}/cards")
+  @GetMapping(value = "/{gameId}/players/{playerId}/cards", produces = {
+      MediaType.APPLICATION_JSON_VALUE, CardMediaTypes.COMPACT_JSON_VALUE, CardMediaTypes.BINARY_VALUE})
   @Operation(summary = "Get the list of cards in a player's hand")
-  public List<Card> getPlayerHand(@PathVariable UUID gameId, @PathVariable UUID playerId) {
+  @ServedByFastTable
+  public List<Card> getPlayerHand(@PathVariable UUID gameId, @PathVariable UUID playerId, WebRequest webRequest) {
+    // A fast table's hands move ahead of the stored version, so they carry no ETag
+    List<Card> tableHand = fastTables.hand(gameId, playerId);
+    if (tableHand != null) {
+      return tableHand;
+    }
+    if (webRequest.checkNotModified(etag(gameId))) {
+      return null;
+    }
     return gameService.getPlayerHand(gameId, playerId);
   }
 
-  @GetMapping("/{gameId}/players")
+  @GetMapping(value = "/{gameId}/players", produces = MediaType.APPLICATION_JSON_VALUE)
   @Operation(summary = "Get the list of players and their scores, sorted by score")
-  public List<PlayerScoreResponse> getPlayersWithScores(@PathVariable UUID gameId) {
-    return gameService.getPlayersWithScores(gameId);
+  public CoalescedRead<List<PlayerScoreResponse>> getPlayersWithScores(@PathVariable UUID gameId, WebRequest webRequest) {
+    long version = gameService.getGameVersion(gameId);
+    if (webRequest.checkNotModified(etag(version))) {
+      return null;
+    }
+    return new CoalescedRead<>(ReadKey.of(gameId, version, "players"), PLAYER_SCORES_TYPE,
+        () -> gameService.getPlayersWithScores(gameId));
   }
 
-  @GetMapping("/{gameId}/deck")
-  @Operation(summary = "Get the state of the undealt deck (counts and sorted list)")
-  public DeckInfoResponse getDeckInfo(@PathVariable UUID gameId) {
-    return gameService.getDeckInfo(gameId);
+  @GetMapping(value = "/{gameId}/deck", produces = {
+      MediaType.APPLICATION_JSON_VALUE, CardMediaTypes.COMPACT_JSON_VALUE, CardMediaTypes.BINARY_VALUE})
+  @Operation(summary = "Get the state of the undealt deck (counts and a page of the sorted list)")
+  public CoalescedRead<DeckInfoResponse> getDeckInfo(
+      @PathVariable UUID gameId,
+      @RequestParam(defaultValue = "0") int offset,
+      @RequestParam(required = false) Integer limit,
+      WebRequest webRequest) {
+    long version = gameService.getGameVersion(gameId);
+    if (webRequest.checkNotModified(etag(version))) {
+      return null;
+    }
+    return new CoalescedRead<>(ReadKey.of(gameId, version, "deck", offset, limit), DeckInfoResponse.class,
+        () -> gameService.getDeckInfo(gameId, offset, limit));
   }
 
   @PostMapping("/{gameId}/shuffle")
   @Operation(summary = "Shuffle the game deck")
-  public ResponseEntity<Void> shuffleGameDeck(@PathVariable UUID gameId) {
-    gameService.shuffle(gameId);
-    return ResponseEntity.ok().build();
+  public ResponseEntity<Void> shuffleGameDeck(
+      @PathVariable UUID gameId,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      groupCommit.run(gameId, () -> gameService.checkMutation(gameId), () -> gameService.shuffle(gameId));
+      return ResponseEntity.ok().build();
+    });
+  }
+
+  @PostMapping("/{gameId}/discards")
+  @Operation(summary = "Move every player's hand to the discard pile")
+  public ResponseEntity<Void> discardHands(
+      @PathVariable UUID gameId,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      groupCommit.run(gameId, () -> gameService.checkMutation(gameId), () -> gameService.discardHands(gameId));
+      return ResponseEntity.ok().build();
+    });
+  }
+
+  @PutMapping("/{gameId}/cut-card")
+  @Operation(summary = "Set the cut card penetration at which discards are recycled into the shoe")
+  public ResponseEntity<Void> setCutCard(
+      @PathVariable UUID gameId,
+      @RequestBody CutCardRequest cutCardRequest,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, cutCardRequest, () -> {
+      groupCommit.run(gameId, () -> gameService.checkCutCard(gameId, cutCardRequest.getPenetration()),
+          () -> gameService.setCutCardPenetration(gameId, cutCardRequest.getPenetration()));
+      return ResponseEntity.ok().build();
+    });
+  }
+
+  @PostMapping("/{gameId}/commands")
+  @Operation(summary = "Run an ordered batch of commands against a game in a single transaction")
+  public ResponseEntity<List<CommandResultResponse>> executeCommands(
+      @PathVariable UUID gameId,
+      @RequestBody CommandBatchRequest commandBatchRequest,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, commandBatchRequest, () ->
+        ResponseEntity.ok(gameService.executeCommands(gameId, commandBatchRequest.getCommands())));
+  }
+
+  @GetMapping("/{gameId}/versions")
+  @Operation(summary = "List the retained versions of the game, oldest first")
+  public List<GameVersionResponse> getVersions(@PathVariable UUID gameId) {
+    return gameService.getVersions(gameId);
+  }
+
+  @PostMapping("/{gameId}/undo")
+  @Operation(summary = "Restore the game to a retained version, by default the previous one")
+  public ResponseEntity<Void> undo(
+      @PathVariable UUID gameId,
+      @RequestParam(required = false) Long version,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      gameService.undo(gameId, version);
+      return ResponseEntity.ok().build();
+    });
+  }
+
+  @PostMapping("/{gameId}/fork")
+  @Operation(summary = "Create a new game from a retained version of the game, by default the current one")
+  public ResponseEntity<GameSummaryResponse> fork(
+      @PathVariable UUID gameId,
+      @RequestParam(required = false) Long version,
+      @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return idempotencyStore.execute(gameId, idempotencyKey, null, () -> {
+      Game fork = gameService.fork(gameId, version);
+      URI location = ServletUriComponentsBuilder
+                         .fromCurrentContextPath()
+                         .path("/games/{id}")
+                         .buildAndExpand(fork.getId())
+                         .toUri();
+      return ResponseEntity.created(location).body(new GameSummaryResponse(fork.getId(), fork.getPlayers().size()));
+    });
+  }
+
+  private String etag(UUID gameId) {
+    return etag(gameService.getGameVersion(gameId));
+  }
+
+  // Weak, because the same version is served in several representations
+  private static String etag(long version) {
+    return "W/\"" + version + "\"";
   }
 
   @ExceptionHandler(NoSuchElementException.class)
@@ -130,4 +329,22 @@ public class GameController {
   public Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
     return Collections.singletonMap("error", e.getMessage());
   }
+
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Map<String, String> handleConcurrencyFailureException(ConcurrencyFailureException e) {
+    return Collections.singletonMap("error", "The game was changed by another request, retry");
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+  public Map<String, String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IdempotentRequestPendingException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Map<String, String> handleIdempotentRequestPendingException(IdempotentRequestPendingException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.example.card_game_api.game;
+
+// The flags that decide how a game is mutated, read without loading the game
+public record GameMode(boolean largeShoe, boolean fastTable) {}
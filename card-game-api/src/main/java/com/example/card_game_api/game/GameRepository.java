@@ -1,8 +1,43 @@
 package com.example.card_game_api.game;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface GameRepository extends JpaRepository<Game, UUID> {}
\ No newline at end of file
+public interface GameRepository extends JpaRepository<Game, UUID>, GameRepositoryCustom {
+
+  @Query("select g.version from Game g where g.id = :gameId")
+  Optional<Long> findVersionById(UUID gameId);
+
+  // 0 when another transaction has committed a newer version; otherwise the row stays locked until commit
+  @Modifying
+  @Query("update Game g set g.version = g.version + 1 where g.id = :gameId and g.version = :version")
+  int claimVersion(UUID gameId, long version);
+
+  @Query("select new com.example.card_game_api.game.GameMode(g.largeShoe, g.fastTable) from Game g where g.id = :gameId")
+  Optional<GameMode> findModeById(UUID gameId);
+
+  @Query("select new com.example.card_game_api.game.GameActivity(g.id, g.lastActivityAt) from Game g")
+  List<GameActivity> findAllActivity();
+
+  // The rows stay locked until commit: a concurrent mutation either committed before, or fails to claim its version
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select g from Game g where g.id in :ids")
+  List<Game> findAllByIdForUpdate(Collection<UUID> ids);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select g from Game g where g.id = :gameId")
+  Optional<Game> findByIdForUpdate(UUID gameId);
+
+  @Query("select new com.example.card_game_api.game.GameShoeSize(g.id, g.version, g.largeShoe, size(g.gameDeck)) from Game g")
+  List<GameShoeSize> findAllShoeSizes();
+}
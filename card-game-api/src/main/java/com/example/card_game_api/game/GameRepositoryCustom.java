@@ -0,0 +1,8 @@
+package com.example.card_game_api.game;
+
+import java.util.List;
+
+public interface GameRepositoryCustom {
+
+  void persistAllInBatches(List<Game> games);
+}
@@ -0,0 +1,44 @@
+/*
+ * Bulk insert path for brand new games.
+ *
+ * JpaRepository.saveAll merges entities that already carry an id, which
+ * costs a SELECT per game before the INSERT. Tournament setup only ever
+ * inserts new games, so they are persisted directly and flushed every
+ * batchSize games. With hibernate.jdbc.batch_size and order_inserts set,
+ * each flush becomes a few JDBC batches (games, players, deck rows), and
+ * clearing the persistence context keeps memory flat for large tournaments.
+ */
+
+package com.example.card_game_api.game;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+
+public class GameRepositoryCustomImpl implements GameRepositoryCustom {
+
+  private final EntityManager entityManager;
+  private final int batchSize;
+
+  public GameRepositoryCustomImpl(EntityManager entityManager,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+    this.entityManager = entityManager;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  @Transactional
+  public void persistAllInBatches(List<Game> games) {
+    for (int i = 0; i < games.size(); i++) {
+      entityManager.persist(games.get(i));
+      if ((i + 1) % batchSize == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+}
@@ -1,12 +1,24 @@
 /*
  * GameService
  *
- * Game CreateGame(): Creates and returns a new Game
+ * Game CreateGame(boolean largeShoe): Creates and returns a new Game.
+ *   A large-shoe game keeps its shoe in a memory-mapped file of card
+ *   codes (see LargeShoe), so its heap use does not grow with the shoe.
  * void DeleteGame(UUID gameId): Deletes a game
+ * List<UUID> deleteIdleGames(Collection<UUID> gameIds, Instant cutoff):
+ *   Deletes, in one transaction, those of the given games whose last
+ *   activity is older than the cutoff. Used by the idle reaper. The games
+ *   are locked before their activity is checked, so a game that a
+ *   concurrent mutation has just touched is kept.
  * Game findGameById(UUID gameId): Returns a game
+ * long getGameVersion(UUID gameId): Returns only the game's version,
+ *   without loading the game, for conditional reads.
  * List<GameSummaryResponse> getAllGames(): Returns all games
- * void addDeckToGame(UUID gameId): Creates a standard deck
- *   and adds it to a game shoe
+ * void addDeckToGame(UUID gameId, int count): Adds count standard
+ *   decks to a game shoe
+ * void newShoe(UUID gameId, int decks): Replaces the undealt cards and
+ *   the discard pile with a freshly shuffled shoe of the given number of
+ *   decks, taken ready-made from the ShuffledDeckPool when it has one.
  * void shuffle(UUID gameId):
  *   Convert deque to list for efficient shuffling
  *   Swaps each card sequentially with a randomly selected
@@ -16,55 +28,234 @@
  * void removePlayer(UUID gameId, UUID playerId): Removes a
  *   player from the game. This does not return cards to the
  *   deck, as per specification.
+ *
+ * removePlayer, dealCards and getPlayerHand look the player up directly
+ * by (gameId, playerId) instead of loading the game's player list, so a
+ * hand fetch reads only that player's rows and never the shoe.
  * List<Card> dealCards(UUID gameId, UUID playerId, int amount):
  *   Polls cards from the top of the deck and add them to the
- *    player's hand up to the amount (if available).
+ *    player's hand up to the amount (if available). When the deal
+ *    reaches the cut card, or the shoe is empty, the discard pile is
+ *    recycled into the undealt cards at random positions.
+ * void discardHands(UUID gameId): Moves every player's hand to the
+ *   discard pile.
+ * void setCutCardPenetration(UUID gameId, double penetration): Sets
+ *   the fraction of the shoe dealt before discards are recycled.
  * List<Card> getPlayerHand(UUID gameId, UUID playerId):
  *   Returns the hand of a player
  * List<PlayerScoreResponse> getPlayersWithScores(UUID gameId):
  *   Returns the sorted list of players with their game scores.
  *   The DTO implements Comparable for descending order.
- * DeckInfoResponse getDeckInfo(UUID gameId): Returns the deck
- *  information with the undealt suit counts and the undealt cards.
+ * DeckInfoResponse getDeckInfo(UUID gameId, int offset, Integer limit):
+ *  Returns the deck information with the undealt suit counts and a page
+ *  of the sorted undealt cards. Large shoes build both from per-card
+ *  counts and cap the page at MAX_SORTED_CARDS_PAGE.
+ * List<UUID> createGames(int gameCount, List<String> playerNames, int deckCount):
+ *   Bulk tournament setup. Builds the games with their players and
+ *   shuffled shoes (from the ShuffledDeckPool) in parallel across cores, then inserts them in JDBC
+ *   batches and returns the new ids.
+ * List<CommandResultResponse> executeCommands(UUID gameId, commands):
+ *   Runs an ordered batch of add player, add decks, shuffle, deal and
+ *   remove player commands against one loaded game in one transaction,
+ *   so the whole batch costs one load and one flush. Any failing
+ *   command rolls the whole batch back.
+ * List<GameVersionResponse> getVersions(UUID gameId): Returns the
+ *   versions of a game retained by the GameHistory, oldest first.
+ * void undo(UUID gameId, Long version): Restores the game to a retained
+ *   version, by default the one the current version was derived from, as
+ *   a new version. Undoing again steps further back.
+ * Game fork(UUID gameId, Long version): Creates a new game with the
+ *   cards, players and hands of a retained version (by default the
+ *   current one); the players get new ids.
+ * FastTableSeed openFastTable(UUID gameId): Marks a heap-shoe game as
+ *   open as a fast table and returns its shoe and hands for FastTables.
+ *   Until closeFastTable, every other mutation of the game is refused,
+ *   and its deals arrive through applyTableDraws.
+ * void applyTableDraws(UUID gameId, List<TableDraw> draws): Saves a batch
+ *   of fast table deals: takes their cards, which must be the top of the
+ *   stored shoe, off the shoe and appends them to the hands, as one
+ *   mutation.
+ * void closeFastTable(UUID gameId): Clears the fast table mark.
+ * boolean checkMutation(UUID gameId) / checkPlayerMutation / checkAddDecks
+ *   / checkNewShoe / checkCutCard: Check a single mutation's
+ *   preconditions from the game's flags alone, throwing what the mutation
+ *   would, and tell whether it only changes the database and so can be
+ *   group-committed (see GroupCommitExecutor): a large shoe's file lives
+ *   outside the database.
+ *
+ * Every mutation bumps the game's version, refreshes its lastActivityAt
+ * and publishes a GameActivityEvent; deletions publish a GamesDeletedEvent.
+ * A mutation claims its version before it changes anything: an update of
+ * the game row from the version it loaded to the next one. That update
+ * fails when another mutation committed since the game was loaded, which
+ * is reported as an ObjectOptimisticLockingFailureException (409), and
+ * otherwise locks the row, so a concurrent mutation of the same game
+ * waits for the commit and then fails in turn. Two committed mutations
+ * therefore never share a version, nor overwrite each other's changes.
+ * Mutations that change hand values or the player list also publish
+ * PlayerScoresChangedEvent / PlayersRemovedEvent, which keep the global
+ * leaderboard up to date without rescanning hands. Every deal publishes a
+ * CardsDealtEvent and mutations that can change the number of undealt
+ * cards publish a ShoeSizeChangedEvent, for the statistics.
+ *
+ * A mutation of a heap-shoe game also derives the game's next GameState
+ * from the current one as it goes: track attaches the latest retained
+ * state, the helpers below update it alongside gameDeck, discardPile and
+ * the hands, and touch publishes it in a GameStateChangedEvent for the
+ * GameHistory. New games start with a state. A game whose version is not
+ * retained (after a restart) is mutated without one; undo and fork
+ * rebuild it from the entity when they need it, which also restarts the
+ * game's history. Large-shoe games keep no history.
  */
 
 package com.example.card_game_api.game;
 
 import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
 import com.example.card_game_api.card.Rank;
 import com.example.card_game_api.card.Suit;
+import com.example.card_game_api.game.dto.request.GameCommandRequest;
 import com.example.card_game_api.game.dto.response.AddPlayerResponse;
+import com.example.card_game_api.game.dto.response.CommandResultResponse;
 import com.example.card_game_api.game.dto.response.DeckInfoResponse;
 import com.example.card_game_api.game.dto.response.GameSummaryResponse;
+import com.example.card_game_api.game.dto.response.GameVersionResponse;
 import com.example.card_game_api.game.dto.response.PlayerScoreResponse;
+import com.example.card_game_api.game.event.CardsDealtEvent;
+import com.example.card_game_api.game.event.GameActivityEvent;
+import com.example.card_game_api.game.event.GameStateChangedEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.game.event.ShoeSizeChangedEvent;
+import com.example.card_game_api.history.GameHistory;
+import com.example.card_game_api.history.GameState;
+import com.example.card_game_api.history.PersistentVector;
 import com.example.card_game_api.player.Player;
 import com.example.card_game_api.player.PlayerRepository;
+import com.example.card_game_api.shoe.LargeShoe;
+import com.example.card_game_api.shoe.LargeShoeStore;
+import com.example.card_game_api.shoe.ShuffledDeckPool;
+import com.example.card_game_api.table.FastTableSeed;
+import com.example.card_game_api.table.TableDraw;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class GameService {
 
+  private static final int MAX_COMMANDS_PER_BATCH = 500;
+  private static final int MAX_BULK_GAMES = 5000;
+  private static final int MAX_BULK_PLAYERS = 100;
+  private static final int MAX_BULK_DECKS = 16;
+  private static final String FAST_TABLE_OPEN = "The game is open as a fast table, close the table first";
+  private static final int MAX_SORTED_CARDS_PAGE = 10000;
+
   private final GameRepository gameRepository;
   private final PlayerRepository playerRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final LargeShoeStore largeShoes;
+  private final ShuffledDeckPool deckPool;
+  private final GameHistory history;
 
-  public GameService(GameRepository gameRepository, PlayerRepository playerRepository) {
+  public GameService(GameRepository gameRepository, PlayerRepository playerRepository,
+                     ApplicationEventPublisher eventPublisher, LargeShoeStore largeShoes,
+                     ShuffledDeckPool deckPool, GameHistory history) {
     this.gameRepository = gameRepository;
     this.playerRepository = playerRepository;
+    this.eventPublisher = eventPublisher;
+    this.largeShoes = largeShoes;
+    this.deckPool = deckPool;
+    this.history = history;
   }
 
+  @Transactional
   public Game createGame() {
+    return createGame(false);
+  }
+
+  @Transactional
+  public Game createGame(boolean largeShoe) {
     Game newGame = new Game();
-    return gameRepository.save(newGame);
+    newGame.setLargeShoe(largeShoe);
+    Game savedGame = gameRepository.save(newGame);
+    if (largeShoe) {
+      largeShoes.create(savedGame.getId());
+    }
+    startState(savedGame);
+    touch(savedGame);
+    eventPublisher.publishEvent(new ShoeSizeChangedEvent(savedGame.getId(), savedGame.getVersion(), 0));
+    return savedGame;
   }
 
   @Transactional
   public void deleteGame(UUID gameId) {
     gameRepository.deleteById(gameId);
+    eventPublisher.publishEvent(new GamesDeletedEvent(Collections.singletonList(gameId)));
+  }
+
+  @Transactional
+  public List<UUID> deleteIdleGames(Collection<UUID> gameIds, Instant cutoff) {
+    List<Game> idleGames = new ArrayList<>();
+    List<UUID> idleGameIds = new ArrayList<>();
+    Set<UUID> goneGameIds = new HashSet<>(gameIds);
+    for (Game game : gameRepository.findAllByIdForUpdate(gameIds)) {
+      if (game.getLastActivityAt() == null || game.getLastActivityAt().isBefore(cutoff)) {
+        idleGames.add(game);
+        idleGameIds.add(game.getId());
+      } else {
+        goneGameIds.remove(game.getId());
+      }
+    }
+    gameRepository.deleteAll(idleGames);
+    eventPublisher.publishEvent(new GamesDeletedEvent(goneGameIds));
+    return idleGameIds;
+  }
+
+  @Transactional
+  public List<UUID> createGames(int gameCount, List<String> playerNames, int deckCount) {
+    if (gameCount < 1 || gameCount > MAX_BULK_GAMES) {
+      throw new IllegalArgumentException("games must be between 1 and " + MAX_BULK_GAMES);
+    }
+    if (deckCount < 0 || deckCount > MAX_BULK_DECKS) {
+      throw new IllegalArgumentException("decks must be between 0 and " + MAX_BULK_DECKS);
+    }
+    List<String> names = playerNames == null ? List.of() : playerNames;
+    if (names.size() > MAX_BULK_PLAYERS) {
+      throw new IllegalArgumentException("A game can be created with at most " + MAX_BULK_PLAYERS + " players");
+    }
+
+    List<Game> games = IntStream.range(0, gameCount)
+                           .parallel()
+                           .mapToObj(i -> {
+                             Game game = new Game();
+                             names.forEach(name -> newPlayer(game, name));
+                             if (deckCount > 0) {
+                               fillShoe(game, deckCount);
+                             }
+                             return game;
+                           })
+                           .collect(Collectors.toList());
+    // Before the batch insert, which leaves the games detached
+    for (Game game : games) {
+      startState(game);
+      touch(game);
+    }
+    gameRepository.persistAllInBatches(games);
+    for (Game game : games) {
+      publishShoeSize(game);
+      publishScores(game, game.getPlayers());
+    }
+    return games.stream().map(Game::getId).collect(Collectors.toList());
   }
 
   public Game findGameById(UUID gameId) {
@@ -72,6 +263,11 @@ public class GameService {
                .orElseThrow(() -> new NoSuchElementException("Game not found"));
   }
 
+  public long getGameVersion(UUID gameId) {
+    return gameRepository.findVersionById(gameId)
+               .orElseThrow(() -> new NoSuchElementException("Game not found"));
+  }
+
   public List<GameSummaryResponse> getAllGames() {
     return gameRepository.findAll().stream()
                .map(game -> new GameSummaryResponse(
@@ -83,103 +279,332 @@ public class GameService {
 
   @Transactional
   public void addDeckToGame(UUID gameId) {
+    addDeckToGame(gameId, 1);
+  }
+
+  @Transactional
+  public void addDeckToGame(UUID gameId, int count) {
     Game game = findGameById(gameId);
-    List<Card> standardDeck = new ArrayList<>();
-    for (Suit suit : Suit.values()) {
-      for (Rank rank : Rank.values()) {
-        standardDeck.add(new Card(suit, rank));
-      }
+    track(game);
+    addDecks(game, count);
+    touch(game);
+    publishShoeSize(game);
+  }
+
+  @Transactional
+  public void newShoe(UUID gameId, int decks) {
+    checkDeckCount("decks", decks);
+    Game game = findGameById(gameId);
+    if (game.isLargeShoe()) {
+      throw new IllegalArgumentException("A large shoe cannot be replaced, add decks and shuffle it instead");
     }
-    game.getGameDeck().addAll(standardDeck);
+    track(game);
+    fillShoe(game, decks);
+    touch(game);
+    publishShoeSize(game);
   }
 
   @Transactional
   public void shuffle(UUID gameId) {
     Game game = findGameById(gameId);
-    List<Card> cards = new ArrayList<>(game.getGameDeck());
-    game.getGameDeck().clear();
+    track(game);
+    shuffleShoe(game);
+    touch(game);
+  }
 
-    Random rand = ThreadLocalRandom.current();
-    for (int i = cards.size() - 1; i > 0; i--) {
-      int index = rand.nextInt(i + 1);
-      Card a = cards.get(index);
-      cards.set(index, cards.get(i));
-      cards.set(i, a);
-    }
-    game.getGameDeck().addAll(cards);
+  @Transactional
+  public void discardHands(UUID gameId) {
+    Game game = findGameById(gameId);
+    track(game);
+    discardHands(game);
+    touch(game);
+    publishScores(game, game.getPlayers());
+  }
+
+  @Transactional
+  public void setCutCardPenetration(UUID gameId, double penetration) {
+    checkPenetration(penetration);
+    Game game = findGameById(gameId);
+    track(game);
+    game.setCutCardPenetration(penetration);
+    game.updateState(state -> state.withCutCardPenetration(penetration));
+    touch(game);
   }
 
   @Transactional
   public AddPlayerResponse addPlayer(UUID gameId, String playerName) {
     Game game = findGameById(gameId);
-    Player player = new Player(playerName, game);
-    game.getPlayers().add(player);
+    track(game);
+    Player player = newPlayer(game, playerName);
+    touch(game);
     gameRepository.save(game);
+    publishScores(game, List.of(player));
     return new AddPlayerResponse(player.getId(), player.getName());
   }
 
   @Transactional
   public void removePlayer(UUID gameId, UUID playerId) {
+    Player playerToRemove = findPlayer(gameId, playerId);
+    Game game = playerToRemove.getGame();
+    track(game);
+    // Only an already loaded list needs the player taken out, otherwise cascade would re-save it
+    if (Hibernate.isInitialized(game.getPlayers())) {
+      game.removePlayer(playerToRemove);
+    }
+    playerRepository.delete(playerToRemove);
+    game.updateState(state -> state.removePlayer(playerId));
+    touch(game);
+    eventPublisher.publishEvent(new PlayersRemovedEvent(gameId, Collections.singletonList(playerId)));
+  }
+
+  @Transactional
+  public List<Card> dealCards(UUID gameId, UUID playerId, int amount) {
+    Player player = findPlayer(gameId, playerId);
+    Game game = player.getGame();
+    track(game);
+
+    List<Card> dealtCards = dealFromShoe(game, player, amount);
+    touch(game);
+    publishShoeSize(game);
+    if (dealtCards.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    playerRepository.save(player);
+    eventPublisher.publishEvent(new CardsDealtEvent(gameId, dealtCards));
+    publishScores(game, List.of(player));
+    return dealtCards;
+  }
+
+  @Transactional
+  public List<CommandResultResponse> executeCommands(UUID gameId, List<GameCommandRequest> commands) {
+    if (commands == null || commands.isEmpty()) {
+      throw new IllegalArgumentException("At least one command is required");
+    }
+    if (commands.size() > MAX_COMMANDS_PER_BATCH) {
+      throw new IllegalArgumentException("A batch can contain at most " + MAX_COMMANDS_PER_BATCH + " commands");
+    }
+
     Game game = findGameById(gameId);
-    Player playerToRemove = game.getPlayers().stream()
-                                .filter(p -> p.getId().equals(playerId))
-                                .findFirst()
-                                .orElseThrow(() -> new NoSuchElementException("Player not found in game"));
-    game.getPlayers().remove(playerToRemove);
+    track(game);
+    Set<UUID> removedPlayerIds = game.getPlayers().stream().map(Player::getId).collect(Collectors.toSet());
+    List<CommandResultResponse> results = new ArrayList<>(commands.size());
+    Map<Integer, Player> addedPlayers = new HashMap<>();
+    for (int i = 0; i < commands.size(); i++) {
+      results.add(executeCommand(game, i, commands.get(i), addedPlayers));
+    }
+    touch(game);
     gameRepository.save(game);
+    publishShoeSize(game);
+
+    game.getPlayers().forEach(player -> removedPlayerIds.remove(player.getId()));
+    publishScores(game, game.getPlayers());
+    if (!removedPlayerIds.isEmpty()) {
+      eventPublisher.publishEvent(new PlayersRemovedEvent(gameId, removedPlayerIds));
+    }
+    return results;
+  }
+
+  public List<GameVersionResponse> getVersions(UUID gameId) {
+    long currentVersion = getGameVersion(gameId);
+    return history.versions(gameId).stream()
+               .map(state -> new GameVersionResponse(
+                   state.version(),
+                   state.previousVersion() > 0 ? state.previousVersion() : null,
+                   state.at(),
+                   state.shoe().size(),
+                   state.discards().size(),
+                   state.players().size(),
+                   state.version() == currentVersion
+               ))
+               .collect(Collectors.toList());
   }
 
   @Transactional
-  public List<Card> dealCards(UUID gameId, UUID playerId, int amount) {
+  public void undo(UUID gameId, Long version) {
     Game game = findGameById(gameId);
-    Player player = game.getPlayers().stream()
-                                .filter(p -> p.getId().equals(playerId))
-                                .findFirst()
-                                .orElseThrow(() -> new NoSuchElementException("Player not found in game"));
+    checkNoFastTable(game);
+    checkHistory(game);
+    claimVersion(game);
+    long targetVersion = version != null ? version : currentState(game).previousVersion();
+    if (targetVersion <= 0) {
+      throw new NoSuchElementException("No earlier version of the game is retained");
+    }
+    if (targetVersion >= game.getVersion()) {
+      throw new IllegalArgumentException("version must be earlier than the current version " + game.getVersion());
+    }
 
-    List<Card> deck = game.getGameDeck();
-    if (deck.isEmpty()) {
-      return Collections.emptyList();
+    // Committed as derived from the restored version's predecessor, so undoing again steps further back
+    GameState target = retainedState(game, targetVersion);
+    Set<UUID> removedPlayerIds = restore(game, target.withVersion(target.previousVersion()));
+    touch(game);
+    gameRepository.save(game);
+    publishShoeSize(game);
+    publishScores(game, game.getPlayers());
+    if (!removedPlayerIds.isEmpty()) {
+      eventPublisher.publishEvent(new PlayersRemovedEvent(gameId, removedPlayerIds));
     }
+  }
 
+  @Transactional
+  public Game fork(UUID gameId, Long version) {
+    Game source = findGameById(gameId);
+    checkHistory(source);
+    GameState state;
+    if (version == null) {
+      // The source is only read
+      checkNoFastTable(source);
+      state = currentState(source);
+    } else {
+      state = retainedState(source, version);
+    }
+
+    Game fork = new Game();
+    restore(fork, state.forked());
+    // Before the insert, which leaves the fork detached
+    touch(fork);
+    gameRepository.persistAllInBatches(List.of(fork));
+    publishShoeSize(fork);
+    publishScores(fork, fork.getPlayers());
+    return fork;
+  }
+
+  @Transactional
+  public FastTableSeed openFastTable(UUID gameId) {
+    Game game = findGameById(gameId);
+    if (game.isLargeShoe()) {
+      throw new IllegalArgumentException("A large-shoe game cannot be opened as a fast table");
+    }
+    if (!game.isFastTable()) {
+      track(game);
+      game.setFastTable(true);
+      touch(game);
+    }
+    List<Card> deck = game.shoeFromTop();
+    byte[] shoe = new byte[deck.size()];
+    for (int i = 0; i < shoe.length; i++) {
+      shoe[i] = (byte) CardCodes.code(deck.get(i));
+    }
+    List<FastTableSeed.Seat> seats = game.getPlayers().stream()
+        .map(player -> new FastTableSeed.Seat(player.getId(), player.getName(), List.copyOf(player.getHand())))
+        .collect(Collectors.toList());
+    return new FastTableSeed(gameId, shoe, seats);
+  }
+
+  @Transactional
+  public void applyTableDraws(UUID gameId, List<TableDraw> draws) {
+    Game game = findGameById(gameId);
+    if (!game.isFastTable()) {
+      throw new IllegalStateException("The game is not open as a fast table");
+    }
+    claimVersion(game);
+    attachState(game);
+    List<Card> deck = game.getGameDeck();
     List<Card> dealtCards = new ArrayList<>();
-    for (int i = 0; i < amount &&!deck.isEmpty(); i++) {
-      Card card = deck.remove(0);
-      dealtCards.add(card);
+    draws.forEach(draw -> dealtCards.addAll(draw.cards()));
+    if (dealtCards.size() > deck.size()
+        || !dealtCards.equals(new ArrayList<>(game.shoeFromTop().subList(0, dealtCards.size())))) {
+      throw new IllegalStateException("Fast table deals do not match the top of the stored shoe");
     }
 
-    player.getHand().addAll(dealtCards);
-    gameRepository.save(game);
-    playerRepository.save(player);
-    return dealtCards;
+    deck.subList(deck.size() - dealtCards.size(), deck.size()).clear();
+    game.updateState(state -> state.withShoe(state.shoe().drop(dealtCards.size())));
+    Map<UUID, Player> players = new LinkedHashMap<>();
+    for (TableDraw draw : draws) {
+      Player player = findPlayer(game, draw.playerId());
+      player.getHand().addAll(draw.cards());
+      game.updateState(state -> state.updateHand(player.getId(), hand -> hand.appendAll(draw.cards())));
+      players.put(player.getId(), player);
+    }
+    game.setCardsDealtSinceShuffle(game.getCardsDealtSinceShuffle() + dealtCards.size());
+    game.updateState(state -> state.withCardsDealtSinceShuffle(game.getCardsDealtSinceShuffle()));
+    touch(game);
+    publishShoeSize(game);
+    eventPublisher.publishEvent(new CardsDealtEvent(gameId, dealtCards));
+    publishScores(game, players.values());
   }
 
-  public List<Card> getPlayerHand(UUID gameId, UUID playerId) {
+  @Transactional
+  public void closeFastTable(UUID gameId) {
     Game game = findGameById(gameId);
-    Player player = game.getPlayers().stream()
-                                .filter(p -> p.getId().equals(playerId))
-                                .findFirst()
-                                .orElseThrow(() -> new NoSuchElementException("Player not found in game"));
+    if (game.isFastTable()) {
+      claimVersion(game);
+      attachState(game);
+      game.setFastTable(false);
+      touch(game);
+    }
+  }
+
+  public boolean checkMutation(UUID gameId) {
+    GameMode mode = gameRepository.findModeById(gameId)
+                        .orElseThrow(() -> new NoSuchElementException("Game not found"));
+    if (mode.fastTable()) {
+      throw new IllegalArgumentException(FAST_TABLE_OPEN);
+    }
+    return !mode.largeShoe();
+  }
+
+  public boolean checkPlayerMutation(UUID gameId, UUID playerId) {
+    boolean databaseOnly = checkMutation(gameId);
+    if (playerId == null || !playerRepository.existsByIdAndGameId(playerId, gameId)) {
+      throw new NoSuchElementException("Player not found in game");
+    }
+    return databaseOnly;
+  }
+
+  public boolean checkAddDecks(UUID gameId, int count) {
+    boolean databaseOnly = checkMutation(gameId);
+    // A large shoe takes more decks at once and checks its own capacity
+    if (databaseOnly) {
+      checkDeckCount("count", count);
+    }
+    return databaseOnly;
+  }
+
+  public boolean checkNewShoe(UUID gameId, int decks) {
+    checkDeckCount("decks", decks);
+    return checkMutation(gameId);
+  }
 
-    return player.getHand();
+  public boolean checkCutCard(UUID gameId, double penetration) {
+    checkPenetration(penetration);
+    return checkMutation(gameId);
+  }
+
+  public List<Card> getPlayerHand(UUID gameId, UUID playerId) {
+    return findPlayer(gameId, playerId).getHand();
   }
 
   public List<PlayerScoreResponse> getPlayersWithScores(UUID gameId) {
     Game game = findGameById(gameId);
 
     return game.getPlayers().stream()
-               .map(player -> {
-                 int totalValue = player.getHand().stream()
-                                      .mapToInt(card -> card.getRank().getValue())
-                                      .sum();
-                 return new PlayerScoreResponse(player.getId(), player.getName(), totalValue);
-               })
+               .map(player -> new PlayerScoreResponse(player.getId(), player.getName(), handValue(player)))
                .sorted()
                .collect(Collectors.toList());
   }
 
   public DeckInfoResponse getDeckInfo(UUID gameId) {
+    return getDeckInfo(gameId, 0, null);
+  }
+
+  public DeckInfoResponse getDeckInfo(UUID gameId, int offset, Integer limit) {
+    if (offset < 0 || (limit != null && limit < 0)) {
+      throw new IllegalArgumentException("offset and limit must not be negative");
+    }
     Game game = findGameById(gameId);
+    if (game.isLargeShoe()) {
+      int pageSize = limit == null ? MAX_SORTED_CARDS_PAGE : limit;
+      if (pageSize > MAX_SORTED_CARDS_PAGE) {
+        throw new IllegalArgumentException("limit must be at most " + MAX_SORTED_CARDS_PAGE + " for a large shoe");
+      }
+      LargeShoe shoe = largeShoes.shoe(gameId);
+      Map<String, Long> suitCounts = new HashMap<>();
+      for (Suit suit : Suit.values()) {
+        suitCounts.put(suit.name(), shoe.suitCount(suit));
+      }
+      return new DeckInfoResponse(shoe.size(), suitCounts, shoe.sortedCards(offset, pageSize));
+    }
 
     Map<String, Long> suitCounts = game.getGameDeck().stream()
                                        .collect(Collectors.groupingBy(
@@ -198,7 +623,433 @@ public class GameService {
                                               Comparator.comparingInt(Rank::getValue).reversed()
                                           );
     sortedCards.sort(cardComparator);
+    int from = Math.min(offset, sortedCards.size());
+    int to = limit == null ? sortedCards.size() : (int) Math.min((long) from + limit, sortedCards.size());
 
-    return new DeckInfoResponse(game.getGameDeck().size(), suitCounts, sortedCards);
+    return new DeckInfoResponse(game.getGameDeck().size(), suitCounts, sortedCards.subList(from, to));
+  }
+
+  private void touch(Game game) {
+    game.setVersion(game.getVersion() + 1);
+    game.setLastActivityAt(Instant.now());
+    eventPublisher.publishEvent(new GameActivityEvent(game.getId(), game.getLastActivityAt()));
+    game.updateState(state -> state.committed(game.getVersion(), game.getLastActivityAt()));
+    if (game.getState() != null) {
+      eventPublisher.publishEvent(new GameStateChangedEvent(game.getId(), game.getState()));
+    }
+  }
+
+  // Starts a mutation requested by a client
+  private void track(Game game) {
+    checkNoFastTable(game);
+    claimVersion(game);
+    attachState(game);
+  }
+
+  // Takes the next version for this transaction; see the class comment
+  private void claimVersion(Game game) {
+    if (gameRepository.claimVersion(game.getId(), game.getVersion()) == 0) {
+      throw new ObjectOptimisticLockingFailureException(Game.class, game.getId());
+    }
+  }
+
+  /*
+   * Attaches the state the mutation of a heap-shoe game starts from: the
+   * retained snapshot of the loaded version, reused as is. Without one the
+   * mutation runs untracked rather than rebuild a state from the entity,
+   * which would read every card even to deal one.
+   */
+  private void attachState(Game game) {
+    if (!history.isEnabled() || game.isLargeShoe() || game.getState() != null) {
+      return;
+    }
+    GameState latest = history.latest(game.getId());
+    if (latest != null && latest.version() == game.getVersion()) {
+      game.setState(latest);
+    }
+  }
+
+  /*
+   * A new game is still in memory, so its first state costs no reads. It
+   * must be started in the creating transaction, from the version that is
+   * saved: touch then commits it as the version the history starts from.
+   */
+  private void startState(Game game) {
+    if (history.isEnabled() && !game.isLargeShoe()) {
+      game.setState(GameState.of(game));
+    }
+  }
+
+  /*
+   * The state of the loaded version for undo and fork. One the history
+   * does not retain is rebuilt from the entity and recorded, so the
+   * mutations that follow are tracked again.
+   */
+  private GameState currentState(Game game) {
+    attachState(game);
+    if (game.getState() == null) {
+      game.setState(GameState.of(game));
+      history.record(game.getId(), game.getState());
+    }
+    return game.getState();
+  }
+
+  // An open fast table owns the game's shoe and hands until it is closed
+  private static void checkNoFastTable(Game game) {
+    if (game.isFastTable()) {
+      throw new IllegalArgumentException(FAST_TABLE_OPEN);
+    }
+  }
+
+  private static void checkDeckCount(String parameter, int decks) {
+    if (decks < 1 || decks > MAX_BULK_DECKS) {
+      throw new IllegalArgumentException(parameter + " must be between 1 and " + MAX_BULK_DECKS);
+    }
+  }
+
+  private static void checkPenetration(double penetration) {
+    if (!(penetration > 0 && penetration <= 1)) {
+      throw new IllegalArgumentException("penetration must be greater than 0 and at most 1");
+    }
+  }
+
+  private void checkHistory(Game game) {
+    if (!history.isEnabled()) {
+      throw new IllegalArgumentException("Game version history is disabled");
+    }
+    if (game.isLargeShoe()) {
+      throw new IllegalArgumentException("A large-shoe game keeps no version history");
+    }
+  }
+
+  private GameState retainedState(Game game, long version) {
+    return history.find(game.getId(), version)
+               .orElseThrow(() -> new NoSuchElementException("Version " + version + " of the game is not retained"));
+  }
+
+  /*
+   * Makes the entity match the state: the shoe, discard pile and cut card
+   * settings are replaced, kept players get their hands back, players
+   * missing from the state are removed and players only in the state are
+   * re-created with their ids. Returns the ids of the removed players.
+   */
+  private static Set<UUID> restore(Game game, GameState state) {
+    game.getGameDeck().clear();
+    game.getGameDeck().addAll(state.shoe().toList().reversed());
+    game.getDiscardPile().clear();
+    game.getDiscardPile().addAll(state.discards().toList());
+    game.setCutCardPenetration(state.cutCardPenetration());
+    game.setCardsDealtSinceShuffle(state.cardsDealtSinceShuffle());
+
+    Map<UUID, GameState.PlayerState> restoredPlayers = new LinkedHashMap<>();
+    state.players().forEach(playerState -> restoredPlayers.put(playerState.id(), playerState));
+    Set<UUID> removedPlayerIds = new HashSet<>();
+    for (Player player : new ArrayList<>(game.getPlayers())) {
+      GameState.PlayerState playerState = restoredPlayers.remove(player.getId());
+      if (playerState == null) {
+        game.removePlayer(player);
+        removedPlayerIds.add(player.getId());
+      } else {
+        player.getHand().clear();
+        player.getHand().addAll(playerState.hand().toList());
+      }
+    }
+    for (GameState.PlayerState playerState : restoredPlayers.values()) {
+      Player player = new Player(playerState.name(), game);
+      player.setId(playerState.id());
+      player.getHand().addAll(playerState.hand().toList());
+      game.addPlayer(player);
+    }
+    game.setState(state);
+    return removedPlayerIds;
+  }
+
+  private void publishShoeSize(Game game) {
+    eventPublisher.publishEvent(new ShoeSizeChangedEvent(game.getId(), game.getVersion(), shoeSize(game)));
+  }
+
+  private void publishScores(Game game, Collection<Player> players) {
+    if (players.isEmpty()) {
+      return;
+    }
+    List<PlayerScoresChangedEvent.PlayerScore> scores = players.stream()
+        .map(player -> new PlayerScoresChangedEvent.PlayerScore(player.getId(), player.getName(), handValue(player)))
+        .collect(Collectors.toList());
+    eventPublisher.publishEvent(new PlayerScoresChangedEvent(game.getId(), game.getVersion(), scores));
+  }
+
+  private static int handValue(Player player) {
+    return player.getHand().stream()
+               .mapToInt(card -> card.getRank().getValue())
+               .sum();
+  }
+
+  private CommandResultResponse executeCommand(Game game, int index, GameCommandRequest command,
+                                               Map<Integer, Player> addedPlayers) {
+    if (command == null || command.getType() == null) {
+      throw new IllegalArgumentException("Command type is required");
+    }
+    switch (command.getType()) {
+      case ADD_PLAYER -> {
+        Player player = newPlayer(game, command.getName());
+        addedPlayers.put(index, player);
+        return commandResult(game, command, player, null);
+      }
+      case ADD_DECKS -> {
+        if (command.getAmount() < 1) {
+          throw new IllegalArgumentException("ADD_DECKS requires a positive amount");
+        }
+        addDecks(game, command.getAmount());
+        return commandResult(game, command, null, null);
+      }
+      case SHUFFLE -> {
+        shuffleShoe(game);
+        return commandResult(game, command, null, null);
+      }
+      case DEAL -> {
+        Player player = commandPlayer(game, command, addedPlayers);
+        List<Card> dealtCards = dealFromShoe(game, player, command.getAmount());
+        if (!dealtCards.isEmpty()) {
+          eventPublisher.publishEvent(new CardsDealtEvent(game.getId(), dealtCards));
+        }
+        return commandResult(game, command, player, dealtCards);
+      }
+      case REMOVE_PLAYER -> {
+        Player player = commandPlayer(game, command, addedPlayers);
+        // A later playerRef to the removed player is refused like any other bad reference
+        addedPlayers.values().remove(player);
+        game.removePlayer(player);
+        game.updateState(state -> state.removePlayer(player.getId()));
+        return commandResult(game, command, player, null);
+      }
+      case DISCARD_HANDS -> {
+        discardHands(game);
+        return commandResult(game, command, null, null);
+      }
+      default -> throw new IllegalArgumentException("Unsupported command type: " + command.getType());
+    }
+  }
+
+  private static Player commandPlayer(Game game, GameCommandRequest command, Map<Integer, Player> addedPlayers) {
+    if (command.getPlayerRef() == null) {
+      return findPlayer(game, command.getPlayerId());
+    }
+    Player player = addedPlayers.get(command.getPlayerRef());
+    if (player == null) {
+      throw new IllegalArgumentException("playerRef must point to an earlier ADD_PLAYER command");
+    }
+    return player;
+  }
+
+  private CommandResultResponse commandResult(Game game, GameCommandRequest command, Player player, List<Card> cards) {
+    return new CommandResultResponse(
+        command.getType(),
+        player == null ? null : player.getId(),
+        player == null ? null : player.getName(),
+        cards,
+        shoeSize(game)
+    );
+  }
+
+  private Player findPlayer(UUID gameId, UUID playerId) {
+    return playerRepository.findByIdAndGameId(playerId, gameId)
+               .orElseThrow(() -> gameRepository.existsById(gameId)
+                                      ? new NoSuchElementException("Player not found in game")
+                                      : new NoSuchElementException("Game not found"));
+  }
+
+  private static Player findPlayer(Game game, UUID playerId) {
+    Player player = game.findPlayer(playerId);
+    if (player == null) {
+      throw new NoSuchElementException("Player not found in game");
+    }
+    return player;
+  }
+
+  private static Player newPlayer(Game game, String playerName) {
+    Player player = new Player(playerName, game);
+    game.addPlayer(player);
+    game.updateState(state -> state.addPlayer(player));
+    return player;
+  }
+
+  /*
+   * The methods below dispatch between the heap shoe (gameDeck and
+   * discardPile, handled by the static helpers) and a large shoe.
+   */
+  private void addDecks(Game game, int count) {
+    if (game.isLargeShoe()) {
+      largeShoes.shoeForUpdate(game.getId()).addDecks(count);
+      return;
+    }
+    checkDeckCount("count", count);
+    addStandardDecks(game, count);
+  }
+
+  private void shuffleShoe(Game game) {
+    if (!game.isLargeShoe()) {
+      shuffleDeck(game);
+      return;
+    }
+    largeShoes.shoeForUpdate(game.getId()).shuffle(ThreadLocalRandom.current());
+    game.setCardsDealtSinceShuffle(0);
+  }
+
+  private List<Card> dealFromShoe(Game game, Player player, int amount) {
+    if (!game.isLargeShoe()) {
+      return deal(game, player, amount);
+    }
+    LargeShoe shoe = largeShoes.shoeForUpdate(game.getId());
+    if (shoe.size() == 0) {
+      recycleDiscards(game, shoe);
+    }
+    List<Card> dealtCards = shoe.deal(amount);
+    if (dealtCards.isEmpty()) {
+      return Collections.emptyList();
+    }
+    player.getHand().addAll(dealtCards);
+    game.setCardsDealtSinceShuffle(game.getCardsDealtSinceShuffle() + dealtCards.size());
+    if (cutCardReached(game, shoe.size())) {
+      recycleDiscards(game, shoe);
+    }
+    return dealtCards;
+  }
+
+  private void discardHands(Game game) {
+    if (!game.isLargeShoe()) {
+      discardAllHands(game);
+      return;
+    }
+    LargeShoe shoe = largeShoes.shoeForUpdate(game.getId());
+    for (Player player : game.getPlayers()) {
+      shoe.discard(player.getHand());
+      player.getHand().clear();
+    }
+  }
+
+  private int shoeSize(Game game) {
+    return game.isLargeShoe() ? largeShoes.shoe(game.getId()).size() : game.getGameDeck().size();
+  }
+
+  private static void recycleDiscards(Game game, LargeShoe shoe) {
+    if (shoe.recycleDiscards(ThreadLocalRandom.current()) > 0) {
+      game.setCardsDealtSinceShuffle(0);
+    }
+  }
+
+  private static void addStandardDecks(Game game, int count) {
+    List<Card> standardDeck = new ArrayList<>();
+    for (Suit suit : Suit.values()) {
+      for (Rank rank : Rank.values()) {
+        standardDeck.add(new Card(suit, rank));
+      }
+    }
+    PersistentVector<Card> deck = PersistentVector.of(standardDeck);
+    for (int i = 0; i < count; i++) {
+      game.getGameDeck().addAll(standardDeck.reversed());
+      game.updateState(state -> state.withShoe(deck.concat(state.shoe())));
+    }
+  }
+
+  private void fillShoe(Game game, int decks) {
+    List<Card> deck = game.getGameDeck();
+    deck.clear();
+    for (byte code : deckPool.take(decks)) {
+      deck.add(CardCodes.fromCode(code));
+    }
+    game.getDiscardPile().clear();
+    game.setCardsDealtSinceShuffle(0);
+    game.updateState(state -> state.withShoe(PersistentVector.of(game.shoeFromTop()))
+                                   .withDiscards(PersistentVector.empty())
+                                   .withCardsDealtSinceShuffle(0));
+  }
+
+  private static void shuffleDeck(Game game) {
+    List<Card> cards = new ArrayList<>(game.getGameDeck());
+    game.getGameDeck().clear();
+
+    Random rand = ThreadLocalRandom.current();
+    for (int i = cards.size() - 1; i > 0; i--) {
+      int index = rand.nextInt(i + 1);
+      Card a = cards.get(index);
+      cards.set(index, cards.get(i));
+      cards.set(i, a);
+    }
+    game.getGameDeck().addAll(cards);
+    game.setCardsDealtSinceShuffle(0);
+    game.updateState(state -> state.withShoe(PersistentVector.of(game.shoeFromTop())).withCardsDealtSinceShuffle(0));
+  }
+
+  private static List<Card> deal(Game game, Player player, int amount) {
+    List<Card> deck = game.getGameDeck();
+    if (deck.isEmpty()) {
+      recycleDiscards(game);
+    }
+    if (deck.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Card> dealtCards = new ArrayList<>();
+    for (int i = 0; i < amount && !deck.isEmpty(); i++) {
+      dealtCards.add(deck.remove(deck.size() - 1));
+    }
+
+    player.getHand().addAll(dealtCards);
+    game.setCardsDealtSinceShuffle(game.getCardsDealtSinceShuffle() + dealtCards.size());
+    game.updateState(state -> state.withShoe(state.shoe().drop(dealtCards.size()))
+                                   .updateHand(player.getId(), hand -> hand.appendAll(dealtCards))
+                                   .withCardsDealtSinceShuffle(game.getCardsDealtSinceShuffle()));
+    if (cutCardReached(game, deck.size())) {
+      recycleDiscards(game);
+    }
+    return dealtCards;
+  }
+
+  private static void discardAllHands(Game game) {
+    for (Player player : game.getPlayers()) {
+      game.getDiscardPile().addAll(player.getHand());
+      player.getHand().clear();
+      game.updateState(state -> state.discardHand(player.getId()));
+    }
+  }
+
+  private static boolean cutCardReached(Game game, int undealt) {
+    int dealt = game.getCardsDealtSinceShuffle();
+    return dealt >= game.getCutCardPenetration() * ((long) undealt + dealt);
+  }
+
+  /*
+   * Puts every discarded card back into the undealt cards at a uniformly
+   * random position. If the undealt cards are uniformly shuffled, each
+   * insertion keeps them so, which avoids reshuffling the whole shoe.
+   * The card is appended on top and swapped with the card at that
+   * position (inside-out Fisher-Yates), so only two deck rows change
+   * instead of every row after the position.
+   */
+  private static void recycleDiscards(Game game) {
+    List<Card> discards = game.getDiscardPile();
+    if (discards.isEmpty()) {
+      return;
+    }
+    List<Card> deck = game.getGameDeck();
+    PersistentVector<Card> shoe = game.getState() == null ? null : game.getState().shoe();
+    Random rand = ThreadLocalRandom.current();
+    for (Card card : discards) {
+      int index = rand.nextInt(deck.size() + 1);
+      deck.add(card);
+      Collections.swap(deck, index, deck.size() - 1);
+      if (shoe != null) {
+        // The state lists the shoe from the top, which is the end of deck
+        int fromTop = deck.size() - 1 - index;
+        shoe = shoe.insert(0, card);
+        shoe = shoe.set(0, shoe.get(fromTop)).set(fromTop, card);
+      }
+    }
+    discards.clear();
+    game.setCardsDealtSinceShuffle(0);
+    PersistentVector<Card> recycled = shoe;
+    game.updateState(state -> state.withShoe(recycled)
+                                   .withDiscards(PersistentVector.empty())
+                                   .withCardsDealtSinceShuffle(0));
   }
 }
\ No newline at end of file
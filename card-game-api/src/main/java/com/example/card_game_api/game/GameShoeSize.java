@@ -0,0 +1,6 @@
+package com.example.card_game_api.game;
+
+import java.util.UUID;
+
+// shoeSize counts gameDeck only; the shoe of a large-shoe game lives in its LargeShoe file
+public record GameShoeSize(UUID id, long version, boolean largeShoe, int shoeSize) {}
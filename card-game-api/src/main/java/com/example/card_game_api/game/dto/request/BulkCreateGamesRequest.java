@@ -0,0 +1,13 @@
+package com.example.card_game_api.game.dto.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkCreateGamesRequest {
+  private int games = 1;
+  private List<String> playerNames = new ArrayList<>();
+  private int decks = 1;
+}
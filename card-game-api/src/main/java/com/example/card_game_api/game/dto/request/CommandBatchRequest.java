@@ -0,0 +1,11 @@
+package com.example.card_game_api.game.dto.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CommandBatchRequest {
+  private List<GameCommandRequest> commands = new ArrayList<>();
+}
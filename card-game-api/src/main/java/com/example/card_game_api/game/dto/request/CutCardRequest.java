@@ -0,0 +1,8 @@
+package com.example.card_game_api.game.dto.request;
+
+import lombok.Data;
+
+@Data
+public class CutCardRequest {
+  private double penetration;
+}
@@ -0,0 +1,28 @@
+/*
+ * A single command of a batch. Which fields are used depends on the type:
+ *
+ * ADD_PLAYER: name
+ * ADD_DECKS: amount (number of standard decks)
+ * SHUFFLE: none
+ * DEAL: playerId or playerRef, amount (number of cards)
+ * REMOVE_PLAYER: playerId or playerRef
+ * DISCARD_HANDS: none
+ *
+ * playerRef is the index of an earlier ADD_PLAYER command of the same
+ * batch, so a batch can deal to players it has just created.
+ */
+
+package com.example.card_game_api.game.dto.request;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class GameCommandRequest {
+  private GameCommandType type;
+  private String name;
+  private UUID playerId;
+  private Integer playerRef;
+  private int amount = 1;
+}
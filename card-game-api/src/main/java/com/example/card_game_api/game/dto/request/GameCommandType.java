@@ -0,0 +1,5 @@
+package com.example.card_game_api.game.dto.request;
+
+public enum GameCommandType {
+  ADD_PLAYER, ADD_DECKS, SHUFFLE, DEAL, REMOVE_PLAYER, DISCARD_HANDS
+}
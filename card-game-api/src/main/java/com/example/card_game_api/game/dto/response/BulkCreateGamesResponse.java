@@ -0,0 +1,13 @@
+package com.example.card_game_api.game.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class BulkCreateGamesResponse {
+  private List<UUID> gameIds;
+}
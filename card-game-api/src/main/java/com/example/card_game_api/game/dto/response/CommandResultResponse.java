@@ -0,0 +1,19 @@
+package com.example.card_game_api.game.dto.response;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.dto.request.GameCommandType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class CommandResultResponse {
+  private GameCommandType type;
+  private UUID playerId;
+  private String playerName;
+  private List<Card> cards;
+  private int deckSize;
+}
@@ -0,0 +1,18 @@
+package com.example.card_game_api.game.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class GameVersionResponse {
+  private long version;
+  private Long previousVersion;
+  private Instant at;
+  private int shoeSize;
+  private int discardPileSize;
+  private int playerCount;
+  private boolean current;
+}
@@ -0,0 +1,12 @@
+package com.example.card_game_api.game.event;
+
+import com.example.card_game_api.card.Card;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * The cards of one deal (a deal request or a DEAL command) that dealt at
+ * least one card.
+ */
+public record CardsDealtEvent(UUID gameId, List<Card> cards) {}
@@ -0,0 +1,6 @@
+package com.example.card_game_api.game.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record GameActivityEvent(UUID gameId, Instant at) {}
@@ -0,0 +1,11 @@
+package com.example.card_game_api.game.event;
+
+import com.example.card_game_api.history.GameState;
+
+import java.util.UUID;
+
+/*
+ * The snapshot of a heap-shoe game after a mutation, recorded by the
+ * GameHistory once the mutation commits.
+ */
+public record GameStateChangedEvent(UUID gameId, GameState state) {}
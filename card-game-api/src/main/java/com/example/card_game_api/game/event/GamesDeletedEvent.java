@@ -0,0 +1,6 @@
+package com.example.card_game_api.game.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public record GamesDeletedEvent(Collection<UUID> gameIds) {}
@@ -0,0 +1,13 @@
+package com.example.card_game_api.game.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Hand values of some players after a mutation of their game. The game's
+ * version lets listeners drop events that arrive out of order.
+ */
+public record PlayerScoresChangedEvent(UUID gameId, long version, List<PlayerScore> scores) {
+
+  public record PlayerScore(UUID playerId, String playerName, int totalValue) {}
+}
@@ -0,0 +1,10 @@
+package com.example.card_game_api.game.event;
+
+import java.util.UUID;
+
+/*
+ * Number of undealt cards in a game's shoe after a mutation that can
+ * change it. The game's version lets listeners drop events that arrive
+ * out of order.
+ */
+public record ShoeSizeChangedEvent(UUID gameId, long version, int size) {}
@@ -0,0 +1,335 @@
+/*
+ * Group commit of small mutating calls.
+ *
+ * Request threads hand their mutation to execute and wait. Mutations are
+ * spread over game.group-commit.lanes committer threads by game id, so
+ * games commit in parallel, up to the connection pool, while the
+ * mutations of one game keep their arrival order. Each committer
+ * collects the mutations of its lane queued within
+ * game.group-commit.window of the first one, up to
+ * game.group-commit.max-batch, and runs them one after the other in one
+ * database transaction. The @Transactional service methods join that
+ * transaction, so the batch pays for one commit and one flush, which
+ * Hibernate turns into JDBC batches, instead of one per call. Mutations
+ * of the same game in one batch share the loaded game and see each
+ * other's changes, exactly as if they had run one after the other.
+ *
+ * A batch is only safe to run again if its mutations change nothing but
+ * the database, and it should rarely need to. So execute first runs the
+ * caller's check on the calling thread: it throws the usual 404s and 400s
+ * before the mutation joins a batch, and returns false for mutations with
+ * effects outside the database, such as a large shoe's file, which then
+ * run directly in a transaction of their own.
+ *
+ * Every caller is completed on its own once the batch is through:
+ *  - a mutation that still throws (the game changed since its check)
+ *    rolls the batch back; its caller gets the exception and the rest of
+ *    the batch is run again without it, once: if that fails too, the
+ *    rest runs one mutation per transaction
+ *  - when the commit itself fails, nothing tells which mutation caused
+ *    it, so each one is run again in a transaction of its own
+ * Results are only handed out after their transaction committed, and
+ * events published by a rolled back attempt are dropped with it.
+ *
+ * Under light load a batch holds a single mutation and costs at most the
+ * window in latency; as load grows the batches grow with it, so commits
+ * per second stay flat while mutations per second scale. Calls made
+ * inside a transaction, and every call when game.group-commit.enabled is
+ * false, run directly on the calling thread.
+ *
+ * The request trace of each caller is carried over to its mutation, so
+ * its loads show up in the caller's Server-Timing; the shared flush does
+ * not. Batch sizes, durations, retries and fallbacks are exposed as
+ * game.group-commit.* metrics.
+ */
+
+package com.example.card_game_api.groupcommit;
+
+import com.example.card_game_api.tracing.RequestTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+@Component
+public class GroupCommitExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitExecutor.class);
+
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxBatch;
+  private final TransactionTemplate transactionTemplate;
+  private final List<BlockingQueue<Unit<?>>> lanes = new ArrayList<>();
+  private final DistributionSummary batchSize;
+  private final Timer batchDuration;
+  private final Counter retries;
+  private final Counter fallbacks;
+  private final List<Thread> committers = new ArrayList<>();
+  private volatile boolean running = true;
+
+  public GroupCommitExecutor(PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${game.group-commit.enabled:true}") boolean enabled,
+                             @Value("${game.group-commit.window:PT0.001S}") Duration window,
+                             @Value("${game.group-commit.max-batch:64}") int maxBatch,
+                             @Value("${game.group-commit.lanes:4}") int lanes) {
+    if (maxBatch < 1) {
+      throw new IllegalArgumentException("game.group-commit.max-batch must be at least 1");
+    }
+    if (lanes < 1) {
+      throw new IllegalArgumentException("game.group-commit.lanes must be at least 1");
+    }
+    this.enabled = enabled;
+    this.windowNanos = window.toNanos();
+    this.maxBatch = maxBatch;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+    for (int lane = 0; lane < lanes; lane++) {
+      this.lanes.add(new LinkedBlockingQueue<>());
+    }
+    Gauge.builder("game.group-commit.queue", this, GroupCommitExecutor::queued)
+        .description("Mutations waiting for the next group commit")
+        .register(meterRegistry);
+    this.batchSize = DistributionSummary.builder("game.group-commit.batch.size")
+                         .description("Mutations committed together in one transaction")
+                         .register(meterRegistry);
+    this.batchDuration = Timer.builder("game.group-commit.batch.duration")
+                             .description("Time to run and commit a batch, retries included")
+                             .register(meterRegistry);
+    this.retries = Counter.builder("game.group-commit.retries")
+                       .description("Batches run again without a mutation that failed")
+                       .register(meterRegistry);
+    this.fallbacks = Counter.builder("game.group-commit.fallbacks")
+                         .description("Batches run one mutation per transaction after a failed commit or a second failing mutation")
+                         .register(meterRegistry);
+
+    if (enabled) {
+      for (int lane = 0; lane < lanes; lane++) {
+        BlockingQueue<Unit<?>> queue = this.lanes.get(lane);
+        committers.add(Thread.ofPlatform().name("group-commit-" + lane).daemon().start(() -> commitLoop(queue)));
+      }
+    }
+  }
+
+  /*
+   * Runs check on the calling thread, then the mutation in the next group
+   * commit of the game's lane, and returns its result, or throws what it
+   * threw, once its transaction has committed. check throws when the
+   * mutation cannot run, and returns false when it changes more than the
+   * database: the mutation then runs directly.
+   */
+  public <T> T execute(UUID gameId, BooleanSupplier check, Supplier<T> mutation) {
+    if (!enabled || !running || TransactionSynchronizationManager.isActualTransactionActive()
+        || !check.getAsBoolean()) {
+      return mutation.get();
+    }
+    BlockingQueue<Unit<?>> queue = lanes.get(Math.floorMod(gameId.hashCode(), lanes.size()));
+    Unit<T> unit = new Unit<>(mutation, RequestTrace.current());
+    queue.add(unit);
+    if (!running && queue.remove(unit)) {
+      // Shut down meanwhile: nobody is left to commit it
+      return mutation.get();
+    }
+    return unit.join();
+  }
+
+  public void run(UUID gameId, BooleanSupplier check, Runnable mutation) {
+    execute(gameId, check, () -> {
+      mutation.run();
+      return null;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    committers.forEach(Thread::interrupt);
+  }
+
+  private int queued() {
+    int queued = 0;
+    for (BlockingQueue<Unit<?>> queue : lanes) {
+      queued += queue.size();
+    }
+    return queued;
+  }
+
+  private void commitLoop(BlockingQueue<Unit<?>> queue) {
+    List<Unit<?>> batch = new ArrayList<>(maxBatch);
+    while (running) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatch) {
+          long remaining = deadline - System.nanoTime();
+          Unit<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        commit(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (RuntimeException | Error e) {
+        log.error("Group commit of {} mutations failed", batch.size(), e);
+        batch.forEach(unit -> unit.fail(e));
+      } finally {
+        batch.clear();
+      }
+    }
+    IllegalStateException stopped = new IllegalStateException("Group commit is shut down");
+    batch.forEach(unit -> unit.fail(stopped));
+    for (Unit<?> unit = queue.poll(); unit != null; unit = queue.poll()) {
+      unit.fail(stopped);
+    }
+  }
+
+  void commit(List<Unit<?>> batch) {
+    long start = System.nanoTime();
+    List<Unit<?>> pending = new ArrayList<>(batch);
+    boolean retried = false;
+    while (!pending.isEmpty()) {
+      Unit<?> failed;
+      try {
+        failed = transactionTemplate.execute(status -> {
+          for (Unit<?> unit : pending) {
+            if (!unit.run()) {
+              status.setRollbackOnly();
+              return unit;
+            }
+          }
+          return null;
+        });
+      } catch (RuntimeException e) {
+        if (pending.size() == 1) {
+          pending.getFirst().fail(e);
+        } else {
+          fallbacks.increment();
+          pending.forEach(this::commitAlone);
+        }
+        break;
+      }
+      if (failed == null) {
+        batchSize.record(pending.size());
+        pending.forEach(Unit::complete);
+        break;
+      }
+      failed.complete();
+      pending.remove(failed);
+      if (pending.isEmpty()) {
+        break;
+      }
+      if (retried) {
+        // Another failure: stop rerunning the whole batch
+        fallbacks.increment();
+        pending.forEach(this::commitAlone);
+        break;
+      }
+      retried = true;
+      retries.increment();
+    }
+    batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private void commitAlone(Unit<?> unit) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        if (!unit.run()) {
+          status.setRollbackOnly();
+        }
+      });
+      if (unit.failure == null) {
+        batchSize.record(1);
+      }
+      unit.complete();
+    } catch (RuntimeException e) {
+      unit.fail(e);
+    }
+  }
+
+  /*
+   * One caller's mutation. run may be called more than once, each time in
+   * a fresh transaction; only the outcome of the last run is handed to
+   * the caller. The caller is blocked until then, so its request trace is
+   * never used by two threads at once.
+   */
+  static final class Unit<T> {
+
+    private final Supplier<T> mutation;
+    private final RequestTrace trace;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private T result;
+    private Throwable failure;
+
+    Unit(Supplier<T> mutation, RequestTrace trace) {
+      this.mutation = mutation;
+      this.trace = trace;
+    }
+
+    // false when the mutation threw
+    boolean run() {
+      result = null;
+      failure = null;
+      RequestTrace.attach(trace);
+      try {
+        result = mutation.get();
+        return true;
+      } catch (RuntimeException | Error e) {
+        failure = e;
+        return false;
+      } finally {
+        RequestTrace.clear();
+      }
+    }
+
+    void complete() {
+      if (failure != null) {
+        future.completeExceptionally(failure);
+      } else {
+        future.complete(result);
+      }
+    }
+
+    void fail(Throwable e) {
+      future.completeExceptionally(e);
+    }
+
+    T join() {
+      try {
+        return future.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        if (e.getCause() instanceof Error cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+  }
+}
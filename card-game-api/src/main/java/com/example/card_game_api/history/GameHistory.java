@@ -0,0 +1,161 @@
+/*
+ * The recent versions of every heap-shoe game, kept as GameState
+ * snapshots for undo and fork.
+ *
+ * A snapshot is recorded once the mutation that produced it commits (see
+ * GameStateChangedEvent), so a rolled back mutation never shows up as a
+ * version. Each game keeps its game.history.max-versions latest versions
+ * and drops the oldest one past that; the timeline goes with the game when
+ * it is deleted, by a client or by the idle reaper. Consecutive snapshots
+ * share all their unchanged cards, so a version costs O(log n) memory per
+ * changed card rather than a copy of the game. Setting max-versions to 0
+ * turns the history off.
+ *
+ * The timelines are also what GameService derives the next state from:
+ * when a game's latest snapshot is the version being mutated it is updated
+ * in place of rebuilding one from the loaded game. A state rebuilt for
+ * undo or fork is recorded directly, being of an already committed
+ * version, unless the game has a newer one by then.
+ */
+
+package com.example.card_game_api.history;
+
+import com.example.card_game_api.game.event.GameStateChangedEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class GameHistory {
+
+  private final int maxVersions;
+  private final Map<UUID, Timeline> timelines = new ConcurrentHashMap<>();
+
+  public GameHistory(MeterRegistry meterRegistry,
+                     @Value("${game.history.max-versions:50}") int maxVersions) {
+    this.maxVersions = maxVersions;
+    Gauge.builder("game.history.versions", this, GameHistory::retainedVersions)
+        .description("Game versions retained for undo and fork")
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return maxVersions > 0;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameStateChanged(GameStateChangedEvent event) {
+    if (isEnabled()) {
+      timelines.computeIfAbsent(event.gameId(), gameId -> new Timeline()).add(event.state(), maxVersions);
+    }
+  }
+
+  public void record(UUID gameId, GameState state) {
+    if (isEnabled()) {
+      timelines.computeIfAbsent(gameId, id -> new Timeline()).addIfNewer(state, maxVersions);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    event.gameIds().forEach(timelines::remove);
+  }
+
+  public GameState latest(UUID gameId) {
+    Timeline timeline = timelines.get(gameId);
+    return timeline == null ? null : timeline.latest();
+  }
+
+  public Optional<GameState> find(UUID gameId, long version) {
+    return versions(gameId).stream().filter(state -> state.version() == version).findFirst();
+  }
+
+  // Oldest first
+  public List<GameState> versions(UUID gameId) {
+    Timeline timeline = timelines.get(gameId);
+    return timeline == null ? List.of() : timeline.versions();
+  }
+
+  int retainedVersions() {
+    int versions = 0;
+    for (Timeline timeline : timelines.values()) {
+      versions += timeline.size();
+    }
+    return versions;
+  }
+
+  private static final class Timeline {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<GameState> states = new ArrayDeque<>();
+
+    void add(GameState state, int maxVersions) {
+      lock.lock();
+      try {
+        // A state committed after a newer one (a lost update) replaces what it raced with
+        Iterator<GameState> newest = states.descendingIterator();
+        while (newest.hasNext() && newest.next().version() >= state.version()) {
+          newest.remove();
+        }
+        states.addLast(state);
+        while (states.size() > maxVersions) {
+          states.removeFirst();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void addIfNewer(GameState state, int maxVersions) {
+      lock.lock();
+      try {
+        if (states.isEmpty() || states.peekLast().version() < state.version()) {
+          add(state, maxVersions);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    GameState latest() {
+      lock.lock();
+      try {
+        return states.peekLast();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    List<GameState> versions() {
+      lock.lock();
+      try {
+        return new ArrayList<>(states);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return states.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
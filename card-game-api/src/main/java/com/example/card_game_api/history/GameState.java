@@ -0,0 +1,139 @@
+/*
+ * An immutable snapshot of a heap-shoe game: undealt cards, discard pile,
+ * players with their hands and the cut card settings, as of one version.
+ *
+ * The card lists are PersistentVectors, so the state after a mutation is
+ * derived from the state before it in O(log n) per changed position and
+ * shares everything else with it: dealing drops the top of the shoe and
+ * appends to one hand, discarding concatenates the hands onto the discard
+ * pile, recycling inserts each discard at its position. Only replacing
+ * the whole shoe (shuffle, new shoe) builds a new vector.
+ *
+ * While a mutation is in progress, version is the version the state was
+ * derived from; committed turns it into previousVersion. previousVersion
+ * is 0 for the first version of a game or of a fork.
+ */
+
+package com.example.card_game_api.history;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.Game;
+import com.example.card_game_api.player.Player;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+public record GameState(long version,
+                        long previousVersion,
+                        Instant at,
+                        PersistentVector<Card> shoe,
+                        PersistentVector<Card> discards,
+                        PersistentVector<PlayerState> players,
+                        double cutCardPenetration,
+                        int cardsDealtSinceShuffle) {
+
+  public record PlayerState(UUID id, String name, PersistentVector<Card> hand) {}
+
+  // O(n): copies the game as loaded from the database
+  public static GameState of(Game game) {
+    List<PlayerState> players = game.getPlayers().stream()
+        .map(player -> new PlayerState(player.getId(), player.getName(), PersistentVector.of(player.getHand())))
+        .toList();
+    return new GameState(game.getVersion(), 0, game.getLastActivityAt(), PersistentVector.of(game.shoeFromTop()),
+        PersistentVector.of(game.getDiscardPile()), PersistentVector.of(players), game.getCutCardPenetration(),
+        game.getCardsDealtSinceShuffle());
+  }
+
+  public GameState committed(long version, Instant at) {
+    return new GameState(version, this.version, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withVersion(long version) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withShoe(PersistentVector<Card> shoe) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withDiscards(PersistentVector<Card> discards) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withPlayers(PersistentVector<PlayerState> players) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withCutCardPenetration(double cutCardPenetration) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState withCardsDealtSinceShuffle(int cardsDealtSinceShuffle) {
+    return new GameState(version, previousVersion, at, shoe, discards, players, cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public GameState addPlayer(Player player) {
+    return withPlayers(players.append(new PlayerState(player.getId(), player.getName(), PersistentVector.of(player.getHand()))));
+  }
+
+  public GameState removePlayer(UUID playerId) {
+    int index = indexOf(playerId);
+    return index < 0 ? this : withPlayers(players.remove(index));
+  }
+
+  // Moves the player's hand onto the discard pile
+  public GameState discardHand(UUID playerId) {
+    PlayerState player = player(playerId);
+    if (player == null) {
+      return this;
+    }
+    return withDiscards(discards.concat(player.hand())).updateHand(playerId, hand -> PersistentVector.empty());
+  }
+
+  // The same cards and players, with new player ids, as the first state of a new game
+  public GameState forked() {
+    List<PlayerState> copies = new ArrayList<>(players.size());
+    for (PlayerState player : players) {
+      copies.add(new PlayerState(UUID.randomUUID(), player.name(), player.hand()));
+    }
+    return new GameState(0, 0, at, shoe, discards, PersistentVector.of(copies), cutCardPenetration,
+        cardsDealtSinceShuffle);
+  }
+
+  public PlayerState player(UUID playerId) {
+    int index = indexOf(playerId);
+    return index < 0 ? null : players.get(index);
+  }
+
+  public GameState updateHand(UUID playerId, UnaryOperator<PersistentVector<Card>> change) {
+    int index = indexOf(playerId);
+    if (index < 0) {
+      return this;
+    }
+    PlayerState player = players.get(index);
+    PlayerState updated = new PlayerState(player.id(), player.name(), change.apply(player.hand()));
+    return withPlayers(players.set(index, updated));
+  }
+
+  // Players per game are few, so a linear scan beats keeping an index in every version
+  private int indexOf(UUID playerId) {
+    int index = 0;
+    for (PlayerState player : players) {
+      if (player.id().equals(playerId)) {
+        return index;
+      }
+      index++;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * An immutable list with structural sharing: a height-balanced (AVL)
+ * binary tree ordered by position, where every node also stores the size
+ * of its subtree.
+ *
+ * Positional get, set, insert and remove, splitting at a position (take/drop)
+ * and concatenation are O(log n). They are all built on join, which
+ * links two trees and a middle element in time proportional to the
+ * difference of their heights, and split. Every update returns a new
+ * vector that shares all but O(log n) nodes with the original, so keeping
+ * many versions of a large list costs little more than keeping one.
+ */
+
+package com.example.card_game_api.history;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class PersistentVector<T> implements Iterable<T> {
+
+  private static final PersistentVector<?> EMPTY = new PersistentVector<>(null);
+
+  private final Node<T> root;
+
+  private PersistentVector(Node<T> root) {
+    this.root = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> PersistentVector<T> empty() {
+    return (PersistentVector<T>) EMPTY;
+  }
+
+  // O(n): builds a perfectly balanced tree
+  public static <T> PersistentVector<T> of(List<? extends T> items) {
+    return items.isEmpty() ? empty() : new PersistentVector<>(build(items, 0, items.size()));
+  }
+
+  public int size() {
+    return size(root);
+  }
+
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  public T get(int index) {
+    checkIndex(index, size());
+    Node<T> node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index == leftSize) {
+        return node.value;
+      } else {
+        index -= leftSize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  public PersistentVector<T> set(int index, T value) {
+    checkIndex(index, size());
+    return new PersistentVector<>(set(root, index, value));
+  }
+
+  public PersistentVector<T> insert(int index, T value) {
+    checkIndex(index, size() + 1);
+    Split<T> split = split(root, index);
+    return new PersistentVector<>(join(split.left, value, split.right));
+  }
+
+  public PersistentVector<T> append(T value) {
+    return new PersistentVector<>(join(root, value, null));
+  }
+
+  public PersistentVector<T> appendAll(List<? extends T> values) {
+    return concat(of(values));
+  }
+
+  public PersistentVector<T> concat(PersistentVector<T> other) {
+    if (other.root == null) {
+      return this;
+    }
+    if (root == null) {
+      return other;
+    }
+    Split<T> withoutLast = split(root, size() - 1);
+    return new PersistentVector<>(join(withoutLast.left, withoutLast.right.value, other.root));
+  }
+
+  public PersistentVector<T> remove(int index) {
+    checkIndex(index, size());
+    Split<T> before = split(root, index);
+    Split<T> after = split(before.right, 1);
+    return new PersistentVector<>(concat(before.left, after.right));
+  }
+
+  // The first count elements
+  public PersistentVector<T> take(int count) {
+    if (count >= size()) {
+      return this;
+    }
+    return new PersistentVector<>(split(root, Math.max(count, 0)).left);
+  }
+
+  // Everything but the first count elements
+  public PersistentVector<T> drop(int count) {
+    if (count <= 0) {
+      return this;
+    }
+    return new PersistentVector<>(split(root, Math.min(count, size())).right);
+  }
+
+  public List<T> toList() {
+    List<T> list = new ArrayList<>(size());
+    forEach(list::add);
+    return Collections.unmodifiableList(list);
+  }
+
+  int height() {
+    return height(root);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    Deque<Node<T>> path = new ArrayDeque<>();
+    for (Node<T> node = root; node != null; node = node.left) {
+      path.push(node);
+    }
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return !path.isEmpty();
+      }
+
+      @Override
+      public T next() {
+        if (path.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<T> node = path.pop();
+        for (Node<T> child = node.right; child != null; child = child.left) {
+          path.push(child);
+        }
+        return node.value;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+
+  private static <T> Node<T> build(List<? extends T> items, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    return node(build(items, from, middle), items.get(middle), build(items, middle + 1, to));
+  }
+
+  // Copies only the path to the replaced element
+  private static <T> Node<T> set(Node<T> node, int index, T value) {
+    int leftSize = size(node.left);
+    if (index < leftSize) {
+      return node(set(node.left, index, value), node.value, node.right);
+    }
+    if (index == leftSize) {
+      return node(node.left, value, node.right);
+    }
+    return node(node.left, node.value, set(node.right, index - leftSize - 1, value));
+  }
+
+  // Splits into the first index elements and the rest
+  private static <T> Split<T> split(Node<T> node, int index) {
+    if (node == null) {
+      return new Split<>(null, null);
+    }
+    int leftSize = size(node.left);
+    if (index <= leftSize) {
+      Split<T> split = split(node.left, index);
+      return new Split<>(split.left, join(split.right, node.value, node.right));
+    }
+    Split<T> split = split(node.right, index - leftSize - 1);
+    return new Split<>(join(node.left, node.value, split.left), split.right);
+  }
+
+  private static <T> Node<T> concat(Node<T> left, Node<T> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    Split<T> withoutFirst = split(right, 1);
+    return join(left, withoutFirst.left.value, withoutFirst.right);
+  }
+
+  private static <T> Node<T> join(Node<T> left, T value, Node<T> right) {
+    if (height(left) > height(right) + 1) {
+      return joinRight(left, value, right);
+    }
+    if (height(right) > height(left) + 1) {
+      return joinLeft(left, value, right);
+    }
+    return node(left, value, right);
+  }
+
+  // left is the taller tree: descend its right spine
+  private static <T> Node<T> joinRight(Node<T> left, T value, Node<T> right) {
+    if (height(left.right) <= height(right) + 1) {
+      Node<T> joined = node(left.right, value, right);
+      if (height(joined) <= height(left.left) + 1) {
+        return node(left.left, left.value, joined);
+      }
+      return rotateLeft(node(left.left, left.value, rotateRight(joined)));
+    }
+    Node<T> joined = joinRight(left.right, value, right);
+    Node<T> result = node(left.left, left.value, joined);
+    return height(joined) <= height(left.left) + 1 ? result : rotateLeft(result);
+  }
+
+  // right is the taller tree: descend its left spine
+  private static <T> Node<T> joinLeft(Node<T> left, T value, Node<T> right) {
+    if (height(right.left) <= height(left) + 1) {
+      Node<T> joined = node(left, value, right.left);
+      if (height(joined) <= height(right.right) + 1) {
+        return node(joined, right.value, right.right);
+      }
+      return rotateRight(node(rotateLeft(joined), right.value, right.right));
+    }
+    Node<T> joined = joinLeft(left, value, right.left);
+    Node<T> result = node(joined, right.value, right.right);
+    return height(joined) <= height(right.right) + 1 ? result : rotateRight(result);
+  }
+
+  private static <T> Node<T> rotateLeft(Node<T> node) {
+    Node<T> right = node.right;
+    return node(node(node.left, node.value, right.left), right.value, right.right);
+  }
+
+  private static <T> Node<T> rotateRight(Node<T> node) {
+    Node<T> left = node.left;
+    return node(left.left, left.value, node(left.right, node.value, node.right));
+  }
+
+  private static <T> Node<T> node(Node<T> left, T value, Node<T> right) {
+    return new Node<>(left, value, right);
+  }
+
+  private static int size(Node<?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static int height(Node<?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static void checkIndex(int index, int bound) {
+    if (index < 0 || index >= bound) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+    }
+  }
+
+  private static final class Node<T> {
+
+    final Node<T> left;
+    final T value;
+    final Node<T> right;
+    final int height;
+    final int size;
+
+    Node(Node<T> left, T value, Node<T> right) {
+      this.left = left;
+      this.value = value;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+
+  private record Split<T>(Node<T> left, Node<T> right) {}
+}
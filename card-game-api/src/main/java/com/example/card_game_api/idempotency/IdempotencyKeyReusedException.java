@@ -0,0 +1,8 @@
+package com.example.card_game_api.idempotency;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  public IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Bounded, TTL-evicted store of responses to mutating requests.
+ *
+ * Clients send an Idempotency-Key header when they may retry a request.
+ * The first request for a (gameId, key) pair runs the action and stores
+ * its response; retries, including ones that arrive while the first is
+ * still running, wait for and replay that response instead of running
+ * the action again. Failed actions are not stored, so they can be retried.
+ *
+ * Each entry also keeps a SHA-256 fingerprint of the request: its method,
+ * route template, path, query string and JSON body. A key reused for a
+ * different request is refused with IdempotencyKeyReusedException instead
+ * of being answered with the other request's response. A retry waits at
+ * most game.idempotency.wait-timeout for the first request to finish and
+ * then gets IdempotentRequestPendingException.
+ *
+ * Entries are kept in insertion order: expired ones are purged from the
+ * head on every access and the oldest one is dropped when the store is full.
+ * The map is guarded by a ReentrantLock rather than a monitor, so request
+ * threads contending for it never pin a virtual thread's carrier.
+ */
+
+package com.example.card_game_api.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class IdempotencyStore {
+
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final int maxEntries;
+  private final long ttlNanos;
+  private final long waitTimeoutNanos;
+  private final ObjectMapper objectMapper;
+  private final Map<Key, Entry> entries;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  public IdempotencyStore(@Value("${game.idempotency.max-entries:10000}") int maxEntries,
+                          @Value("${game.idempotency.ttl:10m}") Duration ttl,
+                          @Value("${game.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                          ObjectMapper objectMapper) {
+    this.maxEntries = maxEntries;
+    this.ttlNanos = ttl.toNanos();
+    this.waitTimeoutNanos = waitTimeout.toNanos();
+    this.objectMapper = objectMapper;
+    this.entries = new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > IdempotencyStore.this.maxEntries;
+      }
+    };
+  }
+
+  /*
+   * Runs the action once per (gameId, key). A null or blank key disables
+   * deduplication and always runs the action. body is the request body,
+   * or null for requests without one.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ResponseEntity<T> execute(UUID gameId, String key, Object body, Supplier<ResponseEntity<T>> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+    }
+
+    Key entryKey = new Key(gameId, key);
+    byte[] fingerprint = fingerprint(body);
+    CompletableFuture<ResponseEntity<?>> response;
+    boolean owner = false;
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      purgeExpired(now);
+      Entry entry = entries.get(entryKey);
+      if (entry == null) {
+        response = new CompletableFuture<>();
+        entries.put(entryKey, new Entry(fingerprint, response, now));
+        owner = true;
+      } else if (!Arrays.equals(entry.fingerprint(), fingerprint)) {
+        throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+      } else {
+        response = entry.response();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (owner) {
+      try {
+        ResponseEntity<T> result = action.get();
+        response.complete(result);
+        return result;
+      } catch (Throwable e) {
+        // Any failure, Errors and sneaky checked exceptions included, frees the key for a retry
+        lock.lock();
+        try {
+          entries.remove(entryKey);
+        } finally {
+          lock.unlock();
+        }
+        response.completeExceptionally(e);
+        throw e;
+      }
+    }
+
+    ResponseEntity<T> stored;
+    try {
+      stored = (ResponseEntity<T>) response.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      throw new IdempotentRequestPendingException("A request with this Idempotency-Key is still in progress, retry later");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IdempotentRequestPendingException("Interrupted while waiting for the request with this Idempotency-Key");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+    return ResponseEntity.status(stored.getStatusCode())
+               .headers(stored.getHeaders())
+               .header(REPLAYED_HEADER, "true")
+               .body(stored.getBody());
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void purgeExpired(long now) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      if (now - iterator.next().createdAt() < ttlNanos) {
+        break;
+      }
+      iterator.remove();
+    }
+  }
+
+  private byte[] fingerprint(Object body) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes servletAttributes) {
+      HttpServletRequest request = servletAttributes.getRequest();
+      update(digest, request.getMethod());
+      update(digest, String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)));
+      update(digest, request.getRequestURI());
+      update(digest, String.valueOf(request.getQueryString()));
+    }
+    if (body != null) {
+      try {
+        digest.update(objectMapper.writeValueAsBytes(body));
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Could not fingerprint the request body", e);
+      }
+    }
+    return digest.digest();
+  }
+
+  private static void update(MessageDigest digest, String part) {
+    digest.update(part.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private record Key(UUID gameId, String key) {}
+
+  private record Entry(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response, long createdAt) {}
+}
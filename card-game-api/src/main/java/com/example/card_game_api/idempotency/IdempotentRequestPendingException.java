@@ -0,0 +1,8 @@
+package com.example.card_game_api.idempotency;
+
+public class IdempotentRequestPendingException extends RuntimeException {
+
+  public IdempotentRequestPendingException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Global leaderboard of players across all games, ranked by hand value.
+ *
+ * It is maintained incrementally from the game events instead of being
+ * computed from player_hand:
+ *  - standings: the current standing of each player, by id
+ *  - ranking: the same standings ordered by score (descending) then id,
+ *    in a ConcurrentSkipListSet, so top-K is a walk over the first K
+ *    entries and an update is an O(log n) remove plus add
+ *  - scores: player counts per score (see ScoreIndex), which answers
+ *    "how many players score higher" in O(log maxScore) for rank queries
+ *  - gamePlayers: the players of each game, to drop them when the game
+ *    is deleted
+ *
+ * Each player's update runs inside ConcurrentHashMap.compute for that
+ * player, so updates to one player are serialized while different
+ * players are updated in parallel. Readers are weakly consistent: a
+ * top-K walk can miss a player whose standing is being replaced at that
+ * moment. Score events carry the game version, and an event older than
+ * the standing it would replace is ignored.
+ *
+ * Ranks are competition ranks: players with the same score share a rank.
+ */
+
+package com.example.card_game_api.leaderboard;
+
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.leaderboard.dto.response.LeaderboardEntryResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Component
+public class Leaderboard {
+
+  public static final int MAX_LIMIT = 1000;
+
+  private static final int INITIAL_SCORE_CAPACITY = 1024;
+
+  private static final Comparator<Standing> RANKING_ORDER =
+      Comparator.comparingInt(Standing::totalValue).reversed()
+          .thenComparing(Standing::playerId);
+
+  private final Map<UUID, Standing> standings = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListSet<Standing> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+  private final ScoreIndex scores = new ScoreIndex(INITIAL_SCORE_CAPACITY);
+  private final Map<UUID, Set<UUID>> gamePlayers = new ConcurrentHashMap<>();
+
+  public Leaderboard(MeterRegistry meterRegistry) {
+    Gauge.builder("game.leaderboard.players", standings, Map::size)
+        .description("Players ranked on the global leaderboard")
+        .register(meterRegistry);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayerScoresChanged(PlayerScoresChangedEvent event) {
+    Set<UUID> players = gamePlayers.computeIfAbsent(event.gameId(), gameId -> ConcurrentHashMap.newKeySet());
+    for (PlayerScoresChangedEvent.PlayerScore score : event.scores()) {
+      update(new Standing(score.playerId(), score.playerName(), event.gameId(), score.totalValue(), event.version()));
+      players.add(score.playerId());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayersRemoved(PlayersRemovedEvent event) {
+    Set<UUID> players = gamePlayers.get(event.gameId());
+    for (UUID playerId : event.playerIds()) {
+      remove(playerId);
+      if (players != null) {
+        players.remove(playerId);
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    for (UUID gameId : event.gameIds()) {
+      Set<UUID> players = gamePlayers.remove(gameId);
+      if (players != null) {
+        players.forEach(this::remove);
+      }
+    }
+  }
+
+  public List<LeaderboardEntryResponse> top(int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    List<LeaderboardEntryResponse> entries = new ArrayList<>(Math.min(limit, standings.size()));
+    long rank = 0;
+    Integer previousScore = null;
+    for (Standing standing : ranking) {
+      if (entries.size() == limit) {
+        break;
+      }
+      if (previousScore == null || standing.totalValue() != previousScore) {
+        rank = entries.size() + 1;
+        previousScore = standing.totalValue();
+      }
+      entries.add(entry(rank, standing));
+    }
+    return entries;
+  }
+
+  public LeaderboardEntryResponse standingOf(UUID playerId) {
+    Standing standing = standings.get(playerId);
+    if (standing == null) {
+      throw new NoSuchElementException("Player not on the leaderboard");
+    }
+    return entry(scores.countAbove(standing.totalValue()) + 1, standing);
+  }
+
+  public int size() {
+    return standings.size();
+  }
+
+  private void update(Standing next) {
+    standings.compute(next.playerId(), (playerId, current) -> {
+      if (current != null) {
+        if (next.version() < current.version()) {
+          return current;
+        }
+        ranking.remove(current);
+        scores.add(current.totalValue(), -1);
+      }
+      ranking.add(next);
+      scores.add(next.totalValue(), 1);
+      return next;
+    });
+  }
+
+  private void remove(UUID playerId) {
+    standings.computeIfPresent(playerId, (id, current) -> {
+      ranking.remove(current);
+      scores.add(current.totalValue(), -1);
+      return null;
+    });
+  }
+
+  private static LeaderboardEntryResponse entry(long rank, Standing standing) {
+    return new LeaderboardEntryResponse(rank, standing.playerId(), standing.playerName(),
+        standing.gameId(), standing.totalValue());
+  }
+
+  private record Standing(UUID playerId, String playerName, UUID gameId, int totalValue, long version) {}
+}
@@ -0,0 +1,47 @@
+package com.example.card_game_api.leaderboard;
+
+import com.example.card_game_api.leaderboard.dto.response.LeaderboardEntryResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/leaderboard")
+public class LeaderboardController {
+
+  private final Leaderboard leaderboard;
+
+  public LeaderboardController(Leaderboard leaderboard) {
+    this.leaderboard = leaderboard;
+  }
+
+  @GetMapping
+  @Operation(summary = "Get the top players across all games by hand value")
+  public List<LeaderboardEntryResponse> getTopPlayers(@RequestParam(defaultValue = "10") int limit) {
+    return leaderboard.top(limit);
+  }
+
+  @GetMapping("/players/{playerId}")
+  @Operation(summary = "Get a player's global rank and hand value")
+  public LeaderboardEntryResponse getPlayerStanding(@PathVariable UUID playerId) {
+    return leaderboard.standingOf(playerId);
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  public Map<String, String> handleNoSuchElementException(NoSuchElementException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+}
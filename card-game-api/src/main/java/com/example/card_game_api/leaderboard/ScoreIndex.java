@@ -0,0 +1,111 @@
+/*
+ * Counts of players per score, kept in a Fenwick (binary indexed) tree so
+ * that both updating a count and asking how many players score above a
+ * value are O(log maxScore). This is what turns rank-of-player into a
+ * logarithmic query instead of a walk over the ordered standings.
+ *
+ * Updates are plain additions, which commute, so concurrent updates only
+ * need atomic adds on the tree nodes and share the read lock. The write
+ * lock is taken only to grow the tree when a score beyond its capacity
+ * shows up. Capacities are powers of two, which makes growing cheap: the
+ * existing nodes keep their ranges and the new root is the old root.
+ */
+
+package com.example.card_game_api.leaderboard;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+class ScoreIndex {
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // 1-based; node i holds the count of scores in (i - lowbit(i), i], score s at i = s + 1
+  private AtomicLongArray tree;
+
+  ScoreIndex(int initialCapacity) {
+    this.tree = new AtomicLongArray(Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) * 2 + 1);
+  }
+
+  void add(int score, long delta) {
+    if (score < 0) {
+      throw new IllegalArgumentException("score must not be negative");
+    }
+    int index = score + 1;
+    while (true) {
+      lock.readLock().lock();
+      try {
+        if (index < tree.length()) {
+          for (int i = index; i < tree.length(); i += i & -i) {
+            tree.addAndGet(i, delta);
+          }
+          return;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+      grow(index);
+    }
+  }
+
+  long countAbove(int score) {
+    lock.readLock().lock();
+    try {
+      int capacity = tree.length() - 1;
+      return prefix(capacity) - prefix(Math.min(score + 1, capacity));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long total() {
+    lock.readLock().lock();
+    try {
+      return prefix(tree.length() - 1);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int capacity() {
+    lock.readLock().lock();
+    try {
+      return tree.length() - 1;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long prefix(int index) {
+    long sum = 0;
+    for (int i = index; i > 0; i -= i & -i) {
+      sum += tree.get(i);
+    }
+    return sum;
+  }
+
+  private void grow(int index) {
+    lock.writeLock().lock();
+    try {
+      int capacity = tree.length() - 1;
+      if (index <= capacity) {
+        return;
+      }
+      int newCapacity = capacity;
+      while (newCapacity < index) {
+        newCapacity *= 2;
+      }
+      AtomicLongArray grown = new AtomicLongArray(newCapacity + 1);
+      for (int i = 1; i <= capacity; i++) {
+        grown.set(i, tree.get(i));
+      }
+      // Every power-of-two node above the old root covers (0, node], i.e. the old total
+      for (int i = capacity * 2; i <= newCapacity; i *= 2) {
+        grown.set(i, tree.get(capacity));
+      }
+      tree = grown;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.card_game_api.leaderboard.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+  private long rank;
+  private UUID playerId;
+  private String playerName;
+  private UUID gameId;
+  private int totalValue;
+}
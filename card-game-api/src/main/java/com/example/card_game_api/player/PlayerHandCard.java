@@ -0,0 +1,8 @@
+package com.example.card_game_api.player;
+
+import com.example.card_game_api.card.Rank;
+
+import java.util.UUID;
+
+// One card of a player's hand; rank is null for a player with an empty hand
+public record PlayerHandCard(UUID playerId, UUID gameId, long version, Rank rank) {}
@@ -0,0 +1,6 @@
+package com.example.card_game_api.player;
+
+import java.util.UUID;
+
+// A player's name and game, without the hand
+public record PlayerName(UUID playerId, UUID gameId, String name) {}
@@ -1,8 +1,26 @@
 package com.example.card_game_api.player;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PlayerRepository extends JpaRepository<Player, UUID>{}
\ No newline at end of file
+public interface PlayerRepository extends JpaRepository<Player, UUID>{
+
+  // Player, hand and the game's row (not its collections) in one query, so they are read at the same version
+  @Query("select p from Player p left join fetch p.hand join fetch p.game where p.id = :playerId and p.game.id = :gameId")
+  Optional<Player> findByIdAndGameId(UUID playerId, UUID gameId);
+
+  boolean existsByIdAndGameId(UUID playerId, UUID gameId);
+
+  @Query("select new com.example.card_game_api.player.PlayerHandCard(p.id, g.id, g.version, c.rank) "
+             + "from Player p join p.game g left join p.hand c")
+  List<PlayerHandCard> findAllHandCards();
+
+  @Query("select new com.example.card_game_api.player.PlayerName(p.id, p.game.id, p.name) from Player p")
+  List<PlayerName> findAllNames();
+}
@@ -0,0 +1,160 @@
+/*
+ * Expires games that have been idle for longer than the configured TTL.
+ *
+ * Every game mutation publishes a GameActivityEvent. The reaper keeps the
+ * last activity time of each live game in a map and a single entry per game
+ * on a hashed timer wheel, scheduled for lastActivity + TTL. When an entry
+ * fires, the game is either still idle, and is deleted, or it has seen
+ * activity since, and is rescheduled for its new deadline. Deletions are
+ * done in batches, and only for games whose persisted lastActivityAt is
+ * still older than the cutoff, so a game touched at the last moment survives.
+ * With game.reaper.archive set, idle games are moved to the archive (see
+ * GameArchiveService) instead of being deleted outright.
+ *
+ * Both structures hold one entry per live game, so memory stays bounded
+ * by the number of live games however long the service runs.
+ *
+ * The reaper is never created lazily: nothing asks for it, so under
+ * spring.main.lazy-initialization its schedule would never start.
+ */
+
+package com.example.card_game_api.reaper;
+
+import com.example.card_game_api.archive.GameArchiveService;
+import com.example.card_game_api.game.GameActivity;
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.GameService;
+import com.example.card_game_api.game.event.GameActivityEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Lazy(false)
+public class IdleGameReaper {
+
+  private final GameService gameService;
+  private final GameRepository gameRepository;
+  private final GameArchiveService archiveService;
+  private final boolean enabled;
+  private final boolean archive;
+  private final long idleTtlMillis;
+  private final int batchSize;
+  private final TimerWheel<UUID> wheel;
+  private final Map<UUID, Long> lastActivity = new ConcurrentHashMap<>();
+  private final Counter expiredGames;
+
+  public IdleGameReaper(GameService gameService,
+                        GameRepository gameRepository,
+                        GameArchiveService archiveService,
+                        MeterRegistry meterRegistry,
+                        @Value("${game.reaper.enabled:true}") boolean enabled,
+                        @Value("${game.reaper.archive:false}") boolean archive,
+                        @Value("${game.reaper.idle-ttl:30m}") Duration idleTtl,
+                        @Value("${game.reaper.tick:PT1S}") Duration tick,
+                        @Value("${game.reaper.wheel-size:512}") int wheelSize,
+                        @Value("${game.reaper.batch-size:100}") int batchSize) {
+    this.gameService = gameService;
+    this.gameRepository = gameRepository;
+    this.archiveService = archiveService;
+    this.enabled = enabled;
+    this.archive = archive;
+    this.idleTtlMillis = idleTtl.toMillis();
+    this.batchSize = batchSize;
+    this.wheel = new TimerWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+
+    Gauge.builder("game.live", lastActivity, Map::size)
+        .description("Games tracked as live by the idle reaper")
+        .register(meterRegistry);
+    Gauge.builder("game.reaper.scheduled", wheel, TimerWheel::size)
+        .description("Expiry checks scheduled on the timer wheel")
+        .register(meterRegistry);
+    this.expiredGames = Counter.builder("game.reaper.expired")
+                            .description("Games deleted or archived after being idle for longer than the TTL")
+                            .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void trackExistingGames() {
+    long now = System.currentTimeMillis();
+    for (GameActivity activity : gameRepository.findAllActivity()) {
+      Instant at = activity.lastActivityAt();
+      track(activity.id(), at == null ? now : at.toEpochMilli());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGameActivity(GameActivityEvent event) {
+    track(event.gameId(), event.at().toEpochMilli());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    event.gameIds().forEach(lastActivity::remove);
+  }
+
+  @Scheduled(fixedDelayString = "${game.reaper.tick:PT1S}")
+  public void reap() {
+    if (!enabled) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    List<UUID> idle = new ArrayList<>();
+    for (UUID gameId : wheel.advance(now)) {
+      Long last = lastActivity.get(gameId);
+      if (last == null) {
+        continue;
+      }
+      long deadline = last + idleTtlMillis;
+      if (deadline <= now) {
+        idle.add(gameId);
+      } else {
+        wheel.schedule(gameId, deadline);
+      }
+    }
+
+    Instant cutoff = Instant.ofEpochMilli(now - idleTtlMillis);
+    for (int from = 0; from < idle.size(); from += batchSize) {
+      List<UUID> batch = idle.subList(from, Math.min(from + batchSize, idle.size()));
+      List<UUID> deleted = archive
+                               ? archiveService.archiveIdleGames(batch, cutoff)
+                               : gameService.deleteIdleGames(batch, cutoff);
+      expiredGames.increment(deleted.size());
+      batch.stream()
+          .filter(gameId -> !deleted.contains(gameId))
+          .forEach(gameId -> {
+            Long last = lastActivity.get(gameId);
+            if (last != null) {
+              wheel.schedule(gameId, last + idleTtlMillis);
+            }
+          });
+    }
+  }
+
+  public int getLiveGames() {
+    return lastActivity.size();
+  }
+
+  private void track(UUID gameId, long atMillis) {
+    Long previous = lastActivity.put(gameId, atMillis);
+    if (previous == null) {
+      wheel.schedule(gameId, atMillis + idleTtlMillis);
+    }
+  }
+}
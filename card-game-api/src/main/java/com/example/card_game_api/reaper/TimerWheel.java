@@ -0,0 +1,111 @@
+/*
+ * A hashed timer wheel.
+ *
+ * Time is divided into ticks and the wheel has a power-of-two number of
+ * slots; an item due at tick t lives in slot t mod wheelSize together with
+ * its absolute deadline tick. Scheduling is O(1), and advancing the wheel
+ * only looks at the slots of the ticks that elapsed, so the cost of a tick
+ * does not depend on how many items are scheduled further ahead.
+ *
+ * Items are never cancelled: the owner re-checks whether an expired item
+ * is still relevant, which keeps scheduling free of any lookup structure.
+ *
+ * Schedule runs on request threads, so the wheel is guarded by a
+ * ReentrantLock instead of a monitor: a virtual thread waiting for it
+ * while the reaper advances the wheel parks instead of pinning its carrier.
+ */
+
+package com.example.card_game_api.reaper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TimerWheel<T> {
+
+  private final long tickMillis;
+  private final long startMillis;
+  private final int mask;
+  private final List<List<Timeout<T>>> slots;
+  private final ReentrantLock lock = new ReentrantLock();
+  private long currentTick;
+  private int size;
+
+  public TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("tickMillis must be positive");
+    }
+    int normalizedSize = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+    this.tickMillis = tickMillis;
+    this.startMillis = startMillis;
+    this.mask = normalizedSize - 1;
+    this.slots = new ArrayList<>(normalizedSize);
+    for (int i = 0; i < normalizedSize; i++) {
+      slots.add(new ArrayList<>());
+    }
+  }
+
+  public void schedule(T item, long deadlineMillis) {
+    lock.lock();
+    try {
+      long deadlineTick = Math.max(currentTick + 1, ceilDiv(deadlineMillis - startMillis, tickMillis));
+      slots.get((int) (deadlineTick & mask)).add(new Timeout<>(item, deadlineTick));
+      size++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Moves the wheel to nowMillis and returns every item whose deadline has
+   * passed. When more than a full revolution elapsed, each slot is visited
+   * once.
+   */
+  public List<T> advance(long nowMillis) {
+    lock.lock();
+    try {
+      long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+      if (targetTick <= currentTick) {
+        return List.of();
+      }
+      long steps = Math.min(targetTick - currentTick, (long) mask + 1);
+      List<T> expired = new ArrayList<>();
+      for (long i = 1; i <= steps; i++) {
+        List<Timeout<T>> slot = slots.get((int) ((currentTick + i) & mask));
+        if (slot.isEmpty()) {
+          continue;
+        }
+        List<Timeout<T>> remaining = new ArrayList<>();
+        for (Timeout<T> entry : slot) {
+          if (entry.deadlineTick() <= targetTick) {
+            expired.add(entry.item());
+          } else {
+            remaining.add(entry);
+          }
+        }
+        slot.clear();
+        slot.addAll(remaining);
+      }
+      size -= expired.size();
+      currentTick = targetTick;
+      return expired;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return -Math.floorDiv(-x, y);
+  }
+
+  private record Timeout<T>(T item, long deadlineTick) {}
+}
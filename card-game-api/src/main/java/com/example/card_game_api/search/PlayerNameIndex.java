@@ -0,0 +1,257 @@
+/*
+ * In-memory inverted index of player names, to find players (and so
+ * their games) by name without paging through every game.
+ *
+ * Names are normalized into tokens: accents stripped, lower-cased and
+ * split on anything that is not a letter or digit, so "Zoë O'Brien" is
+ * indexed as "zoe", "o" and "brien". Every prefix of every token, up to
+ * game.search.max-prefix-length characters, is a key in postings, whose
+ * value is the set of players having a token that starts with it. A
+ * query matches a player when each of its tokens is a prefix of one of
+ * the player's tokens: the lookup takes the smallest posting among the
+ * query tokens' keys and walks it, checking the remaining tokens (and the
+ * parts of tokens past the prefix length) against each entry until it
+ * has limit matches, which are returned in name order. Postings are hash
+ * sets rather than sorted sets, which makes indexing several times
+ * cheaper; the price is that when more than limit players match, which
+ * of them are returned is unspecified.
+ *
+ * The index is rebuilt from the players table at startup and then kept
+ * up to date from the game events: every mutation that creates players
+ * (adding, bulk creation, commands, undo, fork) publishes their scores,
+ * and removals and deletions publish the ids that are gone. A player's
+ * name never changes, so a player already indexed is skipped. As for the
+ * leaderboard, each player is added and removed inside
+ * ConcurrentHashMap.compute for that player, and lookups are weakly
+ * consistent with concurrent updates.
+ */
+
+package com.example.card_game_api.search;
+
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.player.PlayerName;
+import com.example.card_game_api.player.PlayerRepository;
+import com.example.card_game_api.search.dto.response.PlayerMatchResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class PlayerNameIndex {
+
+  public static final int MAX_LIMIT = 1000;
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Comparator<Entry> NAME_ORDER =
+      Comparator.comparing(Entry::sortKey).thenComparing(Entry::playerId);
+
+  private final PlayerRepository playerRepository;
+  private final int maxPrefixLength;
+  private final Map<UUID, Entry> players = new ConcurrentHashMap<>();
+  private final Map<UUID, Set<UUID>> gamePlayers = new ConcurrentHashMap<>();
+  private final Map<String, Set<Entry>> postings = new ConcurrentHashMap<>();
+
+  public PlayerNameIndex(PlayerRepository playerRepository, MeterRegistry meterRegistry,
+                         @Value("${game.search.max-prefix-length:4}") int maxPrefixLength) {
+    if (maxPrefixLength < 1) {
+      throw new IllegalArgumentException("game.search.max-prefix-length must be at least 1");
+    }
+    this.playerRepository = playerRepository;
+    this.maxPrefixLength = maxPrefixLength;
+
+    Gauge.builder("game.search.players", players, Map::size)
+        .description("Players in the name search index")
+        .register(meterRegistry);
+    Gauge.builder("game.search.keys", postings, Map::size)
+        .description("Token prefixes in the name search index")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    for (PlayerName player : playerRepository.findAllNames()) {
+      add(player.playerId(), player.gameId(), player.name());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayerScoresChanged(PlayerScoresChangedEvent event) {
+    for (PlayerScoresChangedEvent.PlayerScore score : event.scores()) {
+      add(score.playerId(), event.gameId(), score.playerName());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayersRemoved(PlayersRemovedEvent event) {
+    Set<UUID> players = gamePlayers.get(event.gameId());
+    for (UUID playerId : event.playerIds()) {
+      remove(playerId);
+      if (players != null) {
+        players.remove(playerId);
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    for (UUID gameId : event.gameIds()) {
+      Set<UUID> players = gamePlayers.remove(gameId);
+      if (players != null) {
+        players.forEach(this::remove);
+      }
+    }
+  }
+
+  // Up to limit players, in name order, whose name matches every token of the query
+  public List<PlayerMatchResponse> search(String query, int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    List<String> terms = tokens(query);
+    if (terms.isEmpty()) {
+      throw new IllegalArgumentException("name must contain at least one letter or digit");
+    }
+
+    Set<Entry> smallest = null;
+    for (String term : terms) {
+      Set<Entry> posting = postings.get(key(term));
+      if (posting == null) {
+        return List.of();
+      }
+      if (smallest == null || posting.size() < smallest.size()) {
+        smallest = posting;
+      }
+    }
+    List<Entry> matches = new ArrayList<>(Math.min(limit, smallest.size()));
+    for (Entry entry : smallest) {
+      if (entry.matches(terms)) {
+        matches.add(entry);
+        if (matches.size() == limit) {
+          break;
+        }
+      }
+    }
+    matches.sort(NAME_ORDER);
+    return matches.stream()
+               .map(entry -> new PlayerMatchResponse(entry.playerId(), entry.name(), entry.gameId()))
+               .collect(Collectors.toList());
+  }
+
+  public int size() {
+    return players.size();
+  }
+
+  static List<String> tokens(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+    List<String> tokens = new ArrayList<>();
+    for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  private void add(UUID playerId, UUID gameId, String name) {
+    // Score events repeat the players of every deal; names never change
+    if (players.containsKey(playerId)) {
+      return;
+    }
+    List<String> tokens = tokens(name);
+    if (tokens.isEmpty()) {
+      return;
+    }
+    players.computeIfAbsent(playerId, id -> {
+      Entry entry = new Entry(playerId, gameId, name, String.join(" ", tokens), tokens);
+      for (String key : keys(tokens)) {
+        postings.compute(key, (k, posting) -> {
+          Set<Entry> updated = posting != null ? posting : ConcurrentHashMap.newKeySet();
+          updated.add(entry);
+          return updated;
+        });
+      }
+      return entry;
+    });
+    gamePlayers.computeIfAbsent(gameId, id -> ConcurrentHashMap.newKeySet()).add(playerId);
+  }
+
+  private void remove(UUID playerId) {
+    players.computeIfPresent(playerId, (id, entry) -> {
+      for (String key : keys(entry.tokens())) {
+        postings.computeIfPresent(key, (k, posting) -> {
+          posting.remove(entry);
+          return posting.isEmpty() ? null : posting;
+        });
+      }
+      return null;
+    });
+  }
+
+  private Set<String> keys(List<String> tokens) {
+    Set<String> keys = new LinkedHashSet<>();
+    for (String token : tokens) {
+      int length = Math.min(token.length(), maxPrefixLength);
+      for (int end = 1; end <= length; end++) {
+        keys.add(token.substring(0, end));
+      }
+    }
+    return keys;
+  }
+
+  private String key(String term) {
+    return term.length() > maxPrefixLength ? term.substring(0, maxPrefixLength) : term;
+  }
+
+  // Equal by player id alone, so postings hash the id rather than the token list
+  private record Entry(UUID playerId, UUID gameId, String name, String sortKey, List<String> tokens) {
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Entry other && playerId.equals(other.playerId);
+    }
+
+    @Override
+    public int hashCode() {
+      return playerId.hashCode();
+    }
+
+    boolean matches(List<String> terms) {
+      for (String term : terms) {
+        boolean found = false;
+        for (String token : tokens) {
+          if (token.startsWith(term)) {
+            found = true;
+            break;
+          }
+        }
+        if (!found) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
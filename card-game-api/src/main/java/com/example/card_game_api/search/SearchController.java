@@ -0,0 +1,34 @@
+package com.example.card_game_api.search;
+
+import com.example.card_game_api.search.dto.response.PlayerMatchResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+  private final PlayerNameIndex playerNameIndex;
+
+  public SearchController(PlayerNameIndex playerNameIndex) {
+    this.playerNameIndex = playerNameIndex;
+  }
+
+  @GetMapping("/players")
+  @Operation(summary = "Find players, and the games they are in, by name or name prefixes")
+  public List<PlayerMatchResponse> searchPlayers(@RequestParam String name,
+                                                 @RequestParam(defaultValue = "20") int limit) {
+    return playerNameIndex.search(name, limit);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.card_game_api.search.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class PlayerMatchResponse {
+  private UUID playerId;
+  private String playerName;
+  private UUID gameId;
+}
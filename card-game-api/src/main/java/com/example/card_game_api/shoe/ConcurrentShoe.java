@@ -0,0 +1,85 @@
+/*
+ * A fixed shoe that many threads deal from at once without a lock.
+ *
+ * The cards are card codes in a primitive array (see CardCodes), top of
+ * the shoe first, and never change after construction. The only shared
+ * mutable state is next, the position of the next undealt card: a draw
+ * claims the positions [from, from + count) by compare-and-swap of next
+ * from from to from + count, retrying when another draw got there first.
+ * A successful CAS hands those positions to exactly one draw, so no card
+ * can be dealt twice, and positions are only ever claimed in order from
+ * the top, so none can be skipped. Reading the claimed cards needs no
+ * synchronization at all, since the array is never written again.
+ *
+ * There is no discard pile and no recycling: once next reaches the end a
+ * draw claims nothing.
+ */
+
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ConcurrentShoe {
+
+  private final byte[] cards;
+  private final AtomicInteger next = new AtomicInteger();
+
+  // Takes ownership of cards
+  public ConcurrentShoe(byte[] cards) {
+    this.cards = cards;
+  }
+
+  /*
+   * Claims up to amount cards from the top of the shoe, fewer when the
+   * shoe runs out; the claim is empty when it is already empty or amount
+   * is not positive.
+   */
+  public Claim claim(int amount) {
+    while (true) {
+      int from = next.get();
+      int count = Math.min(Math.max(amount, 0), cards.length - from);
+      if (count == 0) {
+        return new Claim(from, 0);
+      }
+      if (next.compareAndSet(from, from + count)) {
+        return new Claim(from, count);
+      }
+    }
+  }
+
+  public int capacity() {
+    return cards.length;
+  }
+
+  public int claimed() {
+    return next.get();
+  }
+
+  public int size() {
+    return cards.length - next.get();
+  }
+
+  public int code(int position) {
+    return cards[position];
+  }
+
+  public List<Card> cards(Claim claim) {
+    List<Card> claimed = new ArrayList<>(claim.count());
+    for (int position = claim.from(); position < claim.to(); position++) {
+      claimed.add(CardCodes.fromCode(cards[position]));
+    }
+    return claimed;
+  }
+
+  public record Claim(int from, int count) {
+
+    public int to() {
+      return from + count;
+    }
+  }
+}
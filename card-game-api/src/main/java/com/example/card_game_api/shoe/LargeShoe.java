@@ -0,0 +1,421 @@
+/*
+ * A shoe of card codes kept in a memory-mapped file instead of the heap.
+ *
+ * Layout of the file:
+ *   [0, 8)            number of undealt cards
+ *   [8, 424)          undealt count per card code (52 longs)
+ *   [424, 840)        discarded count per card code (52 longs)
+ *   [840, 840 + n)    the undealt cards, one code byte each (see CardCodes)
+ *
+ * The top of the shoe is the last undealt byte, so dealing is a read and a
+ * decrement, and added decks go on top. Shuffling is Fisher-Yates over the
+ * mapped bytes. Discards are only counted, since their order never
+ * matters: recycling appends each discarded card and swaps it with a
+ * uniformly random position, which is the same as inserting it there.
+ * The per-code counts make suit counts and the sorted view of the undealt
+ * cards O(52), so a page of the sorted view never reads the cards.
+ *
+ * Heap use is the same whatever the shoe size; the file grows by doubling
+ * its mapping. Every operation holds the shoe's lock, so concurrent
+ * requests on one game see whole operations.
+ *
+ * Between begin() and commit() or rollback() one thread owns the shoe and
+ * every change it makes is journaled with its inverse, so rollback() puts
+ * the file back as it was at begin(). The swap positions of a shuffle or
+ * recycle are a hash of a seed and the position, so undoing one only
+ * replays its swaps in reverse instead of remembering them.
+ */
+
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import com.example.card_game_api.card.Suit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LargeShoe implements Closeable {
+
+  public static final int MAX_CARDS = Integer.MAX_VALUE - 1024;
+
+  private static final int SIZE_OFFSET = 0;
+  private static final int UNDEALT_COUNTS_OFFSET = 8;
+  private static final int DISCARD_COUNTS_OFFSET = UNDEALT_COUNTS_OFFSET + CardCodes.CARD_COUNT * 8;
+  private static final int CARDS_OFFSET = DISCARD_COUNTS_OFFSET + CardCodes.CARD_COUNT * 8;
+  private static final int INITIAL_CAPACITY = 64 * CardCodes.CARD_COUNT;
+  private static final int RANKS = 13;
+
+  private final FileChannel channel;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ReentrantLock owner = new ReentrantLock();
+  private final Deque<Runnable> journal = new ArrayDeque<>();
+  private MappedByteBuffer buffer;
+  private int capacity;
+
+  private LargeShoe(FileChannel channel) throws IOException {
+    this.channel = channel;
+    long existing = channel.size() - CARDS_OFFSET;
+    map((int) Math.max(existing, INITIAL_CAPACITY));
+  }
+
+  public static LargeShoe open(Path file) {
+    try {
+      return new LargeShoe(FileChannel.open(file,
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open shoe file " + file, e);
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return (int) buffer.getLong(SIZE_OFFSET);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long discardedCount() {
+    lock.lock();
+    try {
+      long total = 0;
+      for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+        total += discarded(code);
+      }
+      return total;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void addDecks(int decks) {
+    lock.lock();
+    try {
+      int size = sizeUnlocked();
+      long newSize = size + (long) decks * CardCodes.CARD_COUNT;
+      if (decks < 1 || newSize > MAX_CARDS) {
+        throw new IllegalArgumentException("A large shoe holds at most " + MAX_CARDS + " cards");
+      }
+      ensureCapacity((int) newSize);
+      int position = size;
+      for (int deck = 0; deck < decks; deck++) {
+        for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+          buffer.put(CARDS_OFFSET + position++, (byte) code);
+        }
+      }
+      for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+        addUndealt(code, decks);
+      }
+      setSize(position);
+      record(() -> {
+        for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+          addUndealt(code, -decks);
+        }
+        setSize(size);
+      });
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void shuffle(Random random) {
+    long seed = random.nextLong();
+    lock.lock();
+    try {
+      int size = sizeUnlocked();
+      for (int i = size - 1; i > 0; i--) {
+        swap(i, swapPosition(seed, i));
+      }
+      record(() -> {
+        for (int i = 1; i < size; i++) {
+          swap(i, swapPosition(seed, i));
+        }
+      });
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public List<Card> deal(int amount) {
+    lock.lock();
+    try {
+      int size = sizeUnlocked();
+      int dealt = Math.min(Math.max(amount, 0), size);
+      List<Card> cards = new ArrayList<>(dealt);
+      byte[] codes = new byte[dealt];
+      for (int i = 0; i < dealt; i++) {
+        codes[i] = buffer.get(CARDS_OFFSET + --size);
+        addUndealt(codes[i], -1);
+        cards.add(CardCodes.fromCode(codes[i]));
+      }
+      setSize(size);
+      int top = size;
+      record(() -> {
+        for (int i = 0; i < codes.length; i++) {
+          buffer.put(CARDS_OFFSET + top + codes.length - 1 - i, codes[i]);
+          addUndealt(codes[i], 1);
+        }
+        setSize(top + codes.length);
+      });
+      return cards;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void discard(Collection<Card> cards) {
+    lock.lock();
+    try {
+      int[] codes = cards.stream().mapToInt(CardCodes::code).toArray();
+      for (int code : codes) {
+        addDiscarded(code, 1);
+      }
+      record(() -> {
+        for (int code : codes) {
+          addDiscarded(code, -1);
+        }
+      });
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Puts every discarded card back at a uniformly random position of the
+   * undealt cards and returns how many were recycled.
+   */
+  public long recycleDiscards(Random random) {
+    long seed = random.nextLong();
+    lock.lock();
+    try {
+      int size = sizeUnlocked();
+      long recycled = 0;
+      long[] counts = new long[CardCodes.CARD_COUNT];
+      for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+        counts[code] = discarded(code);
+        recycled += counts[code];
+      }
+      if (recycled == 0) {
+        return 0;
+      }
+      if (size + recycled > MAX_CARDS) {
+        throw new IllegalStateException("Recycling would exceed the large shoe capacity");
+      }
+      ensureCapacity((int) (size + recycled));
+      int start = size;
+      for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+        for (long i = 0; i < counts[code]; i++) {
+          buffer.put(CARDS_OFFSET + size, (byte) code);
+          swap(size, swapPosition(seed, size));
+          size++;
+        }
+        addUndealt(code, counts[code]);
+        addDiscarded(code, -counts[code]);
+      }
+      setSize(size);
+      int end = size;
+      record(() -> {
+        for (int i = end - 1; i >= start; i--) {
+          swap(i, swapPosition(seed, i));
+        }
+        for (int code = 0; code < CardCodes.CARD_COUNT; code++) {
+          addUndealt(code, -counts[code]);
+          addDiscarded(code, counts[code]);
+        }
+        setSize(start);
+      });
+      return recycled;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long suitCount(Suit suit) {
+    lock.lock();
+    try {
+      long total = 0;
+      for (int rank = 0; rank < RANKS; rank++) {
+        total += undealt(suit.ordinal() * RANKS + rank);
+      }
+      return total;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * A page of the undealt cards sorted by suit, then rank from highest to
+   * lowest, built from the per-code counts.
+   */
+  public List<Card> sortedCards(long offset, int limit) {
+    lock.lock();
+    try {
+      List<Card> page = new ArrayList<>();
+      long skip = offset;
+      for (int suit = 0; suit < Suit.values().length && page.size() < limit; suit++) {
+        for (int rank = RANKS - 1; rank >= 0 && page.size() < limit; rank--) {
+          int code = suit * RANKS + rank;
+          long count = undealt(code);
+          if (skip >= count) {
+            skip -= count;
+            continue;
+          }
+          long take = Math.min(count - skip, limit - page.size());
+          skip = 0;
+          Card card = CardCodes.fromCode(code);
+          for (long i = 0; i < take; i++) {
+            page.add(card);
+          }
+        }
+      }
+      return page;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Makes the calling thread the owner of the shoe and starts journaling
+   * its changes; false when another thread still owns it after the
+   * timeout. A thread that already owns the shoe keeps its journal.
+   */
+  public boolean begin(long timeout, TimeUnit unit) throws InterruptedException {
+    if (!owner.tryLock(timeout, unit)) {
+      return false;
+    }
+    if (owner.getHoldCount() > 1) {
+      owner.unlock();
+    }
+    return true;
+  }
+
+  public void commit() {
+    lock.lock();
+    try {
+      journal.clear();
+    } finally {
+      lock.unlock();
+      owner.unlock();
+    }
+  }
+
+  /*
+   * Undoes the changes made since begin(), newest first.
+   */
+  public void rollback() {
+    lock.lock();
+    try {
+      if (channel.isOpen()) {
+        while (!journal.isEmpty()) {
+          journal.pop().run();
+        }
+      }
+      journal.clear();
+    } finally {
+      lock.unlock();
+      owner.unlock();
+    }
+  }
+
+  /*
+   * Waits for the owner to finish, then closes the file. The mapping is
+   * not unmapped explicitly: a request still holding the shoe keeps a
+   * valid buffer, and the mapping is released once the shoe is garbage
+   * collected.
+   */
+  @Override
+  public void close() {
+    owner.lock();
+    lock.lock();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      lock.unlock();
+      owner.unlock();
+    }
+  }
+
+  private int sizeUnlocked() {
+    return (int) buffer.getLong(SIZE_OFFSET);
+  }
+
+  private void setSize(int size) {
+    buffer.putLong(SIZE_OFFSET, size);
+  }
+
+  private long undealt(int code) {
+    return buffer.getLong(UNDEALT_COUNTS_OFFSET + code * 8);
+  }
+
+  private void addUndealt(int code, long delta) {
+    int offset = UNDEALT_COUNTS_OFFSET + code * 8;
+    buffer.putLong(offset, buffer.getLong(offset) + delta);
+  }
+
+  private long discarded(int code) {
+    return buffer.getLong(DISCARD_COUNTS_OFFSET + code * 8);
+  }
+
+  private void addDiscarded(int code, long delta) {
+    int offset = DISCARD_COUNTS_OFFSET + code * 8;
+    buffer.putLong(offset, buffer.getLong(offset) + delta);
+  }
+
+  private void record(Runnable undo) {
+    if (owner.isHeldByCurrentThread()) {
+      journal.push(undo);
+    }
+  }
+
+  /*
+   * The position in [0, i] that position i is swapped with, from a
+   * SplitMix64 hash of the seed and i.
+   */
+  private static int swapPosition(long seed, int i) {
+    long z = seed + (i + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z = z ^ (z >>> 31);
+    return (int) Math.floorMod(z, (long) i + 1);
+  }
+
+  private void swap(int i, int j) {
+    byte a = buffer.get(CARDS_OFFSET + i);
+    buffer.put(CARDS_OFFSET + i, buffer.get(CARDS_OFFSET + j));
+    buffer.put(CARDS_OFFSET + j, a);
+  }
+
+  private void ensureCapacity(int cards) {
+    if (cards <= capacity) {
+      return;
+    }
+    long grown = Math.max(cards, Math.min((long) capacity * 2, MAX_CARDS));
+    try {
+      map((int) grown);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not grow shoe file", e);
+    }
+  }
+
+  private void map(int cards) throws IOException {
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) CARDS_OFFSET + cards);
+    capacity = cards;
+  }
+}
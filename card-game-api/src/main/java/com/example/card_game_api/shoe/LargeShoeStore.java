@@ -0,0 +1,208 @@
+/*
+ * Owns the memory-mapped files of large-shoe games, one file per game,
+ * named after the game id.
+ *
+ * Each instance keeps its files in its own directory under
+ * game.large-shoe.directory: the first instance-N directory whose .lock
+ * file it can lock, held until shutdown. Instances sharing a host (and a
+ * temp directory) therefore never see each other's files, and a restarted
+ * instance takes over a directory left by one that stopped.
+ *
+ * A shoe's file is created with its game (create()), and opened on first
+ * use after that. It stays open until the game is deleted, when the file
+ * is closed and removed in the same step, so a lookup racing the deletion
+ * finds no shoe rather than re-creating the file. Files in the claimed
+ * directory left behind by games that no longer exist (e.g. after a
+ * restart of the in-memory database) are removed at startup.
+ *
+ * shoeForUpdate() ties a shoe to the current transaction: the transaction
+ * owns the shoe until it completes, and a rollback undoes every change it
+ * made to the file (see LargeShoe.begin()), so a failed command batch
+ * puts the dealt cards back like it does for a heap shoe. Another
+ * transaction that wants to change the same shoe waits for it, up to
+ * game.large-shoe.lock-timeout, and then fails with a conflict. Reads
+ * through shoe() do not wait.
+ */
+
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LargeShoeStore {
+
+  private static final String SUFFIX = ".shoe";
+  private static final String INSTANCE_PREFIX = "instance-";
+  private static final String LOCK_FILE = ".lock";
+
+  private final GameRepository gameRepository;
+  private final Path directory;
+  private final Duration lockTimeout;
+  private final Map<UUID, LargeShoe> shoes = new ConcurrentHashMap<>();
+  private FileLock instanceLock;
+
+  public LargeShoeStore(GameRepository gameRepository,
+                        @Value("${game.large-shoe.directory:${java.io.tmpdir}/card-game-shoes}") Path directory,
+                        @Value("${game.large-shoe.lock-timeout:10s}") Duration lockTimeout) {
+    this.gameRepository = gameRepository;
+    this.directory = claimDirectory(directory);
+    this.lockTimeout = lockTimeout;
+  }
+
+  public LargeShoe create(UUID gameId) {
+    LargeShoe shoe = shoes.computeIfAbsent(gameId, id -> LargeShoe.open(file(id)));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status != STATUS_COMMITTED) {
+            delete(gameId);
+          }
+        }
+      });
+    }
+    return shoe;
+  }
+
+  public Optional<LargeShoe> find(UUID gameId) {
+    return Optional.ofNullable(shoes.computeIfAbsent(gameId,
+        id -> Files.exists(file(id)) ? LargeShoe.open(file(id)) : null));
+  }
+
+  public LargeShoe shoe(UUID gameId) {
+    return find(gameId).orElseThrow(() -> new NoSuchElementException("Game not found"));
+  }
+
+  public LargeShoe shoeForUpdate(UUID gameId) {
+    LargeShoe shoe = shoe(gameId);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()
+        || TransactionSynchronizationManager.hasResource(shoe)) {
+      return shoe;
+    }
+    try {
+      if (!shoe.begin(lockTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new CannotAcquireLockException("The large shoe of game " + gameId + " is in use by another request");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CannotAcquireLockException("Interrupted while waiting for the large shoe of game " + gameId, e);
+    }
+    TransactionSynchronizationManager.bindResource(shoe, gameId);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(shoe);
+        if (status == STATUS_COMMITTED) {
+          shoe.commit();
+        } else {
+          shoe.rollback();
+        }
+      }
+    });
+    return shoe;
+  }
+
+  public int openShoes() {
+    return shoes.size();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    event.gameIds().forEach(this::delete);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void deleteOrphanedShoes() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        UUID gameId;
+        try {
+          gameId = UUID.fromString(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        if (!gameRepository.existsById(gameId)) {
+          delete(gameId);
+        }
+      }
+    }
+  }
+
+  @PreDestroy
+  public void close() throws IOException {
+    shoes.values().forEach(LargeShoe::close);
+    shoes.clear();
+    instanceLock.channel().close();
+  }
+
+  private Path claimDirectory(Path root) {
+    try {
+      for (int instance = 0; ; instance++) {
+        Path candidate = root.resolve(INSTANCE_PREFIX + instance);
+        Files.createDirectories(candidate);
+        FileChannel channel = FileChannel.open(candidate.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        try {
+          instanceLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+          // Claimed by another store in this JVM
+        }
+        if (instanceLock != null) {
+          return candidate;
+        }
+        channel.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not claim a shoe directory under " + root, e);
+    }
+  }
+
+  private void delete(UUID gameId) {
+    shoes.compute(gameId, (id, shoe) -> {
+      if (shoe != null) {
+        shoe.close();
+      }
+      try {
+        Files.deleteIfExists(file(id));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not delete shoe file for game " + id, e);
+      }
+      return null;
+    });
+  }
+
+  private Path file(UUID gameId) {
+    return directory.resolve(gameId + SUFFIX);
+  }
+}
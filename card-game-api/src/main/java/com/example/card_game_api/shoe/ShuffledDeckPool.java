@@ -0,0 +1,124 @@
+/*
+ * A bounded pool of ready, uniformly shuffled shoes of 1 to
+ * game.shuffle-pool.max-decks standard decks.
+ *
+ * Each shoe is kept in compact form, one card code byte per card (see
+ * CardCodes), in a queue per deck count holding at most
+ * game.shuffle-pool.size shoes. A scheduled refill runs every
+ * game.shuffle-pool.refill-interval and shuffles at most
+ * game.shuffle-pool.refill-batch new shoes, going round the deck counts so
+ * a busy deck count does not starve the others.
+ *
+ * take(decks) hands out a pooled shoe, which is removed so no permutation
+ * is ever dealt twice, or shuffles one inline when the pool for that deck
+ * count is empty or the deck count is not pooled. Every shoe is a
+ * Fisher-Yates shuffle of its own, so a pooled shoe is exactly as random
+ * as an inline one. Pool depth, hits and misses are exposed as
+ * game.shuffle-pool.* metrics.
+ *
+ * The pool is never created lazily, so its refill schedule always starts.
+ */
+
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.CardCodes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@Lazy(false)
+public class ShuffledDeckPool {
+
+  private final int maxDecks;
+  private final int refillBatch;
+  private final ArrayBlockingQueue<byte[]>[] pools;
+  private final Counter hits;
+  private final Counter misses;
+
+  @SuppressWarnings("unchecked")
+  public ShuffledDeckPool(MeterRegistry meterRegistry,
+                          @Value("${game.shuffle-pool.size:32}") int size,
+                          @Value("${game.shuffle-pool.max-decks:8}") int maxDecks,
+                          @Value("${game.shuffle-pool.refill-batch:64}") int refillBatch) {
+    this.maxDecks = size > 0 ? maxDecks : 0;
+    this.refillBatch = refillBatch;
+    this.pools = new ArrayBlockingQueue[this.maxDecks + 1];
+    for (int decks = 1; decks <= this.maxDecks; decks++) {
+      pools[decks] = new ArrayBlockingQueue<>(size);
+    }
+
+    Gauge.builder("game.shuffle-pool.depth", this, ShuffledDeckPool::depth)
+        .description("Pre-shuffled shoes ready in the pool")
+        .register(meterRegistry);
+    this.hits = Counter.builder("game.shuffle-pool.hits")
+                    .description("Shoes taken from the pool")
+                    .register(meterRegistry);
+    this.misses = Counter.builder("game.shuffle-pool.misses")
+                      .description("Shoes shuffled inline because the pool had none ready")
+                      .register(meterRegistry);
+  }
+
+  /*
+   * Returns the card codes of a shuffled shoe of the given number of
+   * decks; the top of the shoe is the first byte.
+   */
+  public byte[] take(int decks) {
+    if (decks < 1) {
+      throw new IllegalArgumentException("decks must be at least 1");
+    }
+    byte[] shoe = decks <= maxDecks ? pools[decks].poll() : null;
+    if (shoe != null) {
+      hits.increment();
+      return shoe;
+    }
+    misses.increment();
+    return shuffled(decks, ThreadLocalRandom.current());
+  }
+
+  @Scheduled(fixedDelayString = "${game.shuffle-pool.refill-interval:PT0.1S}")
+  public void refill() {
+    Random random = ThreadLocalRandom.current();
+    int budget = refillBatch;
+    boolean added = true;
+    while (budget > 0 && added) {
+      added = false;
+      for (int decks = 1; decks <= maxDecks && budget > 0; decks++) {
+        if (pools[decks].remainingCapacity() > 0 && pools[decks].offer(shuffled(decks, random))) {
+          budget--;
+          added = true;
+        }
+      }
+    }
+  }
+
+  public int depth() {
+    int depth = 0;
+    for (int decks = 1; decks <= maxDecks; decks++) {
+      depth += pools[decks].size();
+    }
+    return depth;
+  }
+
+  static byte[] shuffled(int decks, Random random) {
+    byte[] shoe = new byte[decks * CardCodes.CARD_COUNT];
+    for (int i = 0; i < shoe.length; i++) {
+      shoe[i] = (byte) (i % CardCodes.CARD_COUNT);
+    }
+    for (int i = shoe.length - 1; i > 0; i--) {
+      int index = random.nextInt(i + 1);
+      byte card = shoe[index];
+      shoe[index] = shoe[i];
+      shoe[i] = card;
+    }
+    return shoe;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Events per second over a sliding window of one-second slots.
+ *
+ * Each slot holds the second it counts and its count. Recording into a
+ * slot that still holds an older second claims it with a CAS and resets
+ * its count, so the rate is approximate: an event recorded by another
+ * thread at the very moment a slot turns over can be lost. The current,
+ * partial second is left out of the rate.
+ */
+
+package com.example.card_game_api.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class EventRate {
+
+  private final int windowSeconds;
+  private final AtomicLongArray seconds;
+  private final AtomicLongArray counts;
+
+  public EventRate(int windowSeconds) {
+    this.windowSeconds = windowSeconds;
+    this.seconds = new AtomicLongArray(windowSeconds + 1);
+    this.counts = new AtomicLongArray(windowSeconds + 1);
+  }
+
+  public void record(long count, long nowMillis) {
+    long second = nowMillis / 1000;
+    int slot = (int) (second % seconds.length());
+    long slotSecond = seconds.get(slot);
+    if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+      counts.set(slot, 0);
+    }
+    counts.addAndGet(slot, count);
+  }
+
+  public double perSecond(long nowMillis) {
+    long currentSecond = nowMillis / 1000;
+    long total = 0;
+    for (int slot = 0; slot < seconds.length(); slot++) {
+      long age = currentSecond - seconds.get(slot);
+      if (age >= 1 && age <= windowSeconds) {
+        total += counts.get(slot);
+      }
+    }
+    return (double) total / windowSeconds;
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Live aggregates across all games, maintained from the game events so
+ * that reading them never touches the database:
+ *  - cardsDealt: cards dealt per card code, one LongAdder each, summed
+ *    per suit and per rank on read
+ *  - deals and dealRate: number of deals, and deals per second over the
+ *    last RATE_WINDOW_SECONDS (see EventRate)
+ *  - shoes and shoeSizes: the undealt card count of each game, and a
+ *    histogram of those counts
+ *  - hands and handValueSum: the hand value of each player and their sum,
+ *    for the average hand value
+ *
+ * Shoe and hand updates carry the game version and, as in the
+ * leaderboard, run inside ConcurrentHashMap.compute for their key, so an
+ * event older than the state it would replace is ignored and the
+ * histogram and sum move by exact deltas. snapshot() reads a fixed number
+ * of counters whatever the number of games.
+ *
+ * Shoe sizes and hand values can be rebuilt from the database (see
+ * StatsReconciler); cards dealt and deal rates are flows that the
+ * database does not record, so they only count since startup.
+ */
+
+package com.example.card_game_api.stats;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import com.example.card_game_api.card.Rank;
+import com.example.card_game_api.card.Suit;
+import com.example.card_game_api.game.event.CardsDealtEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.game.event.ShoeSizeChangedEvent;
+import com.example.card_game_api.stats.dto.response.ShoeSizeBucketResponse;
+import com.example.card_game_api.stats.dto.response.StatsResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class GameStatistics {
+
+  public static final int RATE_WINDOW_SECONDS = 60;
+
+  // Empty, then up to 1, 2, 4, 8 and 16 decks
+  private static final long[] SHOE_SIZE_BOUNDS = {0, 52, 104, 208, 416, 832};
+
+  private final LongAdder[] cardsDealt = new LongAdder[CardCodes.CARD_COUNT];
+  private final LongAdder deals = new LongAdder();
+  private final EventRate dealRate = new EventRate(RATE_WINDOW_SECONDS);
+  private final Map<UUID, ShoeSize> shoes = new ConcurrentHashMap<>();
+  private final Histogram shoeSizes = new Histogram(SHOE_SIZE_BOUNDS);
+  private final Map<UUID, HandValue> hands = new ConcurrentHashMap<>();
+  private final LongAdder handValueSum = new LongAdder();
+  private final Map<UUID, Set<UUID>> gamePlayers = new ConcurrentHashMap<>();
+
+  public GameStatistics() {
+    for (int code = 0; code < cardsDealt.length; code++) {
+      cardsDealt[code] = new LongAdder();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCardsDealt(CardsDealtEvent event) {
+    for (Card card : event.cards()) {
+      cardsDealt[CardCodes.code(card)].increment();
+    }
+    deals.increment();
+    dealRate.record(1, System.currentTimeMillis());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onShoeSizeChanged(ShoeSizeChangedEvent event) {
+    updateShoe(event.gameId(), new ShoeSize(event.version(), event.size(), System.nanoTime()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayerScoresChanged(PlayerScoresChangedEvent event) {
+    long now = System.nanoTime();
+    for (PlayerScoresChangedEvent.PlayerScore score : event.scores()) {
+      updateHand(score.playerId(), new HandValue(event.gameId(), event.version(), score.totalValue(), now));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPlayersRemoved(PlayersRemovedEvent event) {
+    event.playerIds().forEach(playerId -> removeHand(playerId, Long.MAX_VALUE));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    for (UUID gameId : event.gameIds()) {
+      removeShoe(gameId, Long.MAX_VALUE);
+      Set<UUID> players = gamePlayers.remove(gameId);
+      if (players != null) {
+        players.forEach(playerId -> removeHand(playerId, Long.MAX_VALUE));
+      }
+    }
+  }
+
+  public StatsResponse snapshot() {
+    Map<Suit, Long> bySuit = new EnumMap<>(Suit.class);
+    Map<Rank, Long> byRank = new EnumMap<>(Rank.class);
+    long totalCards = 0;
+    for (int code = 0; code < cardsDealt.length; code++) {
+      long count = cardsDealt[code].sum();
+      bySuit.merge(CardCodes.suitOf(code), count, Long::sum);
+      byRank.merge(CardCodes.rankOf(code), count, Long::sum);
+      totalCards += count;
+    }
+
+    long[] bounds = shoeSizes.upperBounds();
+    long[] counts = shoeSizes.counts();
+    List<ShoeSizeBucketResponse> buckets = new ArrayList<>(counts.length);
+    for (int i = 0; i < counts.length; i++) {
+      buckets.add(new ShoeSizeBucketResponse(i < bounds.length ? bounds[i] : null, counts[i]));
+    }
+
+    int players = hands.size();
+    return new StatsResponse(
+        totalCards,
+        bySuit,
+        byRank,
+        deals.sum(),
+        dealRate.perSecond(System.currentTimeMillis()),
+        shoes.size(),
+        buckets,
+        players,
+        players == 0 ? 0 : (double) handValueSum.sum() / players
+    );
+  }
+
+  /*
+   * Merges shoe sizes and hand values recomputed from the database. An
+   * entry replaces the live one unless the live one is from a newer
+   * version, and live entries missing from the database are dropped
+   * unless they changed after the recompute started (e.g. a game created
+   * while it ran).
+   */
+  void reconcile(Map<UUID, ShoeSize> storedShoes, Map<UUID, HandValue> storedHands, long startedAtNanos) {
+    storedShoes.forEach(this::updateShoe);
+    storedHands.forEach(this::updateHand);
+    for (UUID gameId : shoes.keySet()) {
+      if (!storedShoes.containsKey(gameId)) {
+        removeShoe(gameId, startedAtNanos);
+      }
+    }
+    for (UUID playerId : hands.keySet()) {
+      if (!storedHands.containsKey(playerId)) {
+        removeHand(playerId, startedAtNanos);
+      }
+    }
+  }
+
+  private void updateShoe(UUID gameId, ShoeSize next) {
+    shoes.compute(gameId, (id, current) -> {
+      if (current != null) {
+        if (next.version() < current.version()) {
+          return current;
+        }
+        shoeSizes.add(current.size(), -1);
+      }
+      shoeSizes.add(next.size(), 1);
+      return next;
+    });
+  }
+
+  private void removeShoe(UUID gameId, long changedBeforeNanos) {
+    shoes.computeIfPresent(gameId, (id, current) -> {
+      if (current.updatedAtNanos() >= changedBeforeNanos) {
+        return current;
+      }
+      shoeSizes.add(current.size(), -1);
+      return null;
+    });
+  }
+
+  private void updateHand(UUID playerId, HandValue next) {
+    hands.compute(playerId, (id, current) -> {
+      if (current != null) {
+        if (next.version() < current.version()) {
+          return current;
+        }
+        handValueSum.add(-current.value());
+      }
+      handValueSum.add(next.value());
+      return next;
+    });
+    gamePlayers.computeIfAbsent(next.gameId(), gameId -> ConcurrentHashMap.newKeySet()).add(playerId);
+  }
+
+  private void removeHand(UUID playerId, long changedBeforeNanos) {
+    hands.computeIfPresent(playerId, (id, current) -> {
+      if (current.updatedAtNanos() >= changedBeforeNanos) {
+        return current;
+      }
+      handValueSum.add(-current.value());
+      Set<UUID> players = gamePlayers.get(current.gameId());
+      if (players != null) {
+        players.remove(playerId);
+      }
+      return null;
+    });
+  }
+
+  record ShoeSize(long version, int size, long updatedAtNanos) {}
+
+  record HandValue(UUID gameId, long version, int value, long updatedAtNanos) {
+
+    HandValue plus(HandValue other) {
+      return new HandValue(gameId, version, value + other.value, updatedAtNanos);
+    }
+  }
+}
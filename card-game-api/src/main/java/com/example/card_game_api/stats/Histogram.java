@@ -0,0 +1,42 @@
+/*
+ * Counts of values per bucket, with fixed inclusive upper bounds. Values
+ * above the last bound go into an overflow bucket. Each bucket is a
+ * LongAdder, so concurrent updates to the same bucket do not contend.
+ */
+
+package com.example.card_game_api.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Histogram {
+
+  private final long[] upperBounds;
+  private final LongAdder[] counts;
+
+  public Histogram(long... upperBounds) {
+    this.upperBounds = upperBounds.clone();
+    this.counts = new LongAdder[upperBounds.length + 1];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  public void add(long value, long delta) {
+    counts[bucketOf(value)].add(delta);
+  }
+
+  public long[] upperBounds() {
+    return upperBounds.clone();
+  }
+
+  // One count per upper bound, then the overflow bucket
+  public long[] counts() {
+    return Arrays.stream(counts).mapToLong(LongAdder::sum).toArray();
+  }
+
+  private int bucketOf(long value) {
+    int index = Arrays.binarySearch(upperBounds, value);
+    return index >= 0 ? index : -index - 1;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.card_game_api.stats;
+
+import com.example.card_game_api.stats.dto.response.StatsResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+  private final GameStatistics statistics;
+  private final StatsReconciler reconciler;
+
+  public StatsController(GameStatistics statistics, StatsReconciler reconciler) {
+    this.statistics = statistics;
+    this.reconciler = reconciler;
+  }
+
+  @GetMapping
+  @Operation(summary = "Get live statistics across all games")
+  public StatsResponse getStats() {
+    return statistics.snapshot();
+  }
+
+  @PostMapping("/reconcile")
+  @Operation(summary = "Recompute shoe sizes and hand values from the database")
+  public StatsResponse reconcile() {
+    return reconciler.reconcile();
+  }
+}
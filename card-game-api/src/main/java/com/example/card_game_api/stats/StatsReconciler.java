@@ -0,0 +1,83 @@
+/*
+ * Recomputes the shoe sizes and hand values of GameStatistics from the
+ * database, to correct any drift in the event-fed aggregates, and once at
+ * startup for games that already exist.
+ *
+ * Two projection queries read every game's undealt card count and every
+ * card in every hand; the per-game and per-player aggregation then runs
+ * as parallel streams over those rows before being merged into the live
+ * statistics.
+ */
+
+package com.example.card_game_api.stats;
+
+import com.example.card_game_api.card.Rank;
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.GameShoeSize;
+import com.example.card_game_api.player.PlayerHandCard;
+import com.example.card_game_api.player.PlayerRepository;
+import com.example.card_game_api.shoe.LargeShoe;
+import com.example.card_game_api.shoe.LargeShoeStore;
+import com.example.card_game_api.stats.dto.response.StatsResponse;
+import jakarta.transaction.Transactional;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class StatsReconciler {
+
+  private final GameRepository gameRepository;
+  private final PlayerRepository playerRepository;
+  private final LargeShoeStore largeShoes;
+  private final GameStatistics statistics;
+
+  public StatsReconciler(GameRepository gameRepository, PlayerRepository playerRepository,
+                         LargeShoeStore largeShoes, GameStatistics statistics) {
+    this.gameRepository = gameRepository;
+    this.playerRepository = playerRepository;
+    this.largeShoes = largeShoes;
+    this.statistics = statistics;
+  }
+
+  // Transactional itself, since calling reconcile() from here skips the proxy
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void reconcileAtStartup() {
+    reconcile();
+  }
+
+  @Transactional
+  public StatsResponse reconcile() {
+    long startedAt = System.nanoTime();
+    List<GameShoeSize> games = gameRepository.findAllShoeSizes();
+    List<PlayerHandCard> handCards = playerRepository.findAllHandCards();
+
+    Map<UUID, GameStatistics.ShoeSize> shoes = games.parallelStream()
+        .collect(Collectors.toConcurrentMap(
+            GameShoeSize::id,
+            game -> new GameStatistics.ShoeSize(game.version(), shoeSize(game), startedAt)));
+    Map<UUID, GameStatistics.HandValue> hands = handCards.parallelStream()
+        .collect(Collectors.toConcurrentMap(
+            PlayerHandCard::playerId,
+            card -> new GameStatistics.HandValue(card.gameId(), card.version(), value(card.rank()), startedAt),
+            GameStatistics.HandValue::plus));
+
+    statistics.reconcile(shoes, hands, startedAt);
+    return statistics.snapshot();
+  }
+
+  private int shoeSize(GameShoeSize game) {
+    // A large-shoe game deleted meanwhile has no shoe left
+    return game.largeShoe() ? largeShoes.find(game.id()).map(LargeShoe::size).orElse(0) : game.shoeSize();
+  }
+
+  private static int value(Rank rank) {
+    return rank == null ? 0 : rank.getValue();
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.card_game_api.stats.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ShoeSizeBucketResponse {
+  // Inclusive upper bound in undealt cards; null for the last, unbounded bucket
+  private Long maxCards;
+  private long games;
+}
@@ -0,0 +1,23 @@
+package com.example.card_game_api.stats.dto.response;
+
+import com.example.card_game_api.card.Rank;
+import com.example.card_game_api.card.Suit;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class StatsResponse {
+  private long cardsDealt;
+  private Map<Suit, Long> cardsDealtBySuit;
+  private Map<Rank, Long> cardsDealtByRank;
+  private long deals;
+  private double dealsPerSecond;
+  private long games;
+  private List<ShoeSizeBucketResponse> shoeSizes;
+  private long players;
+  private double averageHandValue;
+}
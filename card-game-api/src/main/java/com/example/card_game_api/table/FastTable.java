@@ -0,0 +1,208 @@
+/*
+ * The in-memory side of one game open as a fast table.
+ *
+ * Draws claim their cards from a ConcurrentShoe and record the claim, a
+ * position and a count, in two places, neither behind a lock shared by
+ * the table:
+ *  - the player's seat, a ConcurrentSkipListSet of draws in shoe order,
+ *    so a hand is the hand held at opening followed by the claimed cards
+ *  - pending, a ConcurrentLinkedQueue the flusher drains
+ *
+ * The flusher (see FastTables) only saves draws that continue the shoe
+ * exactly where the last save stopped. A draw whose claim succeeded but
+ * is not queued yet leaves a gap, and the draws behind it wait in
+ * waiting until it arrives. The database therefore always holds a prefix
+ * of the table's deals, with the cards in the order they left the shoe.
+ *
+ * Closing uses active, the number of draws in progress: a draw counts
+ * itself in before it checks closed, and close sets closed before it
+ * waits for active to drop to zero. Since both are volatile, either the
+ * draw sees the table closed and claims nothing, or close waits for it.
+ * close blocks on drained rather than spinning, and the last draw out
+ * signals it once it sees the table closed, so draws on an open table
+ * never touch closeLock.
+ */
+
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.shoe.ConcurrentShoe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class FastTable {
+
+  private static final Comparator<Draw> SHOE_ORDER = Comparator.comparingInt(Draw::from);
+
+  private final UUID gameId;
+  private final ConcurrentShoe shoe;
+  private final Map<UUID, Seat> seats;
+  private final Queue<Draw> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger active = new AtomicInteger();
+  private volatile boolean closed;
+  private final ReentrantLock closeLock = new ReentrantLock();
+  private final Condition drained = closeLock.newCondition();
+
+  // Flusher state, guarded by flushLock
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final PriorityQueue<Draw> waiting = new PriorityQueue<>(SHOE_ORDER);
+  private volatile int saved;
+
+  FastTable(FastTableSeed seed) {
+    this.gameId = seed.gameId();
+    this.shoe = new ConcurrentShoe(seed.shoe());
+    Map<UUID, Seat> seats = new HashMap<>();
+    for (FastTableSeed.Seat seat : seed.seats()) {
+      seats.put(seat.playerId(), new Seat(List.copyOf(seat.hand()), new ConcurrentSkipListSet<>(SHOE_ORDER)));
+    }
+    this.seats = Map.copyOf(seats);
+  }
+
+  UUID gameId() {
+    return gameId;
+  }
+
+  // null when the table has been closed meanwhile
+  List<Card> deal(UUID playerId, int amount) {
+    Seat seat = seat(playerId);
+    active.incrementAndGet();
+    try {
+      if (closed) {
+        return null;
+      }
+      ConcurrentShoe.Claim claim = shoe.claim(amount);
+      if (claim.count() == 0) {
+        return List.of();
+      }
+      Draw draw = new Draw(playerId, claim.from(), claim.count());
+      seat.draws().add(draw);
+      pending.add(draw);
+      return shoe.cards(claim);
+    } finally {
+      if (active.decrementAndGet() == 0 && closed) {
+        signalDrained();
+      }
+    }
+  }
+
+  List<Card> hand(UUID playerId) {
+    Seat seat = seat(playerId);
+    List<Card> hand = new ArrayList<>(seat.opening());
+    for (Draw draw : seat.draws()) {
+      hand.addAll(shoe.cards(draw.claim()));
+    }
+    return hand;
+  }
+
+  // Stops new draws and waits for the ones in progress to be queued
+  void close() {
+    closed = true;
+    closeLock.lock();
+    try {
+      while (active.get() > 0) {
+        drained.awaitUninterruptibly();
+      }
+    } finally {
+      closeLock.unlock();
+    }
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  int players() {
+    return seats.size();
+  }
+
+  int undealtCards() {
+    return shoe.size();
+  }
+
+  // Dealt but not saved yet, including draws still being claimed
+  int unsavedCards() {
+    return shoe.claimed() - saved;
+  }
+
+  void lockFlush() {
+    flushLock.lock();
+  }
+
+  void unlockFlush() {
+    flushLock.unlock();
+  }
+
+  /*
+   * The queued draws that continue the shoe from the last save, in shoe
+   * order. The caller holds the flush lock and reports back with saved or
+   * notSaved.
+   */
+  List<Draw> readyToSave() {
+    for (Draw draw = pending.poll(); draw != null; draw = pending.poll()) {
+      waiting.add(draw);
+    }
+    List<Draw> ready = new ArrayList<>();
+    int position = saved;
+    while (!waiting.isEmpty() && waiting.peek().from() == position) {
+      Draw draw = waiting.poll();
+      ready.add(draw);
+      position = draw.claim().to();
+    }
+    return ready;
+  }
+
+  void saved(List<Draw> draws) {
+    saved = draws.getLast().claim().to();
+  }
+
+  void notSaved(List<Draw> draws) {
+    waiting.addAll(draws);
+  }
+
+  List<TableDraw> toTableDraws(List<Draw> draws) {
+    List<TableDraw> tableDraws = new ArrayList<>(draws.size());
+    for (Draw draw : draws) {
+      tableDraws.add(new TableDraw(draw.playerId(), shoe.cards(draw.claim())));
+    }
+    return tableDraws;
+  }
+
+  private void signalDrained() {
+    closeLock.lock();
+    try {
+      drained.signalAll();
+    } finally {
+      closeLock.unlock();
+    }
+  }
+
+  private Seat seat(UUID playerId) {
+    Seat seat = seats.get(playerId);
+    if (seat == null) {
+      throw new NoSuchElementException("Player not found in game");
+    }
+    return seat;
+  }
+
+  record Draw(UUID playerId, int from, int count) {
+
+    ConcurrentShoe.Claim claim() {
+      return new ConcurrentShoe.Claim(from, count);
+    }
+  }
+
+  private record Seat(List<Card> opening, ConcurrentSkipListSet<Draw> draws) {}
+}
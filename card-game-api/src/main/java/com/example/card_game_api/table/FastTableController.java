@@ -0,0 +1,60 @@
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.table.dto.response.FastTableResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/games/{gameId}/table")
+public class FastTableController {
+
+  private final FastTables fastTables;
+
+  public FastTableController(FastTables fastTables) {
+    this.fastTables = fastTables;
+  }
+
+  @PostMapping
+  @Operation(summary = "Open the game as a fast table, dealing concurrently from an in-memory shoe")
+  public FastTableResponse openTable(@PathVariable UUID gameId) {
+    return fastTables.open(gameId);
+  }
+
+  @GetMapping
+  @Operation(summary = "Get the state of the game's fast table")
+  public FastTableResponse getTable(@PathVariable UUID gameId) {
+    return fastTables.status(gameId);
+  }
+
+  @DeleteMapping
+  @Operation(summary = "Save the fast table's remaining deals and close it")
+  public ResponseEntity<Void> closeTable(@PathVariable UUID gameId) {
+    fastTables.close(gameId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  public Map<String, String> handleNoSuchElementException(NoSuchElementException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Map<String, String> handleIllegalArgumentException(IllegalArgumentException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+
+  @ExceptionHandler(IllegalStateException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Map<String, String> handleIllegalStateException(IllegalStateException e) {
+    return Collections.singletonMap("error", e.getMessage());
+  }
+}
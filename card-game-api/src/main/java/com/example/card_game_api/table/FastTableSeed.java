@@ -0,0 +1,15 @@
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.card.Card;
+
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * What a fast table starts from: the game's undealt cards as card codes,
+ * top first, and its players with the hands they already hold.
+ */
+public record FastTableSeed(UUID gameId, byte[] shoe, List<Seat> seats) {
+
+  public record Seat(UUID playerId, String name, List<Card> hand) {}
+}
@@ -0,0 +1,228 @@
+/*
+ * Games open as fast tables, where many players deal from one shoe at
+ * once.
+ *
+ * A regular deal loads the game, rewrites it and commits, one deal per
+ * game at a time. At a fast table the shoe and hands live in memory (see
+ * FastTable): a deal is a compare-and-swap on the shoe plus two lock-free
+ * appends, and the database catches up in batches. Every
+ * game.table.flush-interval the flusher saves each table's new draws in
+ * one GameService.applyTableDraws transaction, which removes the dealt
+ * cards from the top of the stored shoe, appends them to the hands and
+ * publishes the usual deal events. A deal answered from the table is
+ * therefore in memory only until the next flush; closing the table, and
+ * shutting down, flush whatever is left.
+ *
+ * While a table is open the game refuses every other mutation (the
+ * fastTable flag, checked by GameService), so the stored shoe can only
+ * change through the table's own flushes. The cut card is not applied and
+ * hands cannot be discarded at an open table: when its shoe runs out,
+ * deals return no cards until the table is closed and the game refilled.
+ * Player hands are served from the table, other reads of the game from
+ * the database, up to one flush behind.
+ *
+ * Opening and closing a game's table hold one of OPEN_CLOSE_STRIPES locks,
+ * picked by game id, so they never interleave: close clears the game's
+ * flag before it drops the table, and an open that waited for it then
+ * starts a new table from what was saved.
+ *
+ * A failed flush keeps its draws and is retried on the next tick; a game
+ * deleted meanwhile takes its table, and any unsaved draws, with it.
+ * Tables are not restored after a restart: the flag keeps the game closed
+ * to other mutations until the table is opened again, from what was
+ * saved, or closed.
+ */
+
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.GameService;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.table.dto.response.FastTableResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@Lazy(false)
+public class FastTables {
+
+  private static final Logger log = LoggerFactory.getLogger(FastTables.class);
+  private static final int OPEN_CLOSE_STRIPES = 64;
+
+  private final GameService gameService;
+  private final Map<UUID, FastTable> tables = new ConcurrentHashMap<>();
+  private final ReentrantLock[] openCloseLocks = new ReentrantLock[OPEN_CLOSE_STRIPES];
+  private final Counter draws;
+  private final DistributionSummary flushSize;
+
+  public FastTables(GameService gameService, MeterRegistry meterRegistry) {
+    this.gameService = gameService;
+    for (int i = 0; i < openCloseLocks.length; i++) {
+      openCloseLocks[i] = new ReentrantLock();
+    }
+
+    Gauge.builder("game.table.open", tables, Map::size)
+        .description("Games open as fast tables")
+        .register(meterRegistry);
+    Gauge.builder("game.table.unsaved", this, FastTables::unsavedCards)
+        .description("Cards dealt at fast tables and not saved yet")
+        .register(meterRegistry);
+    this.draws = Counter.builder("game.table.draws")
+                     .description("Deals answered by a fast table")
+                     .register(meterRegistry);
+    this.flushSize = DistributionSummary.builder("game.table.flush.size")
+                         .description("Deals saved per fast table flush")
+                         .register(meterRegistry);
+  }
+
+  public FastTableResponse open(UUID gameId) {
+    ReentrantLock lock = openCloseLock(gameId);
+    lock.lock();
+    try {
+      FastTable table = tables.get(gameId);
+      if (table == null) {
+        table = new FastTable(gameService.openFastTable(gameId));
+        tables.put(gameId, table);
+      }
+      if (table.isClosed()) {
+        throw new IllegalStateException("The table's deals could not be saved yet, close it again");
+      }
+      return response(table);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void close(UUID gameId) {
+    ReentrantLock lock = openCloseLock(gameId);
+    lock.lock();
+    try {
+      FastTable table = tables.get(gameId);
+      if (table != null) {
+        table.close();
+        flush(table);
+        if (table.unsavedCards() > 0) {
+          throw new IllegalStateException("The table's deals could not be saved yet, close it again");
+        }
+      }
+      gameService.closeFastTable(gameId);
+      if (table != null) {
+        tables.remove(gameId, table);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public FastTableResponse status(UUID gameId) {
+    FastTable table = tables.get(gameId);
+    if (table == null) {
+      throw new NoSuchElementException("The game is not open as a fast table");
+    }
+    return response(table);
+  }
+
+  public boolean isOpen(UUID gameId) {
+    return tables.containsKey(gameId);
+  }
+
+  // The dealt cards, or null when the game is not open as a fast table
+  public List<Card> deal(UUID gameId, UUID playerId, int amount) {
+    FastTable table = tables.get(gameId);
+    if (table == null) {
+      return null;
+    }
+    List<Card> dealt = table.deal(playerId, amount);
+    if (dealt != null) {
+      draws.increment();
+    }
+    return dealt;
+  }
+
+  // The player's hand, or null when the game is not open as a fast table
+  public List<Card> hand(UUID gameId, UUID playerId) {
+    FastTable table = tables.get(gameId);
+    return table == null ? null : table.hand(playerId);
+  }
+
+  @Scheduled(fixedDelayString = "${game.table.flush-interval:PT0.05S}")
+  public void flush() {
+    for (FastTable table : tables.values()) {
+      flush(table);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onGamesDeleted(GamesDeletedEvent event) {
+    for (UUID gameId : event.gameIds()) {
+      FastTable table = tables.remove(gameId);
+      if (table != null) {
+        table.close();
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (FastTable table : tables.values()) {
+      table.close();
+      flush(table);
+    }
+  }
+
+  long unsavedCards() {
+    long unsaved = 0;
+    for (FastTable table : tables.values()) {
+      unsaved += table.unsavedCards();
+    }
+    return unsaved;
+  }
+
+  private void flush(FastTable table) {
+    table.lockFlush();
+    try {
+      List<FastTable.Draw> ready = table.readyToSave();
+      if (ready.isEmpty()) {
+        return;
+      }
+      try {
+        gameService.applyTableDraws(table.gameId(), table.toTableDraws(ready));
+        table.saved(ready);
+        flushSize.record(ready.size());
+      } catch (NoSuchElementException e) {
+        // Deleted meanwhile
+        tables.remove(table.gameId(), table);
+        table.close();
+      } catch (RuntimeException e) {
+        table.notSaved(ready);
+        log.warn("Could not save {} deals of fast table {}", ready.size(), table.gameId(), e);
+      }
+    } finally {
+      table.unlockFlush();
+    }
+  }
+
+  private ReentrantLock openCloseLock(UUID gameId) {
+    return openCloseLocks[Math.floorMod(gameId.hashCode(), openCloseLocks.length)];
+  }
+
+  private static FastTableResponse response(FastTable table) {
+    return new FastTableResponse(table.gameId(), table.players(), table.undealtCards(), table.unsavedCards());
+  }
+}
@@ -0,0 +1,19 @@
+/*
+ * Marks a handler that FastTables answers from memory while the game is
+ * open as a fast table. Admission control only takes a global permit for
+ * such requests to an open table: they never wait on the game's row, so
+ * the per-game limit would only throttle the tables built for many
+ * concurrent players.
+ */
+
+package com.example.card_game_api.table;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ServedByFastTable {
+}
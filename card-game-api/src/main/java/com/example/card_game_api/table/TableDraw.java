@@ -0,0 +1,9 @@
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.card.Card;
+
+import java.util.List;
+import java.util.UUID;
+
+// Cards dealt to a player at a fast table, in the order they left the top of the shoe
+public record TableDraw(UUID playerId, List<Card> cards) {}
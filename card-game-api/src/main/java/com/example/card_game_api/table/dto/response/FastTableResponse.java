@@ -0,0 +1,15 @@
+package com.example.card_game_api.table.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class FastTableResponse {
+  private UUID gameId;
+  private int players;
+  private int undealtCards;
+  private int unsavedCards;
+}
@@ -0,0 +1,137 @@
+/*
+ * Phase timings and SQL counters of the request running on this thread.
+ *
+ * The tracing filter starts a trace per request and the other tracing
+ * hooks add to it:
+ *  - load: time executing SQL and reading result rows outside a flush,
+ *    i.e. repository loads and lazy initialization of collections
+ *  - flush: Hibernate flushes, including the SQL they run
+ *  - logic: the rest of the time until the body starts being written
+ *  - serialize: from the start of body serialization until the response
+ *    is committed (for large bodies, until the first buffer is written),
+ *    minus lazy loads triggered while serializing, which count as load
+ *
+ * Hooks only do a ThreadLocal lookup, a few nanoTime calls and counter
+ * increments, and do nothing when no trace is active (e.g. background
+ * work like the idle reaper).
+ */
+
+package com.example.card_game_api.tracing;
+
+import java.util.Locale;
+
+public final class RequestTrace {
+
+  private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+  private final long startNanos = System.nanoTime();
+  private long serializeStartNanos;
+  private long loadNanosBeforeSerialize;
+  private long loadNanos;
+  private long flushNanos;
+  private long flushStartNanos;
+  private int flushDepth;
+  private int statements;
+  private long rows;
+
+  private RequestTrace() {
+  }
+
+  public static RequestTrace start() {
+    RequestTrace trace = new RequestTrace();
+    CURRENT.set(trace);
+    return trace;
+  }
+
+  public static RequestTrace current() {
+    return CURRENT.get();
+  }
+
+  // Continues a request's trace on another thread while the request waits for it
+  public static void attach(RequestTrace trace) {
+    if (trace == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(trace);
+    }
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  public void serializeStarted() {
+    if (serializeStartNanos == 0) {
+      serializeStartNanos = System.nanoTime();
+      loadNanosBeforeSerialize = loadNanos;
+    }
+  }
+
+  public void flushStarted() {
+    if (flushDepth++ == 0) {
+      flushStartNanos = System.nanoTime();
+    }
+  }
+
+  public void flushEnded() {
+    if (flushDepth > 0 && --flushDepth == 0) {
+      flushNanos += System.nanoTime() - flushStartNanos;
+    }
+  }
+
+  // JDBC time spent inside a flush is already part of the flush phase
+  public void sqlExecuted(long nanos) {
+    statements++;
+    sqlTime(nanos);
+  }
+
+  public void rowRead(long nanos) {
+    rows++;
+    sqlTime(nanos);
+  }
+
+  public void rowsUpdated(long count) {
+    if (count > 0) {
+      rows += count;
+    }
+  }
+
+  public int getStatements() {
+    return statements;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long elapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /*
+   * The Server-Timing value for the request up to now, e.g.
+   * load;dur=1.20, flush;dur=0.85, logic;dur=0.31, serialize;dur=0.40,
+   * total;dur=2.76, sql;desc="statements=4 rows=57"
+   */
+  public String toServerTiming() {
+    long now = System.nanoTime();
+    long total = now - startNanos;
+    long serialize = serializeStartNanos == 0
+                         ? 0
+                         : Math.max(0, now - serializeStartNanos - (loadNanos - loadNanosBeforeSerialize));
+    long logic = Math.max(0, total - serialize - loadNanos - flushNanos);
+    return String.format(Locale.ROOT,
+        "load;dur=%.2f, flush;dur=%.2f, logic;dur=%.2f, serialize;dur=%.2f, total;dur=%.2f, sql;desc=\"statements=%d rows=%d\"",
+        millis(loadNanos), millis(flushNanos), millis(logic), millis(serialize), millis(total), statements, rows);
+  }
+
+  private void sqlTime(long nanos) {
+    if (flushDepth == 0) {
+      loadNanos += nanos;
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
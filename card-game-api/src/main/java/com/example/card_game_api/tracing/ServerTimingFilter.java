@@ -0,0 +1,174 @@
+/*
+ * Starts a RequestTrace for every request and returns its breakdown in a
+ * Server-Timing header.
+ *
+ * The header has to be set before the response is committed, so the
+ * response is wrapped and the header is added just before the first body
+ * bytes reach the container (or when the body is flushed, or an error is
+ * sent). Responses without a body get it once the handler returns.
+ * Requests slower than game.tracing.slow-request-threshold are logged
+ * with the same breakdown.
+ */
+
+package com.example.card_game_api.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+  private final boolean enabled;
+  private final long slowRequestNanos;
+
+  public ServerTimingFilter(@Value("${game.tracing.enabled:true}") boolean enabled,
+                            @Value("${game.tracing.slow-request-threshold:500ms}") Duration slowRequestThreshold) {
+    this.enabled = enabled;
+    this.slowRequestNanos = slowRequestThreshold.toNanos();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    RequestTrace trace = RequestTrace.start();
+    TimingResponse timingResponse = new TimingResponse(response, trace);
+    try {
+      chain.doFilter(request, timingResponse);
+    } finally {
+      String timing = timingResponse.writeServerTiming();
+      if (trace.elapsedNanos() >= slowRequestNanos) {
+        log.warn("Slow request {} {} -> {}: {}", request.getMethod(), request.getRequestURI(),
+            response.getStatus(), timing == null ? trace.toServerTiming() : timing);
+      }
+      RequestTrace.clear();
+    }
+  }
+
+  private static class TimingResponse extends HttpServletResponseWrapper {
+
+    private final RequestTrace trace;
+    private String serverTiming;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    TimingResponse(HttpServletResponse response, RequestTrace trace) {
+      super(response);
+      this.trace = trace;
+    }
+
+    // Returns the header value, or null when the response was committed before it could be set
+    String writeServerTiming() {
+      if (serverTiming == null && !isCommitted()) {
+        serverTiming = trace.toServerTiming();
+        setHeader(SERVER_TIMING_HEADER, serverTiming);
+      }
+      return serverTiming;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new TimingOutputStream(super.getOutputStream(), this);
+      }
+      return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        writeServerTiming();
+        writer = super.getWriter();
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      writeServerTiming();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+      writeServerTiming();
+      super.sendError(status);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+      writeServerTiming();
+      super.sendError(status, message);
+    }
+  }
+
+  private static class TimingOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+    private final TimingResponse response;
+
+    TimingOutputStream(ServletOutputStream delegate, TimingResponse response) {
+      this.delegate = delegate;
+      this.response = response;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      response.writeServerTiming();
+      delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      response.writeServerTiming();
+      delegate.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      response.writeServerTiming();
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      response.writeServerTiming();
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+}
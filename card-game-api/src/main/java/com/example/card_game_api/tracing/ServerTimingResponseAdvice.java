@@ -0,0 +1,33 @@
+package com.example.card_game_api.tracing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/*
+ * Marks the start of the serialize phase: Spring calls this right before
+ * the selected message converter writes the body.
+ */
+@ControllerAdvice
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    RequestTrace trace = RequestTrace.current();
+    if (trace != null) {
+      trace.serializeStarted();
+    }
+    return body;
+  }
+}
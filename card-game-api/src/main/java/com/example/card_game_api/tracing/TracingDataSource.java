@@ -0,0 +1,119 @@
+/*
+ * DataSource wrapper that reports SQL statements, rows and JDBC time to
+ * the request trace.
+ *
+ * Connections are wrapped in JDK proxies. When a request trace is active,
+ * the statements they create are wrapped too: every execute is timed and
+ * counted, update counts are added to the rows, and result sets count the
+ * rows read and the time spent fetching them. Outside a request (no
+ * active trace) statements are handed out unwrapped.
+ */
+
+package com.example.card_game_api.tracing;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class TracingDataSource extends DelegatingDataSource {
+
+  public TracingDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return connection(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return connection(super.getConnection(username, password));
+  }
+
+  private static Connection connection(Connection target) {
+    return proxy(Connection.class, target, (proxy, method, args) -> {
+      Object result = invoke(target, method, args);
+      if (result instanceof Statement statement && RequestTrace.current() != null) {
+        return statement(statement);
+      }
+      return result;
+    });
+  }
+
+  private static Statement statement(Statement target) {
+    Class<? extends Statement> type = target instanceof CallableStatement ? CallableStatement.class
+                                        : target instanceof PreparedStatement ? PreparedStatement.class
+                                          : Statement.class;
+    return (Statement) proxy(type, target, (proxy, method, args) -> {
+      String name = method.getName();
+      if (!name.startsWith("execute")) {
+        Object result = invoke(target, method, args);
+        return name.equals("getResultSet") && result != null ? resultSet((ResultSet) result) : result;
+      }
+      long start = System.nanoTime();
+      Object result = invoke(target, method, args);
+      RequestTrace trace = RequestTrace.current();
+      if (trace != null) {
+        trace.sqlExecuted(System.nanoTime() - start);
+        if (result instanceof Integer count) {
+          trace.rowsUpdated(count);
+        } else if (result instanceof Long count) {
+          trace.rowsUpdated(count);
+        } else if (result instanceof int[] counts) {
+          for (int count : counts) {
+            trace.rowsUpdated(count);
+          }
+        } else if (result instanceof long[] counts) {
+          for (long count : counts) {
+            trace.rowsUpdated(count);
+          }
+        }
+      }
+      return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+    });
+  }
+
+  private static ResultSet resultSet(ResultSet target) {
+    return proxy(ResultSet.class, target, (proxy, method, args) -> {
+      if (!method.getName().equals("next")) {
+        return invoke(target, method, args);
+      }
+      long start = System.nanoTime();
+      boolean hasRow = target.next();
+      RequestTrace trace = RequestTrace.current();
+      if (hasRow && trace != null) {
+        trace.rowRead(System.nanoTime() - start);
+      }
+      return hasRow;
+    });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> handler.invoke(proxy, method, args);
+        });
+  }
+}
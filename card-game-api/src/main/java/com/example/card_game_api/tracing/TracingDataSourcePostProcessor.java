@@ -0,0 +1,22 @@
+package com.example.card_game_api.tracing;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/*
+ * Wraps the application's DataSource so SQL statements and rows are
+ * counted per request (see TracingDataSource).
+ */
+@Component
+public class TracingDataSourcePostProcessor implements BeanPostProcessor {
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+      return new TracingDataSource(dataSource);
+    }
+    return bean;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Hibernate session listener that times flushes for the request trace.
+ *
+ * Registered through hibernate.session.events.auto, so Hibernate creates
+ * one per session. Partial flushes (auto-flush before a query) count too.
+ */
+
+package com.example.card_game_api.tracing;
+
+import org.hibernate.BaseSessionEventListener;
+
+public class TracingSessionEventListener extends BaseSessionEventListener {
+
+  @Override
+  public void flushStart() {
+    RequestTrace trace = RequestTrace.current();
+    if (trace != null) {
+      trace.flushStarted();
+    }
+  }
+
+  @Override
+  public void flushEnd(int numberOfEntities, int numberOfCollections) {
+    RequestTrace trace = RequestTrace.current();
+    if (trace != null) {
+      trace.flushEnded();
+    }
+  }
+
+  @Override
+  public void partialFlushStart() {
+    flushStart();
+  }
+
+  @Override
+  public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+    flushEnd(numberOfEntities, numberOfCollections);
+  }
+}
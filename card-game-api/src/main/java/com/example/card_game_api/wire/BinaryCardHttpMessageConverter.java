@@ -0,0 +1,25 @@
+package com.example.card_game_api.wire;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.dto.response.DeckInfoResponse;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.IOException;
+import java.util.List;
+
+public class BinaryCardHttpMessageConverter extends CardHttpMessageConverter {
+
+  public BinaryCardHttpMessageConverter() {
+    super(CardMediaTypes.BINARY);
+  }
+
+  @Override
+  protected void writeCards(List<Card> cards, HttpOutputMessage outputMessage) throws IOException {
+    CardWireFormat.writeBinary(cards, outputMessage.getBody());
+  }
+
+  @Override
+  protected void writeDeckInfo(DeckInfoResponse deckInfo, HttpOutputMessage outputMessage) throws IOException {
+    CardWireFormat.writeBinary(deckInfo, outputMessage.getBody());
+  }
+}
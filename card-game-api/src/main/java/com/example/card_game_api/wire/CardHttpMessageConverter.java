@@ -0,0 +1,80 @@
+/*
+ * Base converter for the compact card encodings. It only writes card
+ * lists (List<Card>) and DeckInfoResponse, only for its own media type,
+ * and never reads, so every other response keeps using Jackson.
+ */
+
+package com.example.card_game_api.wire;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.dto.response.DeckInfoResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+public abstract class CardHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  protected CardHttpMessageConverter(MediaType mediaType) {
+    super(mediaType);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return List.class.isAssignableFrom(clazz) || DeckInfoResponse.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    if (mediaType == null || !mediaType.isConcrete() || !canWrite(mediaType)) {
+      return false;
+    }
+    return DeckInfoResponse.class.isAssignableFrom(clazz) || isCardList(type != null ? type : clazz);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+    if (value instanceof DeckInfoResponse deckInfo) {
+      writeDeckInfo(deckInfo, outputMessage);
+    } else {
+      writeCards((List<Card>) value, outputMessage);
+    }
+  }
+
+  protected abstract void writeCards(List<Card> cards, HttpOutputMessage outputMessage) throws IOException;
+
+  protected abstract void writeDeckInfo(DeckInfoResponse deckInfo, HttpOutputMessage outputMessage) throws IOException;
+
+  @Override
+  public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Compact card formats are write-only", inputMessage);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Compact card formats are write-only", inputMessage);
+  }
+
+  private static boolean isCardList(Type type) {
+    ResolvableType resolvableType = ResolvableType.forType(type);
+    return List.class.isAssignableFrom(resolvableType.toClass())
+               && resolvableType.asCollection().resolveGeneric(0) == Card.class;
+  }
+}
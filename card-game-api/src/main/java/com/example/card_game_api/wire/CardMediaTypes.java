@@ -0,0 +1,27 @@
+/*
+ * Media types of the compact card encodings.
+ *
+ * COMPACT_JSON is the default JSON shape with every card written as its
+ * two-character short name ("AH", "TS") instead of a suit/rank object.
+ *
+ * BINARY is a length-prefixed byte array of card codes (see CardCodes).
+ * A card list is a big-endian int32 count followed by one byte per card.
+ * A deck info is the int32 totalCards, four int32 suit counts in Suit
+ * order, then the sorted cards as a card list.
+ */
+
+package com.example.card_game_api.wire;
+
+import org.springframework.http.MediaType;
+
+public final class CardMediaTypes {
+
+  public static final String COMPACT_JSON_VALUE = "application/vnd.cardgame.compact+json";
+  public static final String BINARY_VALUE = "application/vnd.cardgame.cards";
+
+  public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+  public static final MediaType BINARY = MediaType.parseMediaType(BINARY_VALUE);
+
+  private CardMediaTypes() {
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Direct writers for the compact card encodings described in
+ * CardMediaTypes. Cards are streamed straight to the output: short names
+ * come from a lookup table and binary codes are copied through a small
+ * reusable chunk, so no per-card objects or intermediate trees are built.
+ */
+
+package com.example.card_game_api.wire;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import com.example.card_game_api.card.Suit;
+import com.example.card_game_api.game.dto.response.DeckInfoResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+public final class CardWireFormat {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private CardWireFormat() {
+  }
+
+  public static void writeCompactJson(List<Card> cards, JsonGenerator generator) throws IOException {
+    generator.writeStartArray();
+    for (Card card : cards) {
+      generator.writeString(CardCodes.shortName(card));
+    }
+    generator.writeEndArray();
+  }
+
+  public static void writeCompactJson(DeckInfoResponse deckInfo, JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("totalCards", deckInfo.getTotalCards());
+    generator.writeObjectFieldStart("suitCounts");
+    for (Map.Entry<String, Long> entry : deckInfo.getSuitCounts().entrySet()) {
+      generator.writeNumberField(entry.getKey(), entry.getValue());
+    }
+    generator.writeEndObject();
+    generator.writeFieldName("sortedCards");
+    writeCompactJson(deckInfo.getSortedCards(), generator);
+    generator.writeEndObject();
+  }
+
+  public static void writeBinary(List<Card> cards, OutputStream outputStream) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    writeCards(cards, out);
+    out.flush();
+  }
+
+  public static void writeBinary(DeckInfoResponse deckInfo, OutputStream outputStream) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(deckInfo.getTotalCards());
+    for (Suit suit : Suit.values()) {
+      out.writeInt(deckInfo.getSuitCounts().getOrDefault(suit.name(), 0L).intValue());
+    }
+    writeCards(deckInfo.getSortedCards(), out);
+    out.flush();
+  }
+
+  private static void writeCards(List<Card> cards, DataOutputStream out) throws IOException {
+    int size = cards.size();
+    out.writeInt(size);
+    byte[] chunk = new byte[Math.min(size, CHUNK_SIZE)];
+    int filled = 0;
+    for (Card card : cards) {
+      chunk[filled++] = (byte) CardCodes.code(card);
+      if (filled == chunk.length) {
+        out.write(chunk, 0, filled);
+        filled = 0;
+      }
+    }
+    if (filled > 0) {
+      out.write(chunk, 0, filled);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.card_game_api.wire;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.dto.response.DeckInfoResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.IOException;
+import java.util.List;
+
+public class CompactCardJsonHttpMessageConverter extends CardHttpMessageConverter {
+
+  private final JsonFactory jsonFactory = JsonFactory.builder()
+                                              .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                                              .build();
+
+  public CompactCardJsonHttpMessageConverter() {
+    super(CardMediaTypes.COMPACT_JSON);
+  }
+
+  @Override
+  protected void writeCards(List<Card> cards, HttpOutputMessage outputMessage) throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+      CardWireFormat.writeCompactJson(cards, generator);
+    }
+  }
+
+  @Override
+  protected void writeDeckInfo(DeckInfoResponse deckInfo, HttpOutputMessage outputMessage) throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+      CardWireFormat.writeCompactJson(deckInfo, generator);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Adds Vary: Accept to the responses of handlers that produce more than
+ * one media type (JSON, compact JSON or binary cards).
+ *
+ * Their ETag is the game version, the same for every representation, so
+ * without it a cache could serve binary cards to a JSON client or answer
+ * 304 for a representation the client does not hold. The header is set
+ * before the handler runs, so it is also on 304 responses.
+ */
+
+package com.example.card_game_api.wire;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+public class VaryByAcceptInterceptor implements HandlerInterceptor {
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (handler instanceof HandlerMethod handlerMethod && negotiated(handlerMethod)) {
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+    return true;
+  }
+
+  private static boolean negotiated(HandlerMethod handlerMethod) {
+    RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(),
+        RequestMapping.class);
+    return mapping != null && mapping.produces().length > 1;
+  }
+}
@@ -0,0 +1,129 @@
+package com.example.card_game_api.admission;
+
+import com.example.card_game_api.coalescing.CoalescedRead;
+import com.example.card_game_api.table.FastTables;
+import com.example.card_game_api.table.ServedByFastTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlInterceptorTest {
+
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+  private final FastTables fastTables = mock(FastTables.class);
+  private SimpleMeterRegistry meterRegistry;
+  private HandlerMethod handler;
+
+  @BeforeEach
+  void setUp() throws NoSuchMethodException {
+    meterRegistry = new SimpleMeterRegistry();
+    handler = new HandlerMethod(this, AdmissionControlInterceptorTest.class.getDeclaredMethod("setUp"));
+  }
+
+  @Test
+  void preHandle_whenGameLimitReached_shouldRejectOnlyThatGame() {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(10, 2, Duration.ofSeconds(3), fastTables, meterRegistry);
+    UUID hotGame = UUID.randomUUID();
+
+    assertThat(interceptor.preHandle(requestFor(hotGame), response, handler)).isTrue();
+    assertThat(interceptor.preHandle(requestFor(hotGame), response, handler)).isTrue();
+    assertThatThrownBy(() -> interceptor.preHandle(requestFor(hotGame), response, handler))
+        .isInstanceOf(AdmissionRejectedException.class)
+        .extracting("retryAfterSeconds").isEqualTo(3L);
+
+    assertThat(interceptor.preHandle(requestFor(UUID.randomUUID()), response, handler)).isTrue();
+    assertThat(interceptor.getInFlight()).isEqualTo(3);
+    assertThat(interceptor.getInFlight(hotGame)).isEqualTo(2);
+    assertThat(meterRegistry.get("game.admission.rejected").tag("scope", "game").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void preHandle_whenGlobalLimitReached_shouldReject() {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(1, 5, Duration.ofSeconds(1), fastTables, meterRegistry);
+
+    assertThat(interceptor.preHandle(requestFor(UUID.randomUUID()), response, handler)).isTrue();
+    assertThatThrownBy(() -> interceptor.preHandle(requestFor(UUID.randomUUID()), response, handler))
+        .isInstanceOf(AdmissionRejectedException.class);
+    assertThat(meterRegistry.get("game.admission.rejected").tag("scope", "global").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void preHandle_forCoalescedRead_shouldSkipTheGameLimit() throws NoSuchMethodException {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(10, 1, Duration.ofSeconds(1), fastTables, meterRegistry);
+    HandlerMethod coalescedHandler =
+        new HandlerMethod(this, AdmissionControlInterceptorTest.class.getDeclaredMethod("coalescedRead"));
+    UUID gameId = UUID.randomUUID();
+
+    assertThat(interceptor.preHandle(requestFor(gameId), response, handler)).isTrue();
+    assertThat(interceptor.preHandle(requestFor(gameId), response, coalescedHandler)).isTrue();
+    assertThat(interceptor.preHandle(requestFor(gameId), response, coalescedHandler)).isTrue();
+
+    assertThat(interceptor.getInFlight()).isEqualTo(3);
+    assertThat(interceptor.getInFlight(gameId)).isEqualTo(1);
+  }
+
+  @Test
+  void preHandle_forDealAtAnOpenFastTable_shouldSkipTheGameLimit() throws NoSuchMethodException {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(10, 1, Duration.ofSeconds(1), fastTables, meterRegistry);
+    HandlerMethod tableHandler =
+        new HandlerMethod(this, AdmissionControlInterceptorTest.class.getDeclaredMethod("tableDeal"));
+    UUID openGame = UUID.randomUUID();
+    UUID closedGame = UUID.randomUUID();
+    when(fastTables.isOpen(openGame)).thenReturn(true);
+
+    assertThat(interceptor.preHandle(requestFor(openGame), response, handler)).isTrue();
+    assertThat(interceptor.preHandle(requestFor(openGame), response, tableHandler)).isTrue();
+    assertThat(interceptor.preHandle(requestFor(openGame), response, tableHandler)).isTrue();
+    assertThat(interceptor.getInFlight(openGame)).isEqualTo(1);
+
+    assertThat(interceptor.preHandle(requestFor(closedGame), response, tableHandler)).isTrue();
+    assertThatThrownBy(() -> interceptor.preHandle(requestFor(closedGame), response, tableHandler))
+        .isInstanceOf(AdmissionRejectedException.class);
+  }
+
+  @Test
+  void afterCompletion_shouldReleasePermits() {
+    AdmissionControlInterceptor interceptor =
+        new AdmissionControlInterceptor(10, 1, Duration.ofSeconds(1), fastTables, meterRegistry);
+    UUID gameId = UUID.randomUUID();
+    MockHttpServletRequest first = requestFor(gameId);
+
+    interceptor.preHandle(first, response, handler);
+    interceptor.afterCompletion(first, response, handler, null);
+
+    assertThat(interceptor.getInFlight()).isZero();
+    assertThat(interceptor.getInFlight(gameId)).isZero();
+    assertThat(interceptor.preHandle(requestFor(gameId), response, handler)).isTrue();
+  }
+
+  private CoalescedRead<String> coalescedRead() {
+    return null;
+  }
+
+  @ServedByFastTable
+  private void tableDeal() {
+  }
+
+  private static MockHttpServletRequest requestFor(UUID gameId) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/games/" + gameId + "/shuffle");
+    request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("gameId", gameId.toString()));
+    return request;
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.card_game_api.archive;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import com.example.card_game_api.game.Game;
+import com.example.card_game_api.player.Player;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameArchiveTest {
+
+  @TempDir
+  Path directory;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void append_shouldReadBackTheGameFromACompressedRecord() throws IOException {
+    GameArchive archive = archive(DataSize.ofMegabytes(1));
+    ArchivedGame game = archivedGame(8);
+
+    archive.append(game);
+
+    assertThat(archive.find(game.id())).contains(game);
+    assertThat(archive.find(UUID.randomUUID())).isEmpty();
+    // 416 cards at one byte each before compression, plus players and header
+    assertThat(archive.bytes()).isLessThan(416);
+    archive.close();
+  }
+
+  @Test
+  void find_shouldServeRepeatedReadsFromTheCache() throws IOException {
+    GameArchive archive = archive(DataSize.ofMegabytes(1));
+    ArchivedGame game = archivedGame(1);
+    archive.append(game);
+
+    archive.find(game.id());
+    archive.find(game.id());
+
+    assertThat(meterRegistry.get("game.archive.cache.misses").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("game.archive.cache.hits").counter().count()).isEqualTo(1);
+    archive.close();
+  }
+
+  @Test
+  void reopen_shouldRebuildTheIndexAcrossSegmentsAndDropATornRecord() throws IOException {
+    GameArchive archive = archive(DataSize.ofBytes(200));
+    List<ArchivedGame> games = List.of(archivedGame(1), archivedGame(2), archivedGame(3));
+    games.forEach(archive::append);
+    ArchivedGame superseded = games.get(0);
+    ArchivedGame newer = new ArchivedGame(superseded.id(), superseded.version() + 1, superseded.lastActivityAt(),
+        superseded.archivedAt(), 0.5, 0, List.of(), List.of(), List.of());
+    archive.append(newer);
+    archive.close();
+
+    Path last;
+    try (var files = Files.list(directory)) {
+      List<Path> segments = files.sorted().toList();
+      assertThat(segments).hasSizeGreaterThan(1);
+      last = segments.get(segments.size() - 1);
+    }
+    long size = Files.size(last);
+    Files.write(last, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 0, 0, 1, 0},
+        StandardOpenOption.APPEND);
+
+    GameArchive reopened = archive(DataSize.ofBytes(200));
+
+    assertThat(reopened.size()).isEqualTo(3);
+    assertThat(reopened.find(newer.id())).contains(newer);
+    assertThat(reopened.find(games.get(2).id())).contains(games.get(2));
+    assertThat(Files.size(last)).isEqualTo(size);
+    reopened.close();
+  }
+
+  @Test
+  void append_inATransaction_shouldOnlyIndexTheRecordOnceItCommits() throws IOException {
+    GameArchive archive = archive(DataSize.ofMegabytes(1));
+    ArchivedGame committed = archivedGame(1);
+    ArchivedGame rolledBack = archivedGame(1);
+    ArchivedGame newer = new ArchivedGame(committed.id(), committed.version() + 1, committed.lastActivityAt(),
+        committed.archivedAt(), 0.5, 0, List.of(), List.of(), List.of());
+
+    complete(archive, committed, TransactionSynchronization.STATUS_COMMITTED);
+    complete(archive, rolledBack, TransactionSynchronization.STATUS_ROLLED_BACK);
+    complete(archive, newer, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    assertThat(archive.find(committed.id())).contains(committed);
+    assertThat(archive.find(rolledBack.id())).isEmpty();
+    archive.close();
+
+    GameArchive reopened = archive(DataSize.ofMegabytes(1));
+    assertThat(reopened.find(committed.id())).contains(committed);
+    assertThat(reopened.find(rolledBack.id())).isEmpty();
+    assertThat(reopened.size()).isEqualTo(1);
+    reopened.close();
+  }
+
+  @Test
+  void of_shouldCopyTheGamesCardsAndPlayers() {
+    Game game = new Game();
+    Player player = new Player(null, game);
+    player.getHand().add(CardCodes.fromCode(7));
+    game.addPlayer(player);
+    game.getGameDeck().add(CardCodes.fromCode(1));
+    game.setLastActivityAt(Instant.ofEpochMilli(5_000));
+
+    // Times are archived to the millisecond
+    ArchivedGame archived = ArchivedGame.of(game, Instant.ofEpochMilli(6_000));
+    ArchivedGame decoded = ArchiveCodec.decode(ArchiveCodec.encode(archived));
+
+    assertThat(decoded).isEqualTo(archived);
+    assertThat(decoded.players().get(0).name()).isNull();
+    assertThat(decoded.players().get(0).hand()).containsExactly(CardCodes.fromCode(7));
+  }
+
+  private static void complete(GameArchive archive, ArchivedGame game, int status) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      archive.append(game);
+      // Not indexed before the transaction completes
+      assertThat(archive.find(game.id()).filter(game::equals)).isEmpty();
+      List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+      if (status == TransactionSynchronization.STATUS_COMMITTED) {
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+      }
+      synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private GameArchive archive(DataSize segmentSize) {
+    return new GameArchive(meterRegistry, directory, segmentSize, 16);
+  }
+
+  private static ArchivedGame archivedGame(int decks) {
+    List<Card> shoe = java.util.stream.IntStream.range(0, decks * CardCodes.CARD_COUNT)
+                          .mapToObj(i -> CardCodes.fromCode(i % CardCodes.CARD_COUNT))
+                          .toList();
+    List<ArchivedGame.ArchivedPlayer> players = List.of(
+        new ArchivedGame.ArchivedPlayer(UUID.randomUUID(), "Alice", List.of(CardCodes.fromCode(0))),
+        new ArchivedGame.ArchivedPlayer(UUID.randomUUID(), "Bob", List.of()));
+    return new ArchivedGame(UUID.randomUUID(), decks, Instant.ofEpochMilli(1_000), Instant.ofEpochMilli(2_000),
+        0.75, 3, shoe, List.of(CardCodes.fromCode(51)), players);
+  }
+}
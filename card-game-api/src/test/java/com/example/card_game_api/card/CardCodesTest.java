@@ -0,0 +1,34 @@
+package com.example.card_game_api.card;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardCodesTest {
+
+  @Test
+  void codes_shouldRoundTripForEveryCard() {
+    Set<Integer> codes = new HashSet<>();
+    for (Suit suit : Suit.values()) {
+      for (Rank rank : Rank.values()) {
+        Card card = new Card(suit, rank);
+        int code = CardCodes.code(card);
+        assertThat(code).isBetween(0, CardCodes.CARD_COUNT - 1);
+        assertThat(CardCodes.fromCode(code)).isEqualTo(card);
+        codes.add(code);
+      }
+    }
+    assertThat(codes).hasSize(CardCodes.CARD_COUNT);
+  }
+
+  @Test
+  void shortName_shouldUseRankThenSuitCharacter() {
+    assertThat(CardCodes.shortName(new Card(Suit.HEARTS, Rank.ACE))).isEqualTo("AH");
+    assertThat(CardCodes.shortName(new Card(Suit.SPADES, Rank.TEN))).isEqualTo("TS");
+    assertThat(CardCodes.shortName(new Card(Suit.CLUBS, Rank.SEVEN))).isEqualTo("7C");
+    assertThat(CardCodes.shortName(new Card(Suit.DIAMONDS, Rank.KING))).isEqualTo("KD");
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.card_game_api.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadCoalescerTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ReadCoalescer coalescer = new ReadCoalescer(meterRegistry);
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final ReadKey key = ReadKey.of(UUID.randomUUID(), 3, "deck", 0, null);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void execute_concurrentIdenticalReads_shouldShareOneExecution() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+    byte[] payload = {1, 2, 3};
+
+    Future<byte[]> leader = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> {
+      executions.incrementAndGet();
+      started.countDown();
+      await(release);
+      return payload;
+    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    Future<byte[]> follower1 = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> {
+      executions.incrementAndGet();
+      return new byte[0];
+    }));
+    Future<byte[]> follower2 = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> {
+      executions.incrementAndGet();
+      return new byte[0];
+    }));
+    while (meterRegistry.get("game.reads.coalesced").counter().count() < 2) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(payload);
+    assertThat(follower1.get(5, TimeUnit.SECONDS)).isSameAs(payload);
+    assertThat(follower2.get(5, TimeUnit.SECONDS)).isSameAs(payload);
+    assertThat(executions).hasValue(1);
+    assertThat(meterRegistry.get("game.reads.executed").counter().count()).isEqualTo(1);
+    assertThat(coalescer.inFlight()).isZero();
+  }
+
+  @Test
+  void execute_afterReadCompleted_shouldRunAgain() {
+    AtomicInteger executions = new AtomicInteger();
+
+    coalescer.execute(key, MediaType.APPLICATION_JSON, () -> new byte[] {(byte) executions.incrementAndGet()});
+    byte[] second = coalescer.execute(key, MediaType.APPLICATION_JSON,
+        () -> new byte[] {(byte) executions.incrementAndGet()});
+
+    assertThat(second).containsExactly(2);
+    assertThat(meterRegistry.get("game.reads.coalesced").counter().count()).isZero();
+  }
+
+  @Test
+  void execute_otherVersionOrMediaType_shouldNotJoinRunningRead() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<byte[]> running = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> {
+      started.countDown();
+      await(release);
+      return new byte[] {1};
+    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    ReadKey newerVersion = ReadKey.of(key.gameId(), 4, "deck", 0, null);
+    assertThat(coalescer.execute(newerVersion, MediaType.APPLICATION_JSON, () -> new byte[] {2})).containsExactly(2);
+    assertThat(coalescer.execute(key, MediaType.APPLICATION_XML, () -> new byte[] {3})).containsExactly(3);
+    release.countDown();
+
+    assertThat(running.get(5, TimeUnit.SECONDS)).containsExactly(1);
+    assertThat(meterRegistry.get("game.reads.coalesced").counter().count()).isZero();
+  }
+
+  @Test
+  void execute_whenReadFails_shouldThrowToEveryWaitingRequest() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<byte[]> leader = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> {
+      started.countDown();
+      await(release);
+      throw new NoSuchElementException("Game not found");
+    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    Future<byte[]> follower = executor.submit(() -> coalescer.execute(key, MediaType.APPLICATION_JSON, () -> new byte[0]));
+    while (meterRegistry.get("game.reads.coalesced").counter().count() < 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoSuchElementException.class);
+    assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoSuchElementException.class);
+    assertThat(coalescer.inFlight()).isZero();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
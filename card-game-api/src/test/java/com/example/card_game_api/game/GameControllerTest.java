@@ -3,6 +3,7 @@ package com.example.card_game_api.game;
 import com.example.card_game_api.card.*;
 import com.example.card_game_api.game.dto.response.*;
 import com.example.card_game_api.game.dto.request.*;
+import com.example.card_game_api.wire.CardMediaTypes;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +15,17 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +43,17 @@ class GameControllerTest {
   @MockitoBean
   private GameService gameService;
 
+  @Test
+  void getAllGames_shouldReturnServerTimingBreakdown() throws Exception {
+    when(gameService.getAllGames()).thenReturn(List.of());
+
+    mockMvc.perform(get("/games"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Server-Timing", startsWith("load;dur=")))
+        .andExpect(header().string("Server-Timing", containsString("serialize;dur=")))
+        .andExpect(header().string("Server-Timing", containsString("sql;desc=\"statements=")));
+  }
+
   @Test
   void getAllGames_shouldReturn200AndGameList() throws Exception {
     // Arrange
@@ -58,7 +77,7 @@ class GameControllerTest {
   void createGame_shouldReturn201AndGame() throws Exception {
     Game game = new Game();
     UUID gameId = game.getId();
-    when(gameService.createGame()).thenReturn(game);
+    when(gameService.createGame(false)).thenReturn(game);
 
     mockMvc.perform(post("/games"))
         .andExpect(status().isCreated())
@@ -84,8 +103,51 @@ class GameControllerTest {
 
   @Test
   void addDeckToGame_shouldReturn200Ok() throws Exception {
-    mockMvc.perform(post("/games/" + UUID.randomUUID() + "/add-deck"))
+    UUID gameId = UUID.randomUUID();
+    mockMvc.perform(post("/games/" + gameId + "/add-deck").param("count", "3"))
         .andExpect(status().isOk());
+
+    verify(gameService).addDeckToGame(gameId, 3);
+  }
+
+  @Test
+  void newShoe_shouldReturn200Ok() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    mockMvc.perform(post("/games/" + gameId + "/new-shoe").param("decks", "6"))
+        .andExpect(status().isOk());
+
+    verify(gameService).newShoe(gameId, 6);
+  }
+
+  @Test
+  void undo_shouldReturn200Ok() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    mockMvc.perform(post("/games/" + gameId + "/undo").param("version", "3"))
+        .andExpect(status().isOk());
+
+    verify(gameService).undo(gameId, 3L);
+  }
+
+  @Test
+  void fork_shouldReturn201AndLocationOfNewGame() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    Game fork = new Game();
+    when(gameService.fork(gameId, null)).thenReturn(fork);
+
+    mockMvc.perform(post("/games/" + gameId + "/fork"))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Location", "http://localhost/games/" + fork.getId()))
+        .andExpect(jsonPath("$.gameId").value(fork.getId().toString()));
+  }
+
+  @Test
+  void undo_whenVersionIsNotRetained_shouldReturn404() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    doThrow(new NoSuchElementException("Version 1 of the game is not retained")).when(gameService).undo(gameId, 1L);
+
+    mockMvc.perform(post("/games/" + gameId + "/undo").param("version", "1"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.error").value("Version 1 of the game is not retained"));
   }
 
   @Test
@@ -137,6 +199,65 @@ class GameControllerTest {
         .andExpect(jsonPath("$[0].rank", is("ACE")));
   }
 
+  @Test
+  void dealCards_withRepeatedIdempotencyKey_shouldDealOnceAndReplay() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    UUID playerId = UUID.randomUUID();
+    DealRequest dealRequest = new DealRequest();
+    dealRequest.setPlayerId(playerId);
+    dealRequest.setAmount(1);
+
+    List<Card> cards = Collections.singletonList(new Card(Suit.CLUBS, Rank.TWO));
+    when(gameService.dealCards(gameId, playerId, 1)).thenReturn(cards);
+
+    for (int i = 0; i < 3; i++) {
+      mockMvc.perform(post("/games/" + gameId + "/deal-cards")
+                          .header("Idempotency-Key", "retry-1")
+                          .contentType(MediaType.APPLICATION_JSON)
+                          .content(objectMapper.writeValueAsString(dealRequest)))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$[0].rank", is("TWO")));
+    }
+
+    verify(gameService, times(1)).dealCards(gameId, playerId, 1);
+  }
+
+  @Test
+  void idempotencyKey_reusedForAnotherEndpoint_shouldReturn422() throws Exception {
+    UUID gameId = UUID.randomUUID();
+
+    mockMvc.perform(post("/games/" + gameId + "/shuffle").header("Idempotency-Key", "reused"))
+        .andExpect(status().isOk());
+    mockMvc.perform(post("/games/" + gameId + "/add-deck").header("Idempotency-Key", "reused"))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$.error", is("Idempotency-Key was already used for a different request")));
+
+    verify(gameService, times(1)).shuffle(gameId);
+    verify(gameService, never()).addDeckToGame(gameId, 1);
+  }
+
+  @Test
+  void executeCommands_shouldReturn200AndResults() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    UUID playerId = UUID.randomUUID();
+    GameCommandRequest addPlayer = new GameCommandRequest();
+    addPlayer.setType(GameCommandType.ADD_PLAYER);
+    addPlayer.setName("name");
+    CommandBatchRequest batchRequest = new CommandBatchRequest();
+    batchRequest.setCommands(List.of(addPlayer));
+
+    when(gameService.executeCommands(gameId, batchRequest.getCommands())).thenReturn(List.of(
+        new CommandResultResponse(GameCommandType.ADD_PLAYER, playerId, "name", null, 0)));
+
+    mockMvc.perform(post("/games/" + gameId + "/commands")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].type", is("ADD_PLAYER")))
+        .andExpect(jsonPath("$[0].playerId", is(playerId.toString())));
+  }
+
   @Test
   void getPlayerHand_shouldReturn200AndCards() throws Exception {
     UUID gameId = UUID.randomUUID();
@@ -178,7 +299,7 @@ class GameControllerTest {
     List<Card> sortedCards = List.of(new Card(Suit.HEARTS, Rank.KING));
 
     DeckInfoResponse response = new DeckInfoResponse(5, counts, sortedCards);
-    when(gameService.getDeckInfo(gameId)).thenReturn(response);
+    when(gameService.getDeckInfo(gameId, 0, null)).thenReturn(response);
 
     mockMvc.perform(get("/games/" + gameId + "/deck")) // ATUALIZADO: URL
         .andExpect(status().isOk())
@@ -187,4 +308,98 @@ class GameControllerTest {
         .andExpect(jsonPath("$.sortedCards", hasSize(1)))
         .andExpect(jsonPath("$.sortedCards[0].rank", is("KING")));
   }
+
+  @Test
+  void getDeckInfo_whenReadFails_shouldReturnErrorFromCoalescedRead() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    when(gameService.getDeckInfo(gameId, 0, null)).thenThrow(new NoSuchElementException("Game not found"));
+
+    mockMvc.perform(get("/games/" + gameId + "/deck"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.error", is("Game not found")));
+  }
+
+  @Test
+  void negotiatedReads_shouldVaryByAcceptIncludingNotModified() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    when(gameService.getGameVersion(gameId)).thenReturn(7L);
+    when(gameService.getDeckInfo(gameId, 0, null)).thenReturn(new DeckInfoResponse(0, Map.of(), List.of()));
+
+    mockMvc.perform(get("/games/" + gameId + "/deck").accept(CardMediaTypes.BINARY))
+        .andExpect(status().isOk())
+        .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    mockMvc.perform(get("/games/" + gameId + "/deck").header("If-None-Match", "W/\"7\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    mockMvc.perform(get("/games/" + gameId + "/players"))
+        .andExpect(header().stringValues("Vary", not(hasItem("Accept"))));
+  }
+
+  @Test
+  void getDeckInfo_shouldReturnVersionAsETag() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    when(gameService.getGameVersion(gameId)).thenReturn(7L);
+    when(gameService.getDeckInfo(gameId, 0, null)).thenReturn(new DeckInfoResponse(0, Map.of(), List.of()));
+
+    mockMvc.perform(get("/games/" + gameId + "/deck"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "W/\"7\""));
+  }
+
+  @Test
+  void getDeckInfo_whenVersionUnchanged_shouldReturn304WithoutLoadingGame() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    when(gameService.getGameVersion(gameId)).thenReturn(7L);
+
+    mockMvc.perform(get("/games/" + gameId + "/deck").header("If-None-Match", "W/\"7\""))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/games/" + gameId + "/players").header("If-None-Match", "W/\"7\""))
+        .andExpect(status().isNotModified());
+
+    verify(gameService, never()).getDeckInfo(gameId);
+    verify(gameService, never()).getPlayersWithScores(gameId);
+  }
+
+  @Test
+  void getPlayersWithScores_whenVersionChanged_shouldReturn200() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    when(gameService.getGameVersion(gameId)).thenReturn(8L);
+    when(gameService.getPlayersWithScores(gameId)).thenReturn(List.of());
+
+    mockMvc.perform(get("/games/" + gameId + "/players").header("If-None-Match", "W/\"7\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "W/\"8\""));
+  }
+
+  @Test
+  void getDeckInfo_withCompactJsonAccept_shouldReturnCardCodes() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    Map<String, Long> counts = Map.of("HEARTS", 1L, "SPADES", 1L, "CLUBS", 0L, "DIAMONDS", 0L);
+    List<Card> sortedCards = List.of(new Card(Suit.HEARTS, Rank.KING), new Card(Suit.SPADES, Rank.TEN));
+    when(gameService.getDeckInfo(gameId, 0, null)).thenReturn(new DeckInfoResponse(2, counts, sortedCards));
+
+    mockMvc.perform(get("/games/" + gameId + "/deck").accept(CardMediaTypes.COMPACT_JSON))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(CardMediaTypes.COMPACT_JSON))
+        .andExpect(jsonPath("$.totalCards", is(2)))
+        .andExpect(jsonPath("$.suitCounts.SPADES", is(1)))
+        .andExpect(jsonPath("$.sortedCards[0]", is("KH")))
+        .andExpect(jsonPath("$.sortedCards[1]", is("TS")));
+  }
+
+  @Test
+  void getPlayerHand_withBinaryAccept_shouldReturnLengthPrefixedCodes() throws Exception {
+    UUID gameId = UUID.randomUUID();
+    UUID playerId = UUID.randomUUID();
+    List<Card> cards = List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.DIAMONDS, Rank.KING));
+    when(gameService.getPlayerHand(gameId, playerId)).thenReturn(cards);
+
+    byte[] body = mockMvc.perform(get("/games/" + gameId + "/players/" + playerId + "/cards")
+                                      .accept(CardMediaTypes.BINARY))
+                      .andExpect(status().isOk())
+                      .andExpect(content().contentTypeCompatibleWith(CardMediaTypes.BINARY))
+                      .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(body).containsExactly(0, 0, 0, 2, 0, 51);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.example.card_game_api.game;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GameLifecycleTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private GameService gameService;
+
+  @Test
+  void createGame_shouldReturnTheVersionThatIsSaved() throws Exception {
+    MvcResult created = mockMvc.perform(post("/games")).andExpect(status().isCreated()).andReturn();
+    String gameId = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+    Integer version = JsonPath.read(created.getResponse().getContentAsString(), "$.version");
+
+    mockMvc.perform(get("/games/{gameId}", gameId))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "W/\"" + version + "\""))
+        .andExpect(jsonPath("$.version").value(version));
+  }
+
+  @Test
+  void createGame_shouldSaveTheActivityTheReaperSchedulesItBy() {
+    Game created = gameService.createGame();
+
+    Instant saved = gameService.findGameById(created.getId()).getLastActivityAt();
+
+    assertThat(saved).isCloseTo(created.getLastActivityAt(), within(1, ChronoUnit.MICROS));
+    gameService.deleteGame(created.getId());
+  }
+
+  @Test
+  void undoAndFork_shouldKeepTheCardsOfTheVersionsTheyRestore() throws Exception {
+    String gameId = createGame();
+    mockMvc.perform(post("/games/{gameId}/add-deck", gameId)).andExpect(status().isOk());
+    addPlayer(gameId, "Alice");
+
+    MvcResult forked = mockMvc.perform(post("/games/{gameId}/fork", gameId)).andExpect(status().isCreated()).andReturn();
+    String forkId = JsonPath.read(forked.getResponse().getContentAsString(), "$.gameId");
+    assertThat(shoeSize(forkId)).isEqualTo(52);
+    mockMvc.perform(get("/games/{gameId}/versions", gameId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].shoeSize").value(0))
+        .andExpect(jsonPath("$[-1].shoeSize").value(52));
+
+    mockMvc.perform(post("/games/{gameId}/undo", gameId)).andExpect(status().isOk());
+    mockMvc.perform(get("/games/{gameId}/players", gameId)).andExpect(jsonPath("$.length()").value(0));
+    assertThat(shoeSize(gameId)).isEqualTo(52);
+    mockMvc.perform(post("/games/{gameId}/undo", gameId)).andExpect(status().isOk());
+    assertThat(shoeSize(gameId)).isEqualTo(0);
+  }
+
+  @Test
+  void createGames_shouldSaveTheVersionTheHistoryStartsFrom() throws Exception {
+    MvcResult created = mockMvc.perform(post("/games/bulk")
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .content("{\"games\":2,\"playerNames\":[\"Alice\"],\"decks\":1}"))
+                            .andExpect(status().isCreated())
+                            .andReturn();
+    String gameId = JsonPath.read(created.getResponse().getContentAsString(), "$.gameIds[0]");
+
+    mockMvc.perform(get("/games/{gameId}/versions", gameId))
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].version").value(1))
+        .andExpect(jsonPath("$[0].shoeSize").value(52))
+        .andExpect(jsonPath("$[0].current").value(true));
+    MvcResult forked = mockMvc.perform(post("/games/{gameId}/fork", gameId)).andExpect(status().isCreated()).andReturn();
+    String forkId = JsonPath.read(forked.getResponse().getContentAsString(), "$.gameId");
+    mockMvc.perform(get("/games/{gameId}/versions", forkId))
+        .andExpect(jsonPath("$[0].version").value(1))
+        .andExpect(jsonPath("$[0].current").value(true));
+    assertThat(shoeSize(forkId)).isEqualTo(52);
+  }
+
+  private String createGame() throws Exception {
+    MvcResult created = mockMvc.perform(post("/games")).andExpect(status().isCreated()).andReturn();
+    return JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+  }
+
+  private String addPlayer(String gameId, String name) throws Exception {
+    MvcResult added = mockMvc.perform(post("/games/{gameId}/players", gameId)
+                                          .contentType(MediaType.APPLICATION_JSON)
+                                          .content("{\"name\":\"" + name + "\"}"))
+                          .andExpect(status().isCreated())
+                          .andReturn();
+    return JsonPath.read(added.getResponse().getContentAsString(), "$.id");
+  }
+
+  private int shoeSize(String gameId) throws Exception {
+    MvcResult deck = mockMvc.perform(get("/games/{gameId}/deck", gameId)).andExpect(status().isOk()).andReturn();
+    return JsonPath.read(deck.getResponse().getContentAsString(), "$.totalCards");
+  }
+}
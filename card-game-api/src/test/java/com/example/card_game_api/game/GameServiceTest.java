@@ -3,18 +3,43 @@ package com.example.card_game_api.game;
 import com.example.card_game_api.card.Card;
 import com.example.card_game_api.card.Rank;
 import com.example.card_game_api.card.Suit;
+import com.example.card_game_api.game.dto.request.GameCommandRequest;
+import com.example.card_game_api.game.dto.request.GameCommandType;
 import com.example.card_game_api.game.dto.response.AddPlayerResponse;
+import com.example.card_game_api.game.dto.response.CommandResultResponse;
 import com.example.card_game_api.game.dto.response.DeckInfoResponse;
 import com.example.card_game_api.game.dto.response.GameSummaryResponse;
 import com.example.card_game_api.game.dto.response.PlayerScoreResponse;
+import com.example.card_game_api.game.event.CardsDealtEvent;
+import com.example.card_game_api.game.event.GameActivityEvent;
+import com.example.card_game_api.game.event.GameStateChangedEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.game.event.ShoeSizeChangedEvent;
+import com.example.card_game_api.history.GameHistory;
+import com.example.card_game_api.history.GameState;
 import com.example.card_game_api.player.Player;
 import com.example.card_game_api.player.PlayerRepository;
+import com.example.card_game_api.shoe.LargeShoe;
+import com.example.card_game_api.shoe.LargeShoeStore;
+import com.example.card_game_api.shoe.ShuffledDeckPool;
+import com.example.card_game_api.table.FastTableSeed;
+import com.example.card_game_api.table.TableDraw;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,12 +56,40 @@ class GameServiceTest {
   @Mock
   private PlayerRepository playerRepository;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private LargeShoeStore largeShoes;
+
+  @Spy
+  private ShuffledDeckPool deckPool = new ShuffledDeckPool(new SimpleMeterRegistry(), 4, 2, 8);
+
+  @Spy
+  private GameHistory history = new GameHistory(new SimpleMeterRegistry(), 10);
+
+  @TempDir
+  Path shoeDirectory;
+
   @InjectMocks
   private GameService gameService;
 
   private Game game;
   private UUID gameId;
 
+  @BeforeEach
+  void stubVersionClaims() {
+    lenient().when(gameRepository.claimVersion(any(), anyLong())).thenReturn(1);
+  }
+
+  @BeforeEach
+  void stubPlayerLookup() {
+    lenient().when(playerRepository.findByIdAndGameId(any(), any()))
+        .thenAnswer(invocation -> Optional.ofNullable(game)
+                                      .filter(g -> g.getId().equals(invocation.getArgument(1)))
+                                      .map(g -> g.findPlayer(invocation.getArgument(0))));
+  }
+
   @Test
   void getAllGames_whenNoGamesExist_shouldReturnEmptyList() {
     when(gameRepository.findAll()).thenReturn(Collections.emptyList());
@@ -77,6 +130,31 @@ class GameServiceTest {
     verify(gameRepository).save(any(Game.class));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void createGames_shouldPersistPopulatedShuffledGamesInOneBulkWrite() {
+    List<UUID> gameIds = gameService.createGames(20, List.of("Alice", "Bob"), 2);
+
+    ArgumentCaptor<List<Game>> captor = ArgumentCaptor.forClass(List.class);
+    verify(gameRepository).persistAllInBatches(captor.capture());
+    List<Game> games = captor.getValue();
+
+    assertThat(games).hasSize(20);
+    assertThat(gameIds).containsExactlyElementsOf(games.stream().map(Game::getId).toList());
+    assertThat(games).allSatisfy(created -> {
+      assertThat(created.getPlayers()).extracting(Player::getName).containsExactly("Alice", "Bob");
+      assertThat(created.getGameDeck()).hasSize(104);
+    });
+    assertThat(games.get(0).getGameDeck()).isNotEqualTo(games.get(1).getGameDeck());
+    verify(gameRepository, never()).save(any(Game.class));
+  }
+
+  @Test
+  void createGames_whenCountIsInvalid_shouldThrowException() {
+    assertThatThrownBy(() -> gameService.createGames(0, List.of(), 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void deleteGame_shouldCallRepositoryDelete() {
     doNothing().when(gameRepository).deleteById(gameId);
@@ -94,6 +172,63 @@ class GameServiceTest {
         .hasMessage("Game not found");
   }
 
+  @Test
+  void deleteIdleGames_shouldDeleteOnlyGamesIdleSinceCutoff() {
+    Instant cutoff = Instant.now();
+    Game idle = new Game();
+    idle.setLastActivityAt(cutoff.minusSeconds(60));
+    Game active = new Game();
+    active.setLastActivityAt(cutoff.plusSeconds(1));
+    UUID idleId = idle.getId();
+    UUID missingId = UUID.randomUUID();
+    when(gameRepository.findAllByIdForUpdate(List.of(idleId, active.getId(), missingId)))
+        .thenReturn(List.of(idle, active));
+
+    List<UUID> deleted = gameService.deleteIdleGames(List.of(idleId, active.getId(), missingId), cutoff);
+
+    assertThat(deleted).containsExactly(idleId);
+    verify(gameRepository).deleteAll(List.of(idle));
+    verify(eventPublisher).publishEvent(new GamesDeletedEvent(Set.of(idleId, missingId)));
+  }
+
+  @Test
+  void mutations_shouldBumpVersion() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+    gameService.shuffle(gameId);
+    gameService.dealCards(gameId, playerId, 2);
+    gameService.removePlayer(gameId, playerId);
+
+    assertThat(game.getVersion()).isEqualTo(5);
+  }
+
+  @Test
+  void getGameVersion_whenGameNotFound_shouldThrowException() {
+    UUID nonExistentId = UUID.randomUUID();
+    when(gameRepository.findVersionById(nonExistentId)).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> gameService.getGameVersion(nonExistentId))
+        .isInstanceOf(NoSuchElementException.class)
+        .hasMessage("Game not found");
+  }
+
+  @Test
+  void shuffle_shouldRefreshLastActivity() {
+    game = new Game();
+    gameId = game.getId();
+    game.setLastActivityAt(Instant.EPOCH);
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    gameService.shuffle(gameId);
+
+    assertThat(game.getLastActivityAt()).isAfter(Instant.EPOCH);
+    verify(eventPublisher).publishEvent(new GameActivityEvent(gameId, game.getLastActivityAt()));
+  }
+
   @Test
   void addDeckToGame_shouldAdd52Cards() {
     game = new Game();
@@ -120,6 +255,37 @@ class GameServiceTest {
     assertThat(shuffledOrder).containsExactlyInAnyOrderElementsOf(originalOrder);
   }
 
+  @Test
+  void newShoe_shouldReplaceUndealtCardsAndDiscardsWithAShuffledShoe() {
+    game = new Game();
+    gameId = game.getId();
+    game.getDiscardPile().add(new Card(Suit.HEARTS, Rank.ACE));
+    game.setCardsDealtSinceShuffle(10);
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    gameService.addDeckToGame(gameId);
+    deckPool.refill();
+
+    gameService.newShoe(gameId, 2);
+
+    verify(deckPool).take(2);
+    assertThat(game.getGameDeck()).hasSize(104);
+    assertThat(new HashSet<>(game.getGameDeck())).hasSize(52);
+    assertThat(game.getDiscardPile()).isEmpty();
+    assertThat(game.getCardsDealtSinceShuffle()).isZero();
+    assertThat(game.getVersion()).isEqualTo(2);
+  }
+
+  @Test
+  void newShoe_forLargeShoeGame_shouldThrowException() {
+    game = new Game();
+    gameId = game.getId();
+    game.setLargeShoe(true);
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    assertThatThrownBy(() -> gameService.newShoe(gameId, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void shuffle_whenGameNotFound_shouldThrowException() {
     UUID nonExistentId = UUID.randomUUID();
@@ -172,13 +338,14 @@ class GameServiceTest {
     gameService.removePlayer(gameId, playerId);
 
     assertThat(game.getPlayers()).isEmpty();
-    verify(gameRepository, times(2)).save(game);
+    verify(playerRepository).delete(playerToRemove);
+    verify(gameRepository, times(1)).findById(gameId);
   }
 
   @Test
   void removePlayer_whenGameNotFound_shouldThrowException() {
     UUID nonExistentId = UUID.randomUUID();
-    when(gameRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+    when(gameRepository.existsById(nonExistentId)).thenReturn(false);
 
     assertThatThrownBy(() -> gameService.removePlayer(nonExistentId, UUID.randomUUID()))
         .isInstanceOf(NoSuchElementException.class)
@@ -229,13 +396,34 @@ class GameServiceTest {
     assertThat(player.getHand()).hasSize(5);
     assertThat(player.getHand()).isEqualTo(dealtCards);
 
-    verify(gameRepository, times(2)).save(game);
+    verify(gameRepository, times(1)).save(game);
     verify(playerRepository).save(player);
+    verify(eventPublisher).publishEvent(new CardsDealtEvent(gameId, dealtCards));
+    verify(eventPublisher).publishEvent(new ShoeSizeChangedEvent(gameId, game.getVersion(), 47));
 
     deckBeforeDeal.removeAll(dealtCards);
     assertThat(deckAfterDeal).containsExactlyInAnyOrderElementsOf(deckBeforeDeal);
   }
 
+  @Test
+  void playerMutations_shouldPublishScoreChangesForLeaderboard() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+
+    List<Card> dealtCards = gameService.dealCards(gameId, playerId, 3);
+    int handValue = dealtCards.stream().mapToInt(card -> card.getRank().getValue()).sum();
+    gameService.removePlayer(gameId, playerId);
+
+    verify(eventPublisher).publishEvent(new PlayerScoresChangedEvent(gameId, 1,
+        List.of(new PlayerScoresChangedEvent.PlayerScore(playerId, "name", 0))));
+    verify(eventPublisher).publishEvent(new PlayerScoresChangedEvent(gameId, 3,
+        List.of(new PlayerScoresChangedEvent.PlayerScore(playerId, "name", handValue))));
+    verify(eventPublisher).publishEvent(new PlayersRemovedEvent(gameId, List.of(playerId)));
+  }
+
   @Test
   void dealCards_shouldReturnAll52CardsAndThenEmpty() {
     game = new Game();
@@ -264,7 +452,7 @@ class GameServiceTest {
     assertThat(game.getGameDeck()).isEmpty();
     assertThat(emptyDeal).isEmpty();
 
-    verify(gameRepository, times(53)).save(game);
+    verify(gameRepository, times(1)).save(game);
     verify(playerRepository, times(52)).save(player);
   }
 
@@ -293,7 +481,7 @@ class GameServiceTest {
   void dealCards_whenPlayerNotInGame_shouldThrowException() {
     game = new Game();
     gameId = game.getId();
-    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    when(gameRepository.existsById(gameId)).thenReturn(true);
 
     UUID invalidPlayerId = UUID.randomUUID();
 
@@ -302,6 +490,127 @@ class GameServiceTest {
         .hasMessage("Player not found in game");
   }
 
+  @Test
+  void discardHands_shouldMoveHandsToDiscardPile() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+    List<Card> dealtCards = gameService.dealCards(gameId, playerId, 5);
+
+    gameService.discardHands(gameId);
+
+    assertThat(game.getPlayers().get(0).getHand()).isEmpty();
+    assertThat(game.getDiscardPile()).containsExactlyElementsOf(dealtCards);
+    assertThat(game.getGameDeck()).hasSize(47);
+  }
+
+  @Test
+  void dealCards_whenCutCardReached_shouldRecycleDiscardsIntoShoe() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+    gameService.shuffle(gameId);
+    gameService.setCutCardPenetration(gameId, 0.5);
+
+    gameService.dealCards(gameId, playerId, 20);
+    gameService.discardHands(gameId);
+    assertThat(game.getGameDeck()).hasSize(32);
+
+    gameService.dealCards(gameId, playerId, 6);
+
+    assertThat(game.getDiscardPile()).isEmpty();
+    assertThat(game.getGameDeck()).hasSize(46);
+    assertThat(game.getCardsDealtSinceShuffle()).isZero();
+    List<Card> allCards = new ArrayList<>(game.getGameDeck());
+    allCards.addAll(game.getPlayers().get(0).getHand());
+    assertThat(allCards).hasSize(52).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void dealCards_whenShoeIsEmpty_shouldRecycleDiscardsFirst() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    game.getDiscardPile().addAll(List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.CLUBS, Rank.TWO)));
+
+    List<Card> dealtCards = gameService.dealCards(gameId, playerId, 1);
+
+    assertThat(dealtCards).hasSize(1);
+    assertThat(game.getGameDeck()).hasSize(1);
+    assertThat(game.getDiscardPile()).isEmpty();
+  }
+
+  @Test
+  void largeShoe_shouldDealShuffleDiscardAndPageFromMappedShoe() {
+    game = new Game();
+    game.setLargeShoe(true);
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    LargeShoe shoe = LargeShoe.open(shoeDirectory.resolve(gameId + ".shoe"));
+    when(largeShoes.shoe(gameId)).thenReturn(shoe);
+    when(largeShoes.shoeForUpdate(gameId)).thenReturn(shoe);
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId, 100);
+    gameService.shuffle(gameId);
+    List<Card> dealtCards = gameService.dealCards(gameId, playerId, 10);
+    gameService.discardHands(gameId);
+
+    assertThat(game.getGameDeck()).isEmpty();
+    assertThat(game.getDiscardPile()).isEmpty();
+    assertThat(dealtCards).hasSize(10);
+    assertThat(shoe.size()).isEqualTo(5190);
+    assertThat(shoe.discardedCount()).isEqualTo(10);
+
+    DeckInfoResponse deckInfo = gameService.getDeckInfo(gameId, 100, 5);
+    assertThat(deckInfo.getTotalCards()).isEqualTo(5190);
+    assertThat(deckInfo.getSuitCounts().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(5190);
+    assertThat(deckInfo.getSortedCards()).hasSize(5);
+    assertThatThrownBy(() -> gameService.getDeckInfo(gameId, 0, 10001))
+        .isInstanceOf(IllegalArgumentException.class);
+    shoe.close();
+  }
+
+  @Test
+  void addDeckToGame_whenCountIsOutOfRange_shouldThrowException() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    assertThatThrownBy(() -> gameService.addDeckToGame(gameId, 17))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void getDeckInfo_shouldReturnRequestedPageOfSortedCards() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    gameService.addDeckToGame(gameId);
+
+    DeckInfoResponse deckInfo = gameService.getDeckInfo(gameId, 12, 2);
+
+    assertThat(deckInfo.getTotalCards()).isEqualTo(52);
+    assertThat(deckInfo.getSortedCards()).containsExactly(
+        new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.SPADES, Rank.KING));
+  }
+
+  @Test
+  void setCutCardPenetration_whenOutOfRange_shouldThrowException() {
+    assertThatThrownBy(() -> gameService.setCutCardPenetration(UUID.randomUUID(), 1.5))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> gameService.setCutCardPenetration(UUID.randomUUID(), 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void getPlayerHand_shouldReturnPlayerCards() {
     game = new Game();
@@ -319,6 +628,8 @@ class GameServiceTest {
     List<Card> hand = gameService.getPlayerHand(gameId, playerId);
 
     assertThat(hand).containsExactly(card1);
+    verify(playerRepository).findByIdAndGameId(playerId, gameId);
+    verify(gameRepository, times(1)).findById(gameId);
   }
 
   @Test
@@ -382,4 +693,295 @@ class GameServiceTest {
         cTwo
     );
   }
-}
+
+  @Test
+  void executeCommands_shouldRunWholeBatchWithOneLoadAndOneSave() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    List<GameCommandRequest> commands = List.of(
+        command(GameCommandType.ADD_PLAYER, "Alice", null, null, 1),
+        command(GameCommandType.ADD_PLAYER, "Bob", null, null, 1),
+        command(GameCommandType.ADD_DECKS, null, null, null, 2),
+        command(GameCommandType.SHUFFLE, null, null, null, 1),
+        command(GameCommandType.DEAL, null, null, 0, 2),
+        command(GameCommandType.DEAL, null, null, 1, 3)
+    );
+
+    List<CommandResultResponse> results = gameService.executeCommands(gameId, commands);
+
+    assertThat(results).hasSize(6);
+    assertThat(results.get(0).getPlayerName()).isEqualTo("Alice");
+    assertThat(results.get(2).getDeckSize()).isEqualTo(104);
+    assertThat(results.get(4).getCards()).hasSize(2);
+    assertThat(results.get(5).getPlayerId()).isEqualTo(results.get(1).getPlayerId());
+    assertThat(results.get(5).getCards()).hasSize(3);
+    assertThat(results.get(5).getDeckSize()).isEqualTo(99);
+    assertThat(game.getPlayers()).extracting(Player::getName).containsExactly("Alice", "Bob");
+    assertThat(game.getPlayers().get(1).getHand()).isEqualTo(results.get(5).getCards());
+
+    verify(gameRepository, times(1)).findById(gameId);
+    verify(gameRepository, times(1)).save(game);
+  }
+
+  @Test
+  void executeCommands_shouldRemoveExistingPlayer() {
+    game = new Game();
+    gameId = game.getId();
+    Player player = new Player("name", game);
+    game.getPlayers().add(player);
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    gameService.executeCommands(gameId, List.of(
+        command(GameCommandType.REMOVE_PLAYER, null, player.getId(), null, 1)));
+
+    assertThat(game.getPlayers()).isEmpty();
+  }
+
+  @Test
+  void executeCommands_whenPlayerRefIsInvalid_shouldThrowException() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    assertThatThrownBy(() -> gameService.executeCommands(gameId, List.of(
+        command(GameCommandType.ADD_DECKS, null, null, null, 1),
+        command(GameCommandType.DEAL, null, null, 0, 1))))
+        .isInstanceOf(IllegalArgumentException.class);
+    verify(gameRepository, never()).save(game);
+  }
+
+  @Test
+  void executeCommands_whenPlayerRefPointsToARemovedPlayer_shouldThrowException() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    assertThatThrownBy(() -> gameService.executeCommands(gameId, List.of(
+        command(GameCommandType.ADD_PLAYER, "Alice", null, null, 1),
+        command(GameCommandType.ADD_DECKS, null, null, null, 1),
+        command(GameCommandType.REMOVE_PLAYER, null, null, 0, 1),
+        command(GameCommandType.DEAL, null, null, 0, 1))))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("playerRef must point to an earlier ADD_PLAYER command");
+    verify(gameRepository, never()).save(game);
+  }
+
+  @Test
+  void executeCommands_whenEmpty_shouldThrowException() {
+    assertThatThrownBy(() -> gameService.executeCommands(UUID.randomUUID(), List.of()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("At least one command is required");
+  }
+
+  @Test
+  void mutations_shouldKeepGameStateInStepWithGame() {
+    createTrackedGame();
+
+    UUID alice = gameService.addPlayer(gameId, "Alice").getId();
+    UUID bob = gameService.addPlayer(gameId, "Bob").getId();
+    gameService.addDeckToGame(gameId, 2);
+    gameService.shuffle(gameId);
+    gameService.setCutCardPenetration(gameId, 0.3);
+    for (int round = 0; round < 10; round++) {
+      gameService.dealCards(gameId, alice, 3);
+      gameService.dealCards(gameId, bob, 4);
+      assertStateMatchesGame();
+      gameService.discardHands(gameId);
+    }
+    gameService.executeCommands(gameId, List.of(
+        command(GameCommandType.ADD_PLAYER, "Carol", null, null, 1),
+        command(GameCommandType.DEAL, null, null, 0, 5),
+        command(GameCommandType.REMOVE_PLAYER, null, alice, null, 1)));
+    assertStateMatchesGame();
+    gameService.removePlayer(gameId, bob);
+    gameService.newShoe(gameId, 1);
+
+    assertStateMatchesGame();
+    assertThat(game.getState().version()).isEqualTo(game.getVersion());
+  }
+
+  @Test
+  void undo_shouldStepBackThroughRetainedVersions() {
+    recordHistory();
+    createTrackedGame();
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+    List<Card> shoe = List.copyOf(game.getGameDeck());
+    gameService.dealCards(gameId, playerId, 5);
+    gameService.removePlayer(gameId, playerId);
+    gameService.undo(gameId, null);
+    assertThat(game.getPlayers()).extracting(Player::getId).containsExactly(playerId);
+    assertThat(game.getPlayers().get(0).getHand()).hasSize(5);
+
+    gameService.undo(gameId, null);
+    assertThat(game.getPlayers().get(0).getHand()).isEmpty();
+    assertThat(game.getGameDeck()).isEqualTo(shoe);
+    assertThat(game.getVersion()).isEqualTo(7);
+    verify(eventPublisher, atLeastOnce()).publishEvent(new PlayerScoresChangedEvent(gameId, 7,
+        List.of(new PlayerScoresChangedEvent.PlayerScore(playerId, "name", 0))));
+
+    gameService.undo(gameId, null);
+    assertThat(game.getGameDeck()).isEmpty();
+    gameService.undo(gameId, null);
+    assertThat(game.getPlayers()).isEmpty();
+    assertThatThrownBy(() -> gameService.undo(gameId, null))
+        .isInstanceOf(NoSuchElementException.class);
+    assertThatThrownBy(() -> gameService.undo(gameId, 9L))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void fork_shouldCopyRetainedVersionWithNewPlayerIds() {
+    recordHistory();
+    createTrackedGame();
+
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+    gameService.dealCards(gameId, playerId, 2);
+    List<Card> hand = List.copyOf(game.getPlayers().get(0).getHand());
+    gameService.dealCards(gameId, playerId, 3);
+
+    Game fork = gameService.fork(gameId, 4L);
+
+    assertThat(fork.getId()).isNotEqualTo(gameId);
+    assertThat(fork.getVersion()).isEqualTo(1);
+    assertThat(fork.getPlayers()).hasSize(1);
+    assertThat(fork.getPlayers().get(0).getId()).isNotEqualTo(playerId);
+    assertThat(fork.getPlayers().get(0).getHand()).isEqualTo(hand);
+    assertThat(fork.getGameDeck()).hasSize(50);
+    assertThat(game.getGameDeck()).hasSize(47);
+    verify(gameRepository).persistAllInBatches(List.of(fork));
+  }
+
+  @Test
+  void undo_whenLargeShoe_shouldThrowException() {
+    game = new Game();
+    game.setLargeShoe(true);
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+
+    assertThatThrownBy(() -> gameService.undo(gameId, null))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("A large-shoe game keeps no version history");
+  }
+
+  @Test
+  void checkMutation_shouldRejectUpFrontAndKeepLargeShoesOutOfGroupCommits() {
+    UUID heapGame = UUID.randomUUID();
+    UUID largeGame = UUID.randomUUID();
+    UUID tableGame = UUID.randomUUID();
+    UUID playerId = UUID.randomUUID();
+    when(gameRepository.findModeById(any())).thenReturn(Optional.empty());
+    when(gameRepository.findModeById(heapGame)).thenReturn(Optional.of(new GameMode(false, false)));
+    when(gameRepository.findModeById(largeGame)).thenReturn(Optional.of(new GameMode(true, false)));
+    when(gameRepository.findModeById(tableGame)).thenReturn(Optional.of(new GameMode(false, true)));
+    when(playerRepository.existsByIdAndGameId(playerId, heapGame)).thenReturn(true);
+
+    assertThat(gameService.checkPlayerMutation(heapGame, playerId)).isTrue();
+    assertThat(gameService.checkAddDecks(largeGame, 100)).isFalse();
+    assertThatThrownBy(() -> gameService.checkMutation(UUID.randomUUID()))
+        .isInstanceOf(NoSuchElementException.class)
+        .hasMessage("Game not found");
+    assertThatThrownBy(() -> gameService.checkPlayerMutation(heapGame, UUID.randomUUID()))
+        .isInstanceOf(NoSuchElementException.class)
+        .hasMessage("Player not found in game");
+    assertThatThrownBy(() -> gameService.checkMutation(tableGame))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> gameService.checkAddDecks(heapGame, 100))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> gameService.checkCutCard(heapGame, 1.5))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void fastTable_shouldSaveTableDrawsAndRefuseOtherMutationsWhileOpen() {
+    createTrackedGame();
+    UUID alice = gameService.addPlayer(gameId, "Alice").getId();
+    UUID bob = gameService.addPlayer(gameId, "Bob").getId();
+    gameService.addDeckToGame(gameId);
+    List<Card> shoe = List.copyOf(game.shoeFromTop());
+
+    FastTableSeed seed = gameService.openFastTable(gameId);
+    assertThat(seed.shoe()).hasSize(52);
+    assertThat(seed.seats()).extracting(FastTableSeed.Seat::playerId).containsExactly(alice, bob);
+    assertThatThrownBy(() -> gameService.dealCards(gameId, alice, 1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("The game is open as a fast table, close the table first");
+
+    gameService.applyTableDraws(gameId, List.of(
+        new TableDraw(bob, shoe.subList(0, 2)), new TableDraw(alice, shoe.subList(2, 3))));
+    assertThatThrownBy(() -> gameService.applyTableDraws(gameId, List.of(new TableDraw(alice, shoe.subList(0, 1)))))
+        .isInstanceOf(IllegalStateException.class);
+    gameService.closeFastTable(gameId);
+
+    assertThat(game.findPlayer(bob).getHand()).isEqualTo(shoe.subList(0, 2));
+    assertThat(game.findPlayer(alice).getHand()).isEqualTo(shoe.subList(2, 3));
+    assertThat(game.shoeFromTop()).isEqualTo(shoe.subList(3, 52));
+    assertStateMatchesGame();
+    verify(eventPublisher).publishEvent(new CardsDealtEvent(gameId, shoe.subList(0, 3)));
+    assertThat(gameService.dealCards(gameId, alice, 1)).containsExactly(shoe.get(3));
+  }
+
+  @Test
+  void dealCards_whenVersionNotRetained_shouldNotRebuildTheStateUntilForked() {
+    game = new Game();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+    recordHistory();
+    UUID playerId = gameService.addPlayer(gameId, "name").getId();
+    gameService.addDeckToGame(gameId);
+
+    gameService.dealCards(gameId, playerId, 2);
+
+    assertThat(game.getState()).isNull();
+    assertThat(history.versions(gameId)).isEmpty();
+    verify(eventPublisher, never()).publishEvent(any(GameStateChangedEvent.class));
+
+    Game fork = gameService.fork(gameId, null);
+    assertThat(fork.getGameDeck()).hasSize(50);
+    assertThat(history.latest(gameId).version()).isEqualTo(game.getVersion());
+    gameService.dealCards(gameId, playerId, 1);
+    assertStateMatchesGame();
+    assertThat(history.versions(gameId)).hasSize(2);
+  }
+
+  private void createTrackedGame() {
+    when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    game = gameService.createGame();
+    gameId = game.getId();
+    when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+  }
+
+  private void recordHistory() {
+    lenient().doAnswer(invocation -> {
+      history.onGameStateChanged(invocation.getArgument(0));
+      return null;
+    }).when(eventPublisher).publishEvent(any(GameStateChangedEvent.class));
+  }
+
+  private void assertStateMatchesGame() {
+    GameState state = game.getState();
+    GameState expected = GameState.of(game);
+    assertThat(state.shoe().toList()).isEqualTo(expected.shoe().toList());
+    assertThat(state.discards().toList()).isEqualTo(expected.discards().toList());
+    assertThat(state.cardsDealtSinceShuffle()).isEqualTo(expected.cardsDealtSinceShuffle());
+    assertThat(state.cutCardPenetration()).isEqualTo(expected.cutCardPenetration());
+    assertThat(state.players()).hasSize(expected.players().size());
+    for (GameState.PlayerState player : expected.players()) {
+      assertThat(state.player(player.id()).hand().toList()).isEqualTo(player.hand().toList());
+    }
+  }
+
+  private static GameCommandRequest command(GameCommandType type, String name, UUID playerId, Integer playerRef, int amount) {
+    GameCommandRequest command = new GameCommandRequest();
+    command.setType(type);
+    command.setName(name);
+    command.setPlayerId(playerId);
+    command.setPlayerRef(playerRef);
+    command.setAmount(amount);
+    return command;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.card_game_api.game;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class GameVersionConcurrencyTest {
+
+  @Autowired
+  private GameService gameService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  void mutationOfAStaleGame_shouldFailInsteadOfReusingTheVersion() {
+    UUID gameId = gameService.createGame().getId();
+    long startVersion = gameService.getGameVersion(gameId);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+        // This transaction holds the game as of startVersion while another mutation commits
+        gameService.findGameById(gameId);
+        try {
+          executor.submit(() -> gameService.addPlayer(gameId, "Bob")).get();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+        gameService.setCutCardPenetration(gameId, 0.5);
+      })).isInstanceOf(ConcurrencyFailureException.class);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(gameService.getGameVersion(gameId)).isEqualTo(startVersion + 1);
+    Integer players = transactionTemplate.execute(status -> gameService.findGameById(gameId).getPlayers().size());
+    assertThat(players).isEqualTo(1);
+    gameService.deleteGame(gameId);
+  }
+
+  @Test
+  void idleGameDeletion_shouldKeepAGameTouchedByAConcurrentMutation() throws Exception {
+    UUID gameId = gameService.createGame().getId();
+    Thread.sleep(5);
+    Instant cutoff = Instant.now();
+    Thread.sleep(5);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<UUID>> deleted = transactionTemplate.execute(status -> {
+        // The mutation holds the game's row while the reaper looks at it
+        gameService.addPlayer(gameId, "Bob");
+        Future<List<UUID>> deletion = executor.submit(() -> gameService.deleteIdleGames(List.of(gameId), cutoff));
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return deletion;
+      });
+
+      assertThat(deleted.get()).isEmpty();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(gameService.getGameVersion(gameId)).isPositive();
+    gameService.deleteGame(gameId);
+  }
+
+  @Test
+  void concurrentMutations_shouldNeverCommitTheSameVersion() throws Exception {
+    UUID gameId = gameService.createGame().getId();
+    UUID playerId = gameService.addPlayer(gameId, "Alice").getId();
+    gameService.addDeckToGame(gameId, 2);
+    long startVersion = gameService.getGameVersion(gameId);
+
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    int committed = 0;
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          int done = 0;
+          for (int i = 0; i < 10; i++) {
+            try {
+              done += gameService.dealCards(gameId, playerId, 1).size();
+            } catch (ConcurrencyFailureException e) {
+              // Lost the race for the next version
+            }
+          }
+          return done;
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> future : futures) {
+        committed += future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // One version per committed deal, and no deal overwritten by another
+    assertThat(committed).isPositive();
+    assertThat(gameService.getGameVersion(gameId)).isEqualTo(startVersion + committed);
+    assertThat(gameService.getPlayerHand(gameId, playerId)).hasSize(committed);
+    Integer shoeSize = transactionTemplate.execute(status -> gameService.findGameById(gameId).getGameDeck().size());
+    assertThat(shoeSize).isEqualTo(104 - committed);
+    gameService.deleteGame(gameId);
+  }
+}
@@ -0,0 +1,239 @@
+package com.example.card_game_api.groupcommit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitExecutorTest {
+
+  // UUID.hashCode of these is 0 and 1: one game in each of the two lanes
+  private static final UUID GAME = new UUID(0, 0);
+  private static final UUID OTHER_LANE_GAME = new UUID(0, 1);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+  private final GroupCommitExecutor groupCommit =
+      new GroupCommitExecutor(transactionManager, meterRegistry, true, Duration.ZERO, 64, 2);
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+    groupCommit.shutdown();
+  }
+
+  @Test
+  void execute_mutationsQueuedDuringACommit_shouldCommitTogether() throws Exception {
+    CountDownLatch release = blockCommitter();
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      int value = i;
+      results.add(executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> mutation(value))));
+    }
+    awaitQueued(5);
+    release.countDown();
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+    }
+    assertThat(transactionManager.commits).hasValue(2);
+    assertThat(meterRegistry.get("game.group-commit.batch.size").summary().max()).isEqualTo(5);
+  }
+
+  @Test
+  void execute_failingMutation_shouldFailOnlyItsCallerAndCommitTheRest() throws Exception {
+    CountDownLatch release = blockCommitter();
+    AtomicInteger firstRuns = new AtomicInteger();
+    Future<Integer> first = executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> {
+      firstRuns.incrementAndGet();
+      return mutation(1);
+    }));
+    awaitQueued(1);
+    Future<Integer> failing = executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> {
+      transactionManager.unitsInTransaction.incrementAndGet();
+      throw new NoSuchElementException("Player not found");
+    }));
+    awaitQueued(2);
+    Future<Integer> last = executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> mutation(3)));
+    awaitQueued(3);
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(last.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+    assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(NoSuchElementException.class);
+    assertThat(firstRuns).hasValue(2);
+    assertThat(transactionManager.rollbacks).hasValue(1);
+    assertThat(transactionManager.commits).hasValue(2);
+    assertThat(meterRegistry.get("game.group-commit.retries").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_failedBatchCommit_shouldFallBackToOneTransactionPerMutation() throws Exception {
+    transactionManager.failBatchCommits = true;
+    CountDownLatch release = blockCommitter();
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      int value = i;
+      results.add(executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> mutation(value))));
+    }
+    awaitQueued(3);
+    release.countDown();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+    }
+    assertThat(transactionManager.commits).hasValue(4);
+    assertThat(meterRegistry.get("game.group-commit.fallbacks").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_secondFailingMutation_shouldRunTheRestOnePerTransaction() throws Exception {
+    CountDownLatch release = blockCommitter();
+    AtomicInteger firstRuns = new AtomicInteger();
+    Future<Integer> first = executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> {
+      firstRuns.incrementAndGet();
+      return mutation(1);
+    }));
+    awaitQueued(1);
+    List<Future<Integer>> failing = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      failing.add(executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> {
+        transactionManager.unitsInTransaction.incrementAndGet();
+        throw new NoSuchElementException("Player not found");
+      })));
+      awaitQueued(2 + i);
+    }
+    Future<Integer> last = executor.submit(() -> groupCommit.execute(GAME, () -> true, () -> mutation(4)));
+    awaitQueued(4);
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(last.get(5, TimeUnit.SECONDS)).isEqualTo(4);
+    for (Future<Integer> future : failing) {
+      assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoSuchElementException.class);
+    }
+    // The batch, its one retry, then on its own
+    assertThat(firstRuns).hasValue(3);
+    assertThat(transactionManager.rollbacks).hasValue(2);
+    assertThat(meterRegistry.get("game.group-commit.retries").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("game.group-commit.fallbacks").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_failedCheck_shouldNeverJoinABatch() {
+    assertThatThrownBy(() -> groupCommit.execute(GAME, () -> {
+      throw new NoSuchElementException("Game not found");
+    }, () -> mutation(1))).isInstanceOf(NoSuchElementException.class);
+
+    // Not database-only: runs right away on the calling thread
+    String thread = groupCommit.execute(GAME, () -> false, () -> Thread.currentThread().getName());
+
+    assertThat(thread).isEqualTo(Thread.currentThread().getName());
+    assertThat(transactionManager.commits).hasValue(0);
+    assertThat(transactionManager.rollbacks).hasValue(0);
+  }
+
+  @Test
+  void execute_gamesInOtherLanes_shouldNotWaitForABusyLane() throws Exception {
+    CountDownLatch release = blockCommitter();
+    try {
+      Future<String> other = executor.submit(() -> groupCommit.execute(OTHER_LANE_GAME, () -> true,
+          () -> Thread.currentThread().getName()));
+
+      assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("group-commit-1");
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void execute_whenDisabled_shouldRunOnTheCallingThread() {
+    GroupCommitExecutor disabled = new GroupCommitExecutor(transactionManager, new SimpleMeterRegistry(), false,
+        Duration.ZERO, 64, 2);
+
+    String thread = disabled.execute(GAME, () -> true, () -> Thread.currentThread().getName());
+
+    assertThat(thread).isEqualTo(Thread.currentThread().getName());
+    assertThat(transactionManager.commits).hasValue(0);
+  }
+
+  private int mutation(int value) {
+    transactionManager.unitsInTransaction.incrementAndGet();
+    return value;
+  }
+
+  // Keeps the committer busy with a batch of its own until released
+  private CountDownLatch blockCommitter() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit(() -> groupCommit.run(GAME, () -> true, () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    return release;
+  }
+
+  private void awaitQueued(int count) {
+    while (meterRegistry.get("game.group-commit.queue").gauge().value() < count) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+    final AtomicInteger commits = new AtomicInteger();
+    final AtomicInteger rollbacks = new AtomicInteger();
+    final AtomicInteger unitsInTransaction = new AtomicInteger();
+    volatile boolean failBatchCommits;
+
+    @Override
+    protected Object doGetTransaction() {
+      return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+      unitsInTransaction.set(0);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+      if (failBatchCommits && unitsInTransaction.get() > 1) {
+        throw new TransactionSystemException("Could not commit the transaction");
+      }
+      commits.incrementAndGet();
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+      rollbacks.incrementAndGet();
+    }
+  }
+}
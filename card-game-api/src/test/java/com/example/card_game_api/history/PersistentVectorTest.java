@@ -0,0 +1,108 @@
+package com.example.card_game_api.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistentVectorTest {
+
+  @Test
+  void randomOperations_shouldMatchArrayListAndStayBalanced() {
+    Random random = new Random(42);
+    PersistentVector<Integer> vector = PersistentVector.empty();
+    List<Integer> expected = new ArrayList<>();
+
+    for (int step = 0; step < 5000; step++) {
+      int size = expected.size();
+      switch (random.nextInt(7)) {
+        case 0, 1 -> {
+          int index = random.nextInt(size + 1);
+          vector = vector.insert(index, step);
+          expected.add(index, step);
+        }
+        case 2 -> {
+          vector = vector.append(step);
+          expected.add(step);
+        }
+        case 3 -> {
+          if (size > 0) {
+            int index = random.nextInt(size);
+            vector = vector.remove(index);
+            expected.remove(index);
+          }
+        }
+        case 4 -> {
+          int count = random.nextInt(5);
+          vector = vector.drop(count);
+          expected.subList(0, Math.min(count, size)).clear();
+        }
+        case 5 -> {
+          List<Integer> added = IntStream.range(0, random.nextInt(60)).boxed().toList();
+          vector = vector.appendAll(added);
+          expected.addAll(added);
+        }
+        default -> {
+          if (size > 0) {
+            int index = random.nextInt(size);
+            vector = vector.set(index, -step);
+            expected.set(index, -step);
+          }
+        }
+      }
+      assertThat(vector.size()).isEqualTo(expected.size());
+      // An AVL tree is never more than about 1.44 log2(n) high
+      assertThat(vector.height()).isLessThanOrEqualTo((int) (1.45 * log2(vector.size() + 2)));
+    }
+    assertThat(vector.toList()).isEqualTo(expected);
+    for (int i = 0; i < expected.size(); i += 7) {
+      assertThat(vector.get(i)).isEqualTo(expected.get(i));
+    }
+  }
+
+  @Test
+  void updates_shouldLeaveEarlierVersionsUnchanged() {
+    PersistentVector<Integer> original = PersistentVector.of(List.of(1, 2, 3, 4, 5));
+
+    PersistentVector<Integer> dropped = original.drop(2);
+    PersistentVector<Integer> inserted = original.insert(1, 9);
+    PersistentVector<Integer> concatenated = dropped.concat(original);
+
+    assertThat(original.toList()).containsExactly(1, 2, 3, 4, 5);
+    assertThat(dropped.toList()).containsExactly(3, 4, 5);
+    assertThat(inserted.toList()).containsExactly(1, 9, 2, 3, 4, 5);
+    assertThat(concatenated.toList()).containsExactly(3, 4, 5, 1, 2, 3, 4, 5);
+    assertThat(original.take(2).toList()).containsExactly(1, 2);
+  }
+
+  @Test
+  void concat_ofUnevenVectors_shouldStayBalanced() {
+    PersistentVector<Integer> small = PersistentVector.of(List.of(-1));
+    PersistentVector<Integer> large = PersistentVector.of(IntStream.range(0, 10000).boxed().toList());
+
+    PersistentVector<Integer> vector = small.concat(large).concat(small);
+
+    assertThat(vector.size()).isEqualTo(10002);
+    assertThat(vector.get(0)).isEqualTo(-1);
+    assertThat(vector.get(5000)).isEqualTo(4999);
+    assertThat(vector.get(10001)).isEqualTo(-1);
+    assertThat(vector.height()).isLessThanOrEqualTo((int) (1.45 * log2(10004)));
+  }
+
+  @Test
+  void get_whenIndexIsOutOfBounds_shouldThrowException() {
+    PersistentVector<Integer> vector = PersistentVector.of(List.of(1, 2));
+
+    assertThatThrownBy(() -> vector.get(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> vector.insert(3, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  private static double log2(int n) {
+    return Math.log(n) / Math.log(2);
+  }
+}
@@ -0,0 +1,176 @@
+package com.example.card_game_api.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTest {
+
+  @Test
+  void execute_withSameKey_shouldRunActionOnceAndReplayResponse() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    UUID gameId = UUID.randomUUID();
+    AtomicInteger calls = new AtomicInteger();
+
+    ResponseEntity<Integer> first = store.execute(gameId, "key", null, () ->
+        ResponseEntity.status(HttpStatus.CREATED).body(calls.incrementAndGet()));
+    ResponseEntity<Integer> retry = store.execute(gameId, "key", null, () ->
+        ResponseEntity.status(HttpStatus.CREATED).body(calls.incrementAndGet()));
+
+    assertThat(calls).hasValue(1);
+    assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    assertThat(retry.getBody()).isEqualTo(first.getBody());
+    assertThat(retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+  }
+
+  @Test
+  void execute_withSameKeyInAnotherGame_shouldRunActionAgain() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    AtomicInteger calls = new AtomicInteger();
+
+    store.execute(UUID.randomUUID(), "key", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(UUID.randomUUID(), "key", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void execute_withoutKey_shouldAlwaysRunAction() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    AtomicInteger calls = new AtomicInteger();
+
+    store.execute(null, null, null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(null, " ", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+    assertThat(calls).hasValue(2);
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  void execute_whenActionFails_shouldNotStoreResponse() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    UUID gameId = UUID.randomUUID();
+
+    assertThatThrownBy(() -> store.execute(gameId, "key", null, () -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class);
+
+    ResponseEntity<String> retry = store.execute(gameId, "key", null, () -> ResponseEntity.ok("done"));
+    assertThat(retry.getBody()).isEqualTo("done");
+  }
+
+  @Test
+  void execute_whenActionThrowsAnError_shouldNotLeaveTheKeyPending() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    UUID gameId = UUID.randomUUID();
+
+    assertThatThrownBy(() -> store.execute(gameId, "key", null, () -> {
+      throw new StackOverflowError("boom");
+    })).isInstanceOf(StackOverflowError.class);
+
+    assertThat(store.size()).isZero();
+    ResponseEntity<String> retry = store.execute(gameId, "key", null, () -> ResponseEntity.ok("done"));
+    assertThat(retry.getBody()).isEqualTo("done");
+  }
+
+  @Test
+  void execute_shouldEvictOldestEntryWhenFull() {
+    IdempotencyStore store = store(2, Duration.ofMinutes(1));
+    UUID gameId = UUID.randomUUID();
+    AtomicInteger calls = new AtomicInteger();
+
+    store.execute(gameId, "a", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(gameId, "b", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(gameId, "c", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(gameId, "a", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+    assertThat(calls).hasValue(4);
+    assertThat(store.size()).isEqualTo(2);
+  }
+
+  @Test
+  void execute_withSameKeyForAnotherRequest_shouldRefuseIt() {
+    IdempotencyStore store = store(10, Duration.ofMinutes(1));
+    UUID gameId = UUID.randomUUID();
+    AtomicInteger calls = new AtomicInteger();
+
+    store.execute(gameId, "key", Map.of("amount", 1), () -> ResponseEntity.ok(calls.incrementAndGet()));
+    assertThatThrownBy(() -> store.execute(gameId, "key", Map.of("amount", 2),
+        () -> ResponseEntity.ok(calls.incrementAndGet())))
+        .isInstanceOf(IdempotencyKeyReusedException.class);
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("DELETE", "/games")));
+    try {
+      assertThatThrownBy(() -> store.execute(gameId, "key", Map.of("amount", 1),
+          () -> ResponseEntity.ok(calls.incrementAndGet())))
+          .isInstanceOf(IdempotencyKeyReusedException.class);
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void execute_whenFirstRequestIsStillRunning_shouldStopWaitingAfterTimeout() throws Exception {
+    IdempotencyStore store = new IdempotencyStore(10, Duration.ofMinutes(1), Duration.ofMillis(50), new ObjectMapper());
+    UUID gameId = UUID.randomUUID();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<ResponseEntity<String>> first = executor.submit(() -> store.execute(gameId, "key", null, () -> {
+        started.countDown();
+        await(release);
+        return ResponseEntity.ok("done");
+      }));
+      started.await();
+
+      assertThatThrownBy(() -> store.execute(gameId, "key", null, () -> ResponseEntity.ok("again")))
+          .isInstanceOf(IdempotentRequestPendingException.class);
+      release.countDown();
+      assertThat(first.get().getBody()).isEqualTo("done");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void execute_shouldExpireEntriesAfterTtl() {
+    IdempotencyStore store = store(10, Duration.ZERO);
+    UUID gameId = UUID.randomUUID();
+    AtomicInteger calls = new AtomicInteger();
+
+    store.execute(gameId, "key", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+    store.execute(gameId, "key", null, () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+    assertThat(calls).hasValue(2);
+  }
+
+  private static IdempotencyStore store(int maxEntries, Duration ttl) {
+    return new IdempotencyStore(maxEntries, ttl, Duration.ofSeconds(5), new ObjectMapper());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.card_game_api.leaderboard;
+
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent.PlayerScore;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.leaderboard.dto.response.LeaderboardEntryResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeaderboardTest {
+
+  private final Leaderboard leaderboard = new Leaderboard(new SimpleMeterRegistry());
+
+  @Test
+  void top_shouldRankPlayersAcrossGamesWithSharedRanksForTies() {
+    UUID gameA = UUID.randomUUID();
+    UUID gameB = UUID.randomUUID();
+    PlayerScore alice = score("Alice", 30);
+    PlayerScore bob = score("Bob", 12);
+    PlayerScore carol = score("Carol", 30);
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameA, 1, List.of(alice, bob)));
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameB, 1, List.of(carol)));
+
+    List<LeaderboardEntryResponse> top = leaderboard.top(10);
+
+    assertThat(top).extracting(LeaderboardEntryResponse::getPlayerName)
+        .containsExactlyInAnyOrder("Alice", "Carol", "Bob");
+    assertThat(top).extracting(LeaderboardEntryResponse::getRank).containsExactly(1L, 1L, 3L);
+    assertThat(top.get(2).getGameId()).isEqualTo(gameA);
+    assertThat(leaderboard.top(1)).hasSize(1);
+    assertThat(leaderboard.standingOf(bob.playerId()).getRank()).isEqualTo(3);
+    assertThat(leaderboard.standingOf(carol.playerId()).getRank()).isEqualTo(1);
+  }
+
+  @Test
+  void onPlayerScoresChanged_shouldMovePlayerAndIgnoreOlderVersions() {
+    UUID gameId = UUID.randomUUID();
+    PlayerScore alice = score("Alice", 5);
+    PlayerScore bob = score("Bob", 10);
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 1, List.of(alice, bob)));
+
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 3,
+        List.of(new PlayerScore(alice.playerId(), "Alice", 2000))));
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 2,
+        List.of(new PlayerScore(alice.playerId(), "Alice", 7))));
+
+    assertThat(leaderboard.standingOf(alice.playerId()).getTotalValue()).isEqualTo(2000);
+    assertThat(leaderboard.standingOf(alice.playerId()).getRank()).isEqualTo(1);
+    assertThat(leaderboard.standingOf(bob.playerId()).getRank()).isEqualTo(2);
+    assertThat(leaderboard.size()).isEqualTo(2);
+  }
+
+  @Test
+  void removals_shouldDropPlayersAndWholeGames() {
+    UUID gameA = UUID.randomUUID();
+    UUID gameB = UUID.randomUUID();
+    PlayerScore alice = score("Alice", 5);
+    PlayerScore bob = score("Bob", 10);
+    PlayerScore carol = score("Carol", 15);
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameA, 1, List.of(alice, bob)));
+    leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameB, 1, List.of(carol)));
+
+    leaderboard.onPlayersRemoved(new PlayersRemovedEvent(gameA, List.of(bob.playerId())));
+    assertThat(leaderboard.standingOf(alice.playerId()).getRank()).isEqualTo(2);
+
+    leaderboard.onGamesDeleted(new GamesDeletedEvent(List.of(gameB)));
+    assertThat(leaderboard.standingOf(alice.playerId()).getRank()).isEqualTo(1);
+    assertThat(leaderboard.top(10)).extracting(LeaderboardEntryResponse::getPlayerName).containsExactly("Alice");
+    assertThatThrownBy(() -> leaderboard.standingOf(carol.playerId())).isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  void top_shouldRejectLimitOutOfRange() {
+    assertThatThrownBy(() -> leaderboard.top(0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> leaderboard.top(Leaderboard.MAX_LIMIT + 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void concurrentUpdates_shouldLeaveRankingConsistent() throws Exception {
+    int threads = 8;
+    int playersPerThread = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<List<UUID>>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      futures.add(executor.submit(() -> {
+        UUID gameId = UUID.randomUUID();
+        List<UUID> playerIds = new ArrayList<>();
+        for (int i = 0; i < playersPerThread; i++) {
+          PlayerScore player = score("p" + i, i % 100);
+          playerIds.add(player.playerId());
+          leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 1, List.of(player)));
+          leaderboard.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 2,
+              List.of(new PlayerScore(player.playerId(), "p" + i, i % 100 + 1))));
+        }
+        return playerIds;
+      }));
+    }
+    for (Future<List<UUID>> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    assertThat(leaderboard.size()).isEqualTo(threads * playersPerThread);
+    List<LeaderboardEntryResponse> top = leaderboard.top(Leaderboard.MAX_LIMIT);
+    assertThat(top.get(0).getTotalValue()).isEqualTo(100);
+    for (LeaderboardEntryResponse entry : top) {
+      assertThat(leaderboard.standingOf(entry.getPlayerId()).getRank()).isEqualTo(entry.getRank());
+    }
+  }
+
+  private static PlayerScore score(String name, int totalValue) {
+    return new PlayerScore(UUID.randomUUID(), name, totalValue);
+  }
+}
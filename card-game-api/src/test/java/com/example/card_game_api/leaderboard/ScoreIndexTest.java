@@ -0,0 +1,44 @@
+package com.example.card_game_api.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScoreIndexTest {
+
+  @Test
+  void countAbove_shouldCountStrictlyHigherScores() {
+    ScoreIndex index = new ScoreIndex(16);
+    index.add(0, 1);
+    index.add(5, 2);
+    index.add(9, 1);
+
+    assertThat(index.countAbove(-1)).isEqualTo(4);
+    assertThat(index.countAbove(0)).isEqualTo(3);
+    assertThat(index.countAbove(5)).isEqualTo(1);
+    assertThat(index.countAbove(9)).isZero();
+    assertThat(index.countAbove(1000)).isZero();
+
+    index.add(5, -1);
+    assertThat(index.countAbove(0)).isEqualTo(2);
+    assertThat(index.total()).isEqualTo(3);
+  }
+
+  @Test
+  void add_shouldGrowAndKeepExistingCounts() {
+    ScoreIndex index = new ScoreIndex(4);
+    index.add(1, 1);
+    index.add(3, 1);
+
+    index.add(100, 1);
+    index.add(40, 1);
+
+    assertThat(index.capacity()).isEqualTo(128);
+    assertThat(index.total()).isEqualTo(4);
+    assertThat(index.countAbove(1)).isEqualTo(3);
+    assertThat(index.countAbove(3)).isEqualTo(2);
+    assertThat(index.countAbove(40)).isEqualTo(1);
+    assertThatThrownBy(() -> index.add(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.card_game_api.reaper;
+
+import com.example.card_game_api.archive.GameArchiveService;
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.GameService;
+import com.example.card_game_api.game.event.GameActivityEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class IdleGameReaperTest {
+
+  private final GameService gameService = mock(GameService.class);
+  private final GameRepository gameRepository = mock(GameRepository.class);
+  private final GameArchiveService archiveService = mock(GameArchiveService.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void reap_shouldDeleteGamesIdleLongerThanTtl() throws InterruptedException {
+    IdleGameReaper reaper = reaper(Duration.ofMillis(20));
+    UUID gameId = UUID.randomUUID();
+    when(gameService.deleteIdleGames(anyList(), any())).thenReturn(List.of(gameId));
+
+    reaper.onGameActivity(new GameActivityEvent(gameId, Instant.now()));
+    assertThat(reaper.getLiveGames()).isEqualTo(1);
+
+    Thread.sleep(50);
+    reaper.reap();
+
+    verify(gameService).deleteIdleGames(eq(List.of(gameId)), any());
+    assertThat(meterRegistry.get("game.reaper.expired").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void reap_shouldKeepGamesWithRecentActivity() throws InterruptedException {
+    IdleGameReaper reaper = reaper(Duration.ofMinutes(5));
+    reaper.onGameActivity(new GameActivityEvent(UUID.randomUUID(), Instant.now()));
+
+    Thread.sleep(20);
+    reaper.reap();
+
+    verify(gameService, never()).deleteIdleGames(anyList(), any());
+  }
+
+  @Test
+  void reap_whenArchiving_shouldArchiveIdleGamesInsteadOfDeleting() throws InterruptedException {
+    IdleGameReaper reaper = reaper(Duration.ofMillis(20), true);
+    UUID gameId = UUID.randomUUID();
+    when(archiveService.archiveIdleGames(anyList(), any())).thenReturn(List.of(gameId));
+
+    reaper.onGameActivity(new GameActivityEvent(gameId, Instant.now()));
+    Thread.sleep(50);
+    reaper.reap();
+
+    verify(archiveService).archiveIdleGames(eq(List.of(gameId)), any());
+    verify(gameService, never()).deleteIdleGames(anyList(), any());
+    assertThat(meterRegistry.get("game.reaper.expired").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void onGamesDeleted_shouldStopTrackingGames() {
+    IdleGameReaper reaper = reaper(Duration.ofMinutes(5));
+    UUID gameId = UUID.randomUUID();
+    reaper.onGameActivity(new GameActivityEvent(gameId, Instant.now()));
+
+    reaper.onGamesDeleted(new GamesDeletedEvent(List.of(gameId)));
+
+    assertThat(reaper.getLiveGames()).isZero();
+  }
+
+  private IdleGameReaper reaper(Duration idleTtl) {
+    return reaper(idleTtl, false);
+  }
+
+  private IdleGameReaper reaper(Duration idleTtl, boolean archive) {
+    return new IdleGameReaper(gameService, gameRepository, archiveService, meterRegistry, true, archive,
+        idleTtl, Duration.ofMillis(5), 64, 100);
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.card_game_api.reaper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+  @Test
+  void advance_shouldReturnItemsOnlyOnceTheirDeadlinePassed() {
+    TimerWheel<String> wheel = new TimerWheel<>(10, 8, 0);
+    wheel.schedule("a", 25);
+    wheel.schedule("b", 45);
+
+    assertThat(wheel.advance(20)).isEmpty();
+    assertThat(wheel.advance(30)).containsExactly("a");
+    assertThat(wheel.advance(40)).isEmpty();
+    assertThat(wheel.advance(50)).containsExactly("b");
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  void advance_shouldKeepItemsScheduledSeveralRevolutionsAhead() {
+    TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+    wheel.schedule("far", 125);
+
+    assertThat(wheel.advance(50)).isEmpty();
+    assertThat(wheel.advance(120)).isEmpty();
+    assertThat(wheel.advance(130)).containsExactly("far");
+  }
+
+  @Test
+  void advance_afterLongPause_shouldExpireEverythingDue() {
+    TimerWheel<Integer> wheel = new TimerWheel<>(10, 4, 0);
+    for (int i = 1; i <= 20; i++) {
+      wheel.schedule(i, i * 10L);
+    }
+
+    assertThat(wheel.advance(10_000)).hasSize(20);
+  }
+
+  @Test
+  void schedule_inThePast_shouldFireOnNextTick() {
+    TimerWheel<String> wheel = new TimerWheel<>(10, 8, 0);
+    wheel.advance(100);
+    wheel.schedule("late", 5);
+
+    assertThat(wheel.advance(110)).containsExactly("late");
+  }
+}
@@ -0,0 +1,98 @@
+package com.example.card_game_api.search;
+
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent.PlayerScore;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.player.PlayerName;
+import com.example.card_game_api.player.PlayerRepository;
+import com.example.card_game_api.search.dto.response.PlayerMatchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlayerNameIndexTest {
+
+  private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+  private final PlayerNameIndex index = new PlayerNameIndex(playerRepository, new SimpleMeterRegistry(), 4);
+
+  @Test
+  void search_shouldMatchEveryQueryWordAsAPrefixInNameOrder() {
+    UUID gameA = UUID.randomUUID();
+    UUID gameB = UUID.randomUUID();
+    PlayerScore alistair = score("Alistair Smythe");
+    PlayerScore alice = score("Alice Smith");
+    PlayerScore bob = score("Bob Smith");
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameA, 1, List.of(alistair, bob)));
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameB, 1, List.of(alice)));
+
+    assertThat(index.search("ali sm", 10)).extracting(PlayerMatchResponse::getPlayerName)
+        .containsExactly("Alice Smith", "Alistair Smythe");
+    assertThat(index.search("SMITH", 10)).extracting(PlayerMatchResponse::getGameId)
+        .containsExactly(gameB, gameA);
+    assertThat(index.search("smit", 1)).hasSize(1);
+    // Longer than the indexed prefixes: checked against the whole token
+    assertThat(index.search("alistair", 10)).extracting(PlayerMatchResponse::getPlayerId)
+        .containsExactly(alistair.playerId());
+    assertThat(index.search("alicia", 10)).isEmpty();
+    assertThat(index.search("carol", 10)).isEmpty();
+  }
+
+  @Test
+  void search_shouldIgnoreCaseAccentsAndPunctuation() {
+    PlayerScore zoe = score("Zoë O'Brien");
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(UUID.randomUUID(), 1, List.of(zoe)));
+
+    assertThat(index.search("zoe", 10)).hasSize(1);
+    assertThat(index.search("  ZOË, brien!", 10)).hasSize(1);
+    assertThat(index.search("obrien", 10)).isEmpty();
+    assertThatThrownBy(() -> index.search("--", 10)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> index.search("zoe", 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void removalsAndDeletions_shouldDropPlayersAndEmptyKeys() {
+    UUID gameA = UUID.randomUUID();
+    UUID gameB = UUID.randomUUID();
+    PlayerScore alice = score("Alice");
+    PlayerScore bob = score("Bob");
+    PlayerScore carol = score("Carol");
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameA, 1, List.of(alice, bob)));
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameB, 1, List.of(carol)));
+    // Later score events of the same players change nothing
+    index.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameA, 2, List.of(alice)));
+
+    index.onPlayersRemoved(new PlayersRemovedEvent(gameA, List.of(alice.playerId())));
+    index.onGamesDeleted(new GamesDeletedEvent(List.of(gameB)));
+
+    assertThat(index.search("alice", 10)).isEmpty();
+    assertThat(index.search("carol", 10)).isEmpty();
+    assertThat(index.search("bob", 10)).hasSize(1);
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  void rebuild_shouldIndexThePlayersTable() {
+    UUID gameId = UUID.randomUUID();
+    UUID playerId = UUID.randomUUID();
+    when(playerRepository.findAllNames()).thenReturn(List.of(
+        new PlayerName(playerId, gameId, "Dana Scully"),
+        new PlayerName(UUID.randomUUID(), gameId, null)));
+
+    index.rebuild();
+
+    assertThat(index.search("scul", 10)).containsExactly(new PlayerMatchResponse(playerId, "Dana Scully", gameId));
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  private static PlayerScore score(String name) {
+    return new PlayerScore(UUID.randomUUID(), name, 0);
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentShoeTest {
+
+  @Test
+  void claim_shouldTakeCardsFromTheTopUntilTheShoeRunsOut() {
+    ConcurrentShoe shoe = new ConcurrentShoe(new byte[] {0, 13, 26, 39, 51});
+
+    ConcurrentShoe.Claim first = shoe.claim(2);
+    ConcurrentShoe.Claim second = shoe.claim(10);
+
+    assertThat(first).isEqualTo(new ConcurrentShoe.Claim(0, 2));
+    assertThat(shoe.cards(first)).containsExactly(CardCodes.fromCode(0), CardCodes.fromCode(13));
+    assertThat(second).isEqualTo(new ConcurrentShoe.Claim(2, 3));
+    assertThat(shoe.claim(1).count()).isZero();
+    assertThat(shoe.claim(-1).count()).isZero();
+    assertThat(shoe.size()).isZero();
+    assertThat(shoe.claimed()).isEqualTo(5);
+  }
+
+  @Test
+  void claim_shouldDealEveryCardExactlyOnceUnderContention() throws Exception {
+    int threads = 8;
+    byte[] codes = new byte[20 * CardCodes.CARD_COUNT];
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = (byte) (i % CardCodes.CARD_COUNT);
+    }
+    ConcurrentShoe shoe = new ConcurrentShoe(codes.clone());
+    ConcurrentLinkedQueue<ConcurrentShoe.Claim> claims = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<Card>>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Random random = new Random(t);
+        futures.add(executor.submit(() -> {
+          start.await();
+          List<Card> dealt = new ArrayList<>();
+          while (true) {
+            ConcurrentShoe.Claim claim = shoe.claim(1 + random.nextInt(3));
+            if (claim.count() == 0) {
+              return dealt;
+            }
+            claims.add(claim);
+            dealt.addAll(shoe.cards(claim));
+          }
+        }));
+      }
+      start.countDown();
+
+      List<Card> dealt = new ArrayList<>();
+      for (Future<List<Card>> future : futures) {
+        dealt.addAll(future.get());
+      }
+
+      // The claims tile the shoe: no position twice, none skipped
+      List<ConcurrentShoe.Claim> sorted = new ArrayList<>(claims);
+      sorted.sort(Comparator.comparingInt(ConcurrentShoe.Claim::from));
+      int position = 0;
+      for (ConcurrentShoe.Claim claim : sorted) {
+        assertThat(claim.from()).isEqualTo(position);
+        position = claim.to();
+      }
+      assertThat(position).isEqualTo(codes.length);
+
+      List<Card> expected = new ArrayList<>();
+      for (byte code : codes) {
+        expected.add(CardCodes.fromCode(code));
+      }
+      assertThat(dealt).hasSize(codes.length).containsExactlyInAnyOrderElementsOf(expected);
+      assertThat(Collections.frequency(dealt, CardCodes.fromCode(0))).isEqualTo(20);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
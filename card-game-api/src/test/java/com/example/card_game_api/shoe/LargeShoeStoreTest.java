@@ -0,0 +1,102 @@
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.game.GameRepository;
+import com.example.card_game_api.game.GameService;
+import com.example.card_game_api.game.dto.request.GameCommandRequest;
+import com.example.card_game_api.game.dto.request.GameCommandType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class LargeShoeStoreTest {
+
+  @Autowired
+  private GameService gameService;
+
+  @Autowired
+  private LargeShoeStore largeShoes;
+
+  @Autowired
+  private GameRepository gameRepository;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void failedCommandBatch_shouldPutDealtCardsBackInTheShoe() {
+    UUID gameId = gameService.createGame(true).getId();
+    UUID playerId = gameService.addPlayer(gameId, "Alice").getId();
+    gameService.addDeckToGame(gameId, 3);
+    gameService.shuffle(gameId);
+    LargeShoe shoe = largeShoes.shoe(gameId);
+    List<Card> undealtCards = shoe.sortedCards(0, 156);
+
+    GameCommandRequest deal = command(GameCommandType.DEAL);
+    deal.setPlayerId(playerId);
+    deal.setAmount(10);
+    GameCommandRequest shuffle = command(GameCommandType.SHUFFLE);
+    GameCommandRequest badDeal = command(GameCommandType.DEAL);
+    badDeal.setPlayerRef(0);
+    assertThatThrownBy(() -> gameService.executeCommands(gameId, List.of(deal, shuffle, deal, badDeal)))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(shoe.size()).isEqualTo(156);
+    assertThat(shoe.sortedCards(0, 156)).isEqualTo(undealtCards);
+    assertThat(gameService.dealCards(gameId, playerId, 10)).hasSize(10);
+    assertThat(shoe.size()).isEqualTo(146);
+    gameService.deleteGame(gameId);
+  }
+
+  @Test
+  void shoe_whenTheGameWasDeleted_shouldNotCreateItAgain() {
+    UUID gameId = gameService.createGame(true).getId();
+    gameService.addDeckToGame(gameId, 2);
+    int openShoes = largeShoes.openShoes();
+
+    gameService.deleteGame(gameId);
+
+    assertThatThrownBy(() -> largeShoes.shoe(gameId)).isInstanceOf(NoSuchElementException.class);
+    assertThat(largeShoes.find(gameId)).isEmpty();
+    assertThat(largeShoes.openShoes()).isEqualTo(openShoes - 1);
+  }
+
+  @Test
+  void deleteOrphanedShoes_shouldLeaveTheShoesOfAnotherInstanceAlone() throws IOException {
+    LargeShoeStore first = new LargeShoeStore(gameRepository, directory, Duration.ofSeconds(1));
+    LargeShoeStore second = new LargeShoeStore(gameRepository, directory, Duration.ofSeconds(1));
+    first.create(UUID.randomUUID()).addDecks(1);
+    UUID gameId = UUID.randomUUID();
+    second.create(gameId).addDecks(1);
+
+    first.deleteOrphanedShoes();
+
+    assertThat(first.openShoes()).isZero();
+    assertThat(second.openShoes()).isEqualTo(1);
+    try (var files = Files.walk(directory)) {
+      assertThat(files.filter(file -> file.toString().endsWith(".shoe")))
+          .containsExactly(directory.resolve("instance-1").resolve(gameId + ".shoe"));
+    }
+    second.close();
+    first.close();
+  }
+
+  private static GameCommandRequest command(GameCommandType type) {
+    GameCommandRequest command = new GameCommandRequest();
+    command.setType(type);
+    return command;
+  }
+}
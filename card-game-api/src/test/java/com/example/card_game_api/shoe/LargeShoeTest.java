@@ -0,0 +1,159 @@
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.Rank;
+import com.example.card_game_api.card.Suit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LargeShoeTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void deal_shouldTakeCardsFromTheTopAndUpdateCounts() {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"))) {
+      shoe.addDecks(2);
+
+      List<Card> dealt = shoe.deal(3);
+
+      // Unshuffled decks end with the diamonds, ranked ace to king
+      assertThat(dealt).containsExactly(
+          new Card(Suit.DIAMONDS, Rank.KING), new Card(Suit.DIAMONDS, Rank.QUEEN), new Card(Suit.DIAMONDS, Rank.JACK));
+      assertThat(shoe.size()).isEqualTo(101);
+      assertThat(shoe.suitCount(Suit.DIAMONDS)).isEqualTo(23);
+      assertThat(shoe.suitCount(Suit.HEARTS)).isEqualTo(26);
+      assertThat(shoe.deal(1000)).hasSize(101);
+      assertThat(shoe.deal(1)).isEmpty();
+    }
+  }
+
+  @Test
+  void shuffle_shouldPermuteWithoutChangingCounts() {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"))) {
+      shoe.addDecks(1);
+      shoe.shuffle(new Random(42));
+
+      List<Card> all = shoe.deal(52);
+
+      assertThat(all).hasSize(52).doesNotHaveDuplicates();
+      assertThat(all.subList(0, 13)).isNotEqualTo(shoe.sortedCards(0, 13));
+    }
+  }
+
+  @Test
+  void sortedCards_shouldPageThroughSuitsThenDescendingRanks() {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"))) {
+      shoe.addDecks(3);
+      shoe.shuffle(new Random(7));
+
+      assertThat(shoe.sortedCards(0, 4)).containsExactly(
+          new Card(Suit.HEARTS, Rank.KING), new Card(Suit.HEARTS, Rank.KING),
+          new Card(Suit.HEARTS, Rank.KING), new Card(Suit.HEARTS, Rank.QUEEN));
+      assertThat(shoe.sortedCards(38, 2)).containsExactly(
+          new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.SPADES, Rank.KING));
+      assertThat(shoe.sortedCards(155, 10)).containsExactly(new Card(Suit.DIAMONDS, Rank.ACE));
+    }
+  }
+
+  @Test
+  void recycleDiscards_shouldReturnDiscardedCardsToTheShoe() {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"))) {
+      shoe.addDecks(1);
+      List<Card> hand = shoe.deal(10);
+      shoe.discard(hand);
+      assertThat(shoe.discardedCount()).isEqualTo(10);
+
+      assertThat(shoe.recycleDiscards(new Random(1))).isEqualTo(10);
+
+      assertThat(shoe.discardedCount()).isZero();
+      assertThat(shoe.size()).isEqualTo(52);
+      assertThat(shoe.deal(52)).doesNotHaveDuplicates();
+    }
+  }
+
+  @Test
+  void rollback_shouldUndoEveryChangeSinceBegin() throws InterruptedException {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"));
+         LargeShoe untouched = LargeShoe.open(directory.resolve("untouched.shoe"))) {
+      for (LargeShoe each : List.of(shoe, untouched)) {
+        each.addDecks(2);
+        each.shuffle(new Random(3));
+        each.discard(each.deal(20));
+      }
+
+      assertThat(shoe.begin(1, TimeUnit.SECONDS)).isTrue();
+      shoe.addDecks(100);
+      shoe.shuffle(new Random(5));
+      shoe.discard(shoe.deal(30));
+      shoe.recycleDiscards(new Random(7));
+      shoe.deal(7);
+      shoe.rollback();
+
+      assertThat(shoe.size()).isEqualTo(untouched.size());
+      assertThat(shoe.discardedCount()).isEqualTo(untouched.discardedCount());
+      assertThat(shoe.sortedCards(0, 100)).isEqualTo(untouched.sortedCards(0, 100));
+      assertThat(shoe.deal(84)).isEqualTo(untouched.deal(84));
+    }
+  }
+
+  @Test
+  void begin_shouldWaitForTheOwnerToCommit() throws Exception {
+    try (LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"))) {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        assertThat(shoe.begin(1, TimeUnit.SECONDS)).isTrue();
+        shoe.addDecks(1);
+
+        assertThat(executor.submit(() -> shoe.begin(10, TimeUnit.MILLISECONDS)).get()).isFalse();
+        shoe.commit();
+        assertThat(executor.submit(() -> {
+          boolean owned = shoe.begin(1, TimeUnit.SECONDS);
+          shoe.rollback();
+          return owned;
+        }).get()).isTrue();
+        assertThat(shoe.size()).isEqualTo(52);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  void close_shouldLeaveTheBufferReadableForARequestStillHoldingTheShoe() {
+    LargeShoe shoe = LargeShoe.open(directory.resolve("game.shoe"));
+    shoe.addDecks(1);
+
+    shoe.close();
+
+    assertThat(shoe.size()).isEqualTo(52);
+    assertThat(shoe.deal(2)).hasSize(2);
+  }
+
+  @Test
+  void open_shouldGrowTheFileAndKeepStateAcrossReopen() {
+    Path file = directory.resolve("game.shoe");
+    try (LargeShoe shoe = LargeShoe.open(file)) {
+      shoe.addDecks(500);
+      shoe.deal(26);
+    }
+    try (LargeShoe shoe = LargeShoe.open(file)) {
+      assertThat(shoe.size()).isEqualTo(500 * 52 - 26);
+      List<Card> sorted = new ArrayList<>(shoe.sortedCards(0, 10));
+      assertThat(sorted).hasSize(10);
+      assertThatThrownBy(() -> shoe.addDecks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+}
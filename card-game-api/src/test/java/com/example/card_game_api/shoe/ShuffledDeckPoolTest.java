@@ -0,0 +1,77 @@
+package com.example.card_game_api.shoe;
+
+import com.example.card_game_api.card.CardCodes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShuffledDeckPoolTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void refill_shouldFillEveryDeckCountUpToThePoolSize() {
+    ShuffledDeckPool pool = new ShuffledDeckPool(meterRegistry, 3, 4, 5);
+
+    pool.refill();
+    assertThat(pool.depth()).isEqualTo(5);
+    pool.refill();
+    pool.refill();
+
+    assertThat(pool.depth()).isEqualTo(12);
+    assertThat(meterRegistry.get("game.shuffle-pool.depth").gauge().value()).isEqualTo(12);
+  }
+
+  @Test
+  void take_shouldHandOutEachPooledShoeOnce() {
+    ShuffledDeckPool pool = new ShuffledDeckPool(meterRegistry, 2, 2, 10);
+    pool.refill();
+
+    byte[] first = pool.take(2);
+    byte[] second = pool.take(2);
+    byte[] inline = pool.take(2);
+
+    assertThat(first).isNotSameAs(second);
+    assertThat(inline).hasSize(104);
+    assertThat(meterRegistry.get("game.shuffle-pool.hits").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("game.shuffle-pool.misses").counter().count()).isEqualTo(1);
+    assertThat(pool.depth()).isEqualTo(2);
+  }
+
+  @Test
+  void take_forUnpooledDeckCount_shouldShuffleInline() {
+    ShuffledDeckPool pool = new ShuffledDeckPool(meterRegistry, 2, 2, 10);
+    pool.refill();
+
+    assertThat(pool.take(6)).hasSize(6 * CardCodes.CARD_COUNT);
+    assertThat(meterRegistry.get("game.shuffle-pool.misses").counter().count()).isEqualTo(1);
+    assertThatThrownBy(() -> pool.take(0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void shuffled_shouldHoldEveryCardOncePerDeckInUniformOrder() {
+    Random random = new Random(42);
+    int trials = 52_000;
+    int[] topCardCounts = new int[CardCodes.CARD_COUNT];
+    for (int trial = 0; trial < trials; trial++) {
+      byte[] shoe = ShuffledDeckPool.shuffled(3, random);
+      if (trial == 0) {
+        int[] counts = new int[CardCodes.CARD_COUNT];
+        for (byte code : shoe) {
+          counts[code]++;
+        }
+        assertThat(counts).containsOnly(3);
+      }
+      topCardCounts[shoe[0]]++;
+    }
+
+    // Each card should be on top about 1000 times; 5 standard deviations either way
+    for (int count : topCardCounts) {
+      assertThat(count).isBetween(845, 1155);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.card_game_api.stats;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.Rank;
+import com.example.card_game_api.card.Suit;
+import com.example.card_game_api.game.event.CardsDealtEvent;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent;
+import com.example.card_game_api.game.event.PlayerScoresChangedEvent.PlayerScore;
+import com.example.card_game_api.game.event.PlayersRemovedEvent;
+import com.example.card_game_api.game.event.ShoeSizeChangedEvent;
+import com.example.card_game_api.stats.dto.response.ShoeSizeBucketResponse;
+import com.example.card_game_api.stats.dto.response.StatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStatisticsTest {
+
+  private final GameStatistics statistics = new GameStatistics();
+
+  @Test
+  void onCardsDealt_shouldCountCardsBySuitAndRankAndDeals() {
+    UUID gameId = UUID.randomUUID();
+    statistics.onCardsDealt(new CardsDealtEvent(gameId,
+        List.of(new Card(Suit.HEARTS, Rank.ACE), new Card(Suit.SPADES, Rank.ACE))));
+    statistics.onCardsDealt(new CardsDealtEvent(gameId, List.of(new Card(Suit.HEARTS, Rank.KING))));
+
+    StatsResponse stats = statistics.snapshot();
+
+    assertThat(stats.getCardsDealt()).isEqualTo(3);
+    assertThat(stats.getCardsDealtBySuit()).containsEntry(Suit.HEARTS, 2L).containsEntry(Suit.CLUBS, 0L);
+    assertThat(stats.getCardsDealtByRank()).containsEntry(Rank.ACE, 2L).containsEntry(Rank.KING, 1L);
+    assertThat(stats.getDeals()).isEqualTo(2);
+  }
+
+  @Test
+  void onShoeSizeChanged_shouldMoveGameBetweenBucketsAndIgnoreOlderVersions() {
+    UUID gameA = UUID.randomUUID();
+    UUID gameB = UUID.randomUUID();
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(gameA, 1, 0));
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(gameB, 1, 52));
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(gameA, 3, 312));
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(gameA, 2, 104));
+
+    assertThat(statistics.snapshot().getGames()).isEqualTo(2);
+    assertThat(buckets()).containsEntry(0L, 0L).containsEntry(52L, 1L).containsEntry(416L, 1L);
+
+    statistics.onGamesDeleted(new GamesDeletedEvent(List.of(gameA)));
+
+    assertThat(statistics.snapshot().getGames()).isEqualTo(1);
+    assertThat(buckets()).containsEntry(416L, 0L);
+  }
+
+  @Test
+  void onPlayerScoresChanged_shouldAverageCurrentHandValues() {
+    UUID gameId = UUID.randomUUID();
+    PlayerScore alice = new PlayerScore(UUID.randomUUID(), "Alice", 10);
+    PlayerScore bob = new PlayerScore(UUID.randomUUID(), "Bob", 4);
+    statistics.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 1, List.of(alice, bob)));
+    statistics.onPlayerScoresChanged(new PlayerScoresChangedEvent(gameId, 2,
+        List.of(new PlayerScore(alice.playerId(), "Alice", 20))));
+
+    assertThat(statistics.snapshot().getAverageHandValue()).isEqualTo(12.0);
+
+    statistics.onPlayersRemoved(new PlayersRemovedEvent(gameId, List.of(bob.playerId())));
+    assertThat(statistics.snapshot().getPlayers()).isEqualTo(1);
+    assertThat(statistics.snapshot().getAverageHandValue()).isEqualTo(20.0);
+
+    statistics.onGamesDeleted(new GamesDeletedEvent(List.of(gameId)));
+    assertThat(statistics.snapshot().getPlayers()).isZero();
+    assertThat(statistics.snapshot().getAverageHandValue()).isZero();
+  }
+
+  @Test
+  void reconcile_shouldReplaceDriftedStateButKeepNewerChanges() {
+    UUID stored = UUID.randomUUID();
+    UUID gone = UUID.randomUUID();
+    UUID createdDuringReconcile = UUID.randomUUID();
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(stored, 4, 10));
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(gone, 1, 52));
+    long startedAt = System.nanoTime();
+    statistics.onShoeSizeChanged(new ShoeSizeChangedEvent(createdDuringReconcile, 1, 0));
+    UUID playerId = UUID.randomUUID();
+
+    statistics.reconcile(
+        Map.of(stored, new GameStatistics.ShoeSize(4, 100, startedAt)),
+        Map.of(playerId, new GameStatistics.HandValue(stored, 4, 9, startedAt)),
+        startedAt);
+
+    assertThat(statistics.snapshot().getGames()).isEqualTo(2);
+    assertThat(buckets()).containsEntry(0L, 1L).containsEntry(52L, 0L).containsEntry(104L, 1L);
+    assertThat(statistics.snapshot().getPlayers()).isEqualTo(1);
+    assertThat(statistics.snapshot().getAverageHandValue()).isEqualTo(9.0);
+  }
+
+  @Test
+  void eventRate_shouldAverageFullSecondsOfTheWindow() {
+    EventRate rate = new EventRate(10);
+    long start = 1_000_000;
+    rate.record(30, start);
+    rate.record(20, start + 4_000);
+    rate.record(99, start + 10_500);
+
+    assertThat(rate.perSecond(start + 10_500)).isEqualTo(5.0);
+    assertThat(rate.perSecond(start + 14_500)).isEqualTo(11.9);
+    assertThat(rate.perSecond(start + 60_000)).isZero();
+  }
+
+  private Map<Long, Long> buckets() {
+    Map<Long, Long> buckets = new HashMap<>();
+    for (ShoeSizeBucketResponse bucket : statistics.snapshot().getShoeSizes()) {
+      buckets.put(bucket.getMaxCards(), bucket.getGames());
+    }
+    return buckets;
+  }
+}
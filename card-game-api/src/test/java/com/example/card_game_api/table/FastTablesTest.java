@@ -0,0 +1,199 @@
+package com.example.card_game_api.table;
+
+import com.example.card_game_api.card.Card;
+import com.example.card_game_api.card.CardCodes;
+import com.example.card_game_api.game.GameService;
+import com.example.card_game_api.game.event.GamesDeletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FastTablesTest {
+
+  private final GameService gameService = mock(GameService.class);
+  private final FastTables fastTables = new FastTables(gameService, new SimpleMeterRegistry());
+  private final UUID gameId = UUID.randomUUID();
+
+  @Test
+  void concurrentDealsAndFlushes_shouldSaveEveryCardOnceInShoeOrder() throws Exception {
+    int players = 6;
+    byte[] codes = new byte[8 * CardCodes.CARD_COUNT];
+    for (int i = 0; i < codes.length; i++) {
+      codes[i] = (byte) ((i * 7) % CardCodes.CARD_COUNT);
+    }
+    List<UUID> playerIds = new ArrayList<>();
+    List<FastTableSeed.Seat> seats = new ArrayList<>();
+    for (int p = 0; p < players; p++) {
+      UUID playerId = UUID.randomUUID();
+      playerIds.add(playerId);
+      seats.add(new FastTableSeed.Seat(playerId, "Player " + p, List.of()));
+    }
+    when(gameService.openFastTable(gameId)).thenReturn(new FastTableSeed(gameId, codes.clone(), seats));
+    List<TableDraw> saved = new ArrayList<>();
+    doAnswer(invocation -> saved.addAll(invocation.getArgument(1)))
+        .when(gameService).applyTableDraws(eq(gameId), anyList());
+
+    fastTables.open(gameId);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean dealing = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(players + 1);
+    Map<UUID, List<Card>> dealt = new HashMap<>();
+    try {
+      List<Future<List<Card>>> futures = new ArrayList<>();
+      for (UUID playerId : playerIds) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          List<Card> hand = new ArrayList<>();
+          while (true) {
+            List<Card> cards = fastTables.deal(gameId, playerId, 1 + hand.size() % 3);
+            if (cards.isEmpty()) {
+              return hand;
+            }
+            hand.addAll(cards);
+          }
+        }));
+      }
+      Future<?> flusher = executor.submit(() -> {
+        start.await();
+        while (dealing.get()) {
+          fastTables.flush();
+        }
+        return null;
+      });
+      start.countDown();
+
+      for (int p = 0; p < players; p++) {
+        dealt.put(playerIds.get(p), futures.get(p).get());
+      }
+      dealing.set(false);
+      flusher.get();
+
+      for (UUID playerId : playerIds) {
+        assertThat(fastTables.hand(gameId, playerId)).isEqualTo(dealt.get(playerId));
+      }
+      fastTables.close(gameId);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // The saved draws, concatenated, are the shoe exactly once and in order
+    List<Card> savedCards = new ArrayList<>();
+    Map<UUID, List<Card>> savedHands = new HashMap<>();
+    for (TableDraw draw : saved) {
+      savedCards.addAll(draw.cards());
+      savedHands.computeIfAbsent(draw.playerId(), id -> new ArrayList<>()).addAll(draw.cards());
+    }
+    List<Card> shoe = new ArrayList<>();
+    for (byte code : codes) {
+      shoe.add(CardCodes.fromCode(code));
+    }
+    assertThat(savedCards).isEqualTo(shoe);
+    for (UUID playerId : playerIds) {
+      assertThat(savedHands.getOrDefault(playerId, List.of())).isEqualTo(dealt.get(playerId));
+    }
+    assertThat(fastTables.deal(gameId, playerIds.getFirst(), 1)).isNull();
+    verify(gameService).closeFastTable(gameId);
+  }
+
+  @Test
+  void failedFlush_shouldKeepTheDrawsForTheNextOne() {
+    UUID playerId = UUID.randomUUID();
+    Card opening = CardCodes.fromCode(51);
+    when(gameService.openFastTable(gameId)).thenReturn(new FastTableSeed(
+        gameId, new byte[] {0, 1, 2}, List.of(new FastTableSeed.Seat(playerId, "Alice", List.of(opening)))));
+    fastTables.open(gameId);
+    assertThat(fastTables.deal(gameId, playerId, 2)).containsExactly(CardCodes.fromCode(0), CardCodes.fromCode(1));
+
+    doThrow(new IllegalStateException("database down")).doNothing()
+        .when(gameService).applyTableDraws(eq(gameId), anyList());
+    fastTables.flush();
+    assertThat(fastTables.status(gameId).getUnsavedCards()).isEqualTo(2);
+    fastTables.flush();
+
+    verify(gameService, times(2)).applyTableDraws(gameId, List.of(
+        new TableDraw(playerId, List.of(CardCodes.fromCode(0), CardCodes.fromCode(1)))));
+    assertThat(fastTables.status(gameId).getUnsavedCards()).isZero();
+    assertThat(fastTables.hand(gameId, playerId))
+        .containsExactly(opening, CardCodes.fromCode(0), CardCodes.fromCode(1));
+    assertThatThrownBy(() -> fastTables.deal(gameId, UUID.randomUUID(), 1))
+        .isInstanceOf(NoSuchElementException.class);
+  }
+
+  @Test
+  void openDuringClose_shouldWaitAndStartAFreshTable() throws Exception {
+    UUID playerId = UUID.randomUUID();
+    List<FastTableSeed.Seat> seats = List.of(new FastTableSeed.Seat(playerId, "Alice", List.of()));
+    when(gameService.openFastTable(gameId)).thenReturn(
+        new FastTableSeed(gameId, new byte[] {0, 1}, seats), new FastTableSeed(gameId, new byte[] {1}, seats));
+    fastTables.open(gameId);
+    fastTables.deal(gameId, playerId, 1);
+    CountDownLatch closing = new CountDownLatch(1);
+    CountDownLatch flagCleared = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      closing.countDown();
+      flagCleared.await();
+      return null;
+    }).when(gameService).closeFastTable(gameId);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> close = executor.submit(() -> fastTables.close(gameId));
+      closing.await();
+      Future<?> open = executor.submit(() -> fastTables.open(gameId));
+      Thread.sleep(50);
+      assertThat(open.isDone()).isFalse();
+      flagCleared.countDown();
+      close.get();
+      open.get();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(gameService, times(2)).openFastTable(gameId);
+    assertThat(fastTables.status(gameId).getUndealtCards()).isEqualTo(1);
+    assertThat(fastTables.deal(gameId, playerId, 1)).containsExactly(CardCodes.fromCode(1));
+  }
+
+  @Test
+  void tablesNotOpen_shouldLeaveDealsToTheGameService() {
+    UUID playerId = UUID.randomUUID();
+
+    assertThat(fastTables.deal(gameId, playerId, 1)).isNull();
+    assertThat(fastTables.hand(gameId, playerId)).isNull();
+    assertThatThrownBy(() -> fastTables.status(gameId)).isInstanceOf(NoSuchElementException.class);
+
+    when(gameService.openFastTable(gameId)).thenReturn(new FastTableSeed(
+        gameId, new byte[] {0}, List.of(new FastTableSeed.Seat(playerId, "Alice", List.of()))));
+    fastTables.open(gameId);
+    fastTables.deal(gameId, playerId, 1);
+    fastTables.onGamesDeleted(new GamesDeletedEvent(List.of(gameId)));
+
+    assertThat(fastTables.deal(gameId, playerId, 1)).isNull();
+    fastTables.flush();
+    verify(gameService, never()).applyTableDraws(any(), anyList());
+  }
+}
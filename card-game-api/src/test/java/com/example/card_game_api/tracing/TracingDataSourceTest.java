@@ -0,0 +1,73 @@
+package com.example.card_game_api.tracing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TracingDataSourceTest {
+
+  private final TracingDataSource dataSource = new TracingDataSource(h2());
+
+  @AfterEach
+  void clearTrace() {
+    RequestTrace.clear();
+  }
+
+  @Test
+  void statements_shouldCountExecutionsAndRowsOfTheCurrentRequest() throws Exception {
+    RequestTrace trace = RequestTrace.start();
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      statement.execute("create table card (code int)");
+      try (PreparedStatement insert = connection.prepareStatement("insert into card values (?)")) {
+        for (int code = 0; code < 3; code++) {
+          insert.setInt(1, code);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+      try (ResultSet rows = statement.executeQuery("select code from card")) {
+        while (rows.next()) {
+          assertThat(rows.getInt(1)).isBetween(0, 2);
+        }
+      }
+    }
+
+    assertThat(trace.getStatements()).isEqualTo(3);
+    assertThat(trace.getRows()).isEqualTo(6);
+    assertThat(trace.toServerTiming()).contains("sql;desc=\"statements=3 rows=6\"");
+  }
+
+  @Test
+  void statements_withoutActiveTrace_shouldNotBeWrapped() throws Exception {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement()) {
+      assertThat(statement).isNotInstanceOf(java.lang.reflect.Proxy.class);
+      assertThat(statement.executeQuery("select 1").next()).isTrue();
+    }
+  }
+
+  @Test
+  void sqlInsideFlush_shouldNotCountAsLoad() {
+    RequestTrace trace = RequestTrace.start();
+    trace.flushStarted();
+    trace.sqlExecuted(5_000_000);
+    trace.flushEnded();
+    trace.sqlExecuted(2_000_000);
+
+    assertThat(trace.toServerTiming()).startsWith("load;dur=2.00, flush;dur=");
+  }
+
+  private static JdbcDataSource h2() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:tracing-" + System.nanoTime());
+    return h2;
+  }
+}